@@ -15,6 +15,7 @@ import org.andstatus.app.account.MyAccounts;
 import org.andstatus.app.context.MyContextHolder;
 import org.andstatus.app.context.MyStorage;
 import org.andstatus.app.context.TestSuite;
+import org.andstatus.app.database.DatabaseHolder;
 import org.andstatus.app.service.MyServiceManager;
 import org.andstatus.app.util.FileUtils;
 import org.andstatus.app.util.MyLog;
@@ -28,10 +29,15 @@ import org.junit.Rule;
 import org.junit.Test;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
 
 import static org.andstatus.app.context.DemoData.demoData;
 import static org.junit.Assert.assertEquals;
@@ -51,6 +57,17 @@ public class MyBackupAgentTest {
 
     @Test
     public void testBackupRestore() throws IOException, JSONException, NameNotFoundException, InterruptedException {
+        backupAndRestore(false);
+    }
+
+    @Test
+    public void testRestoreNotCompressedBackup() throws IOException, JSONException, NameNotFoundException,
+            InterruptedException {
+        backupAndRestore(true);
+    }
+
+    private void backupAndRestore(boolean asNotCompressedBackup) throws IOException, JSONException,
+            NameNotFoundException, InterruptedException {
         MyAccounts accountsBefore = MyAccounts.newEmpty(MyContextHolder.get());
         accountsBefore.initialize();
 
@@ -63,6 +80,7 @@ public class MyBackupAgentTest {
         
         File outputFolder = MyContextHolder.get().context().getCacheDir();
         File dataFolder = testBackup(outputFolder);
+        if (asNotCompressedBackup) convertToNotCompressedBackup(dataFolder);
         deleteApplicationData();
         testRestore(dataFolder);
 
@@ -109,6 +127,15 @@ public class MyBackupAgentTest {
         MyBackupDescriptor backupDescriptor = backupManager.getBackupAgent().getBackupDescriptor();
         assertEquals(MyBackupDescriptor.BACKUP_SCHEMA_VERSION, backupDescriptor.getBackupSchemaVersion());
         
+        File databaseHeader = new File(backupManager.getDataFolder(),
+                MyBackupAgent.DATABASE_KEY + "_" + DatabaseHolder.DATABASE_NAME + MyBackupDataOutput.HEADER_FILE_SUFFIX);
+        assertTrue(databaseHeader.exists());
+        jso = FileUtils.getJSONObject(databaseHeader);
+        assertEquals(".gz", jso.getString(MyBackupDataOutput.KEY_FILE_EXTENSION));
+        long databaseLength = MyStorage.getDatabasePath(DatabaseHolder.DATABASE_NAME).length();
+        assertTrue("Database is compressed: " + jso.toString(2) + ", database length: " + databaseLength,
+                jso.getInt(MyBackupDataOutput.KEY_DATA_SIZE) < databaseLength);
+
         File accountHeader = new File(backupManager.getDataFolder(), "account_header.json");
         assertTrue(accountHeader.exists());
         jso = FileUtils.getJSONObject(accountHeader);
@@ -123,6 +150,36 @@ public class MyBackupAgentTest {
         return backupManager.getDataFolder();
     }
 
+    /** Makes the backup look like created before the database was compressed,
+     * see {@link MyBackupDescriptor#BACKUP_SCHEMA_VERSION_NOT_COMPRESSED} */
+    private void convertToNotCompressedBackup(File dataFolder) throws IOException, JSONException {
+        File descriptorFile = new File(dataFolder, MyBackupManager.DESCRIPTOR_FILE_NAME);
+        JSONObject jso = FileUtils.getJSONObject(descriptorFile);
+        jso.put(MyBackupDescriptor.KEY_BACKUP_SCHEMA_VERSION, MyBackupDescriptor.BACKUP_SCHEMA_VERSION_NOT_COMPRESSED);
+        writeToFile(descriptorFile, jso.toString().getBytes("UTF-8"));
+
+        String key = MyBackupAgent.DATABASE_KEY + "_" + DatabaseHolder.DATABASE_NAME;
+        File headerFile = new File(dataFolder, key + MyBackupDataOutput.HEADER_FILE_SUFFIX);
+        jso = FileUtils.getJSONObject(headerFile);
+        String compressedExtension = jso.getString(MyBackupDataOutput.KEY_FILE_EXTENSION);
+        File compressedFile = new File(dataFolder, key + MyBackupDataOutput.DATA_FILE_SUFFIX + compressedExtension);
+        String extension = MyBackupDataOutput.getDataFileExtension(MyStorage.getDatabasePath(DatabaseHolder.DATABASE_NAME));
+        File dataFile = new File(dataFolder, key + MyBackupDataOutput.DATA_FILE_SUFFIX + extension);
+        try (InputStream in = new GZIPInputStream(new FileInputStream(compressedFile))) {
+            FileUtils.readStreamToFile(in, dataFile);
+        }
+        assertTrue("Deleted " + compressedFile, compressedFile.delete());
+        jso.put(MyBackupDataOutput.KEY_DATA_SIZE, dataFile.length());
+        jso.put(MyBackupDataOutput.KEY_FILE_EXTENSION, extension);
+        writeToFile(headerFile, jso.toString(2).getBytes("UTF-8"));
+    }
+
+    private static void writeToFile(File file, byte[] bytes) throws IOException {
+        try (OutputStream out = new FileOutputStream(file, false)) {
+            out.write(bytes);
+        }
+    }
+
     private void deleteApplicationData() throws IOException {
         MyServiceManager.setServiceUnavailable();
         deleteAccounts();
@@ -0,0 +1,60 @@
+package org.andstatus.app.data;
+
+import android.database.Cursor;
+import android.database.MatrixCursor;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class ColumnIndexedCursorTest {
+
+    private static class Columns {
+        static int resolved = 0;
+        final int id;
+        final int name;
+        final int count;
+        final int absent;
+
+        Columns(Cursor cursor) {
+            resolved++;
+            id = cursor.getColumnIndex("_id");
+            name = cursor.getColumnIndex("name");
+            count = cursor.getColumnIndex("count");
+            absent = cursor.getColumnIndex("absent");
+        }
+    }
+
+    @Test
+    public void testReadByColumnIndexes() {
+        MatrixCursor matrixCursor = new MatrixCursor(new String[]{"_id", "name", "count"});
+        matrixCursor.addRow(new Object[]{1L, "first", 11});
+        matrixCursor.addRow(new Object[]{2L, "second", 22});
+
+        Columns.resolved = 0;
+        assertNotSame("Not wrapped cursor", ColumnIndexedCursor.columns(matrixCursor, Columns.class, Columns::new),
+                ColumnIndexedCursor.columns(matrixCursor, Columns.class, Columns::new));
+        assertEquals(2, Columns.resolved);
+
+        Columns.resolved = 0;
+        Cursor cursor = ColumnIndexedCursor.of(matrixCursor);
+        assertSame("Wrapped once", cursor, ColumnIndexedCursor.of(cursor));
+        long sum = 0;
+        while (cursor.moveToNext()) {
+            Columns columns = ColumnIndexedCursor.columns(cursor, Columns.class, Columns::new);
+            assertEquals(-1, columns.absent);
+            assertEquals(2, columns.count);
+            assertEquals(0, DbUtils.getLong(cursor, columns.absent));
+            sum += DbUtils.getLong(cursor, columns.id) * 100 + DbUtils.getInt(cursor, columns.count);
+            assertEquals(cursor.getPosition() == 0 ? "first" : "second", DbUtils.getString(cursor, columns.name));
+            assertEquals("Same as read by name", DbUtils.getString(cursor, "name"),
+                    DbUtils.getString(cursor, columns.name));
+        }
+        assertEquals(333, sum);
+        assertEquals("Resolved once per cursor", 1, Columns.resolved);
+        cursor.close();
+        assertEquals(true, matrixCursor.isClosed());
+    }
+}
@@ -51,6 +51,7 @@ import org.andstatus.app.util.TriState;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.andstatus.app.context.DemoData.demoData;
@@ -622,6 +623,41 @@ public class DataUpdaterTest {
         assertEquals("Notified actor", myAuthor1, activity2.getNotifiedActor());
     }
 
+    @Test
+    public void testPageOfActivities() {
+        MyAccount ma = demoData.getMyAccount(demoData.gnusocialTestAccountName);
+        Actor accountActor = ma.getActor();
+        Actor author = Actor.fromOriginAndActorOid(accountActor.origin, "pageAuthor" + demoData.testRunUid);
+        author.setUsername("pageauthor" + demoData.testRunUid);
+        List<AActivity> page = new ArrayList<>();
+        for (int ind = 0; ind < 3; ind++) {
+            page.add(newLoadedNote(accountActor, author, "Note " + ind + " of the page " + demoData.testRunUid));
+        }
+        new DataUpdater(ma).onActivities(page);
+        for (AActivity activity : page) {
+            final Note note = activity.getNote();
+            assertNotEquals("Note should be added " + activity, 0, note.noteId);
+            assertNotEquals("Activity should be added " + activity, 0, activity.getId());
+            assertEquals("Conversation id " + note, note.noteId,
+                    MyQuery.noteIdToLongColumnValue(NoteTable.CONVERSATION_ID, note.noteId));
+        }
+
+        List<AActivity> samePage = new ArrayList<>();
+        for (AActivity activity : page) {
+            AActivity activity2 = AActivity.newPartialNote(accountActor, author, activity.getNote().oid,
+                    activity.getUpdatedDate(), DownloadStatus.LOADED);
+            activity2.getNote().setContent(activity.getNote().getContent());
+            samePage.add(activity2);
+        }
+        new DataUpdater(ma).onActivities(samePage);
+        for (int ind = 0; ind < page.size(); ind++) {
+            assertEquals("Note should be found " + samePage.get(ind), page.get(ind).getNote().noteId,
+                    samePage.get(ind).getNote().noteId);
+            assertEquals("Activity should be found " + samePage.get(ind), page.get(ind).getId(),
+                    samePage.get(ind).getId());
+        }
+    }
+
     private AActivity newLoadedNote(Actor accountActor, Actor author, String content) {
         AActivity activity1 = AActivity.newPartialNote(accountActor, author, String.valueOf(System.nanoTime()),
                 System.currentTimeMillis(), DownloadStatus.LOADED);
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2018 yvolk (Yuri Volkov), http://yurivolkov.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.andstatus.app.data;
+
+import org.andstatus.app.account.MyAccount;
+import org.andstatus.app.context.MyContext;
+import org.andstatus.app.context.TestSuite;
+import org.andstatus.app.net.social.Actor;
+import org.andstatus.app.origin.OriginPumpio;
+import org.andstatus.app.service.CommandData;
+import org.andstatus.app.service.CommandEnum;
+import org.andstatus.app.service.CommandExecutionContext;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.andstatus.app.context.DemoData.demoData;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class FriendshipTest {
+    private MyContext myContext;
+    private DataUpdater dataUpdater;
+    private Actor accountActor;
+
+    @Before
+    public void setUp() throws Exception {
+        TestSuite.initializeWithData(this);
+        myContext = TestSuite.getMyContextForTest();
+        MyAccount ma = demoData.getConversationMyAccount();
+        accountActor = ma.getActor();
+        dataUpdater = new DataUpdater(new CommandExecutionContext(CommandData.newAccountCommand(CommandEnum.EMPTY, ma)));
+    }
+
+    @Test
+    public void testSetFriends() {
+        Actor actor = newActor("friendsOwner");
+        Actor friend1 = newActor("friend1");
+        Actor friend2 = newActor("friend2");
+        Actor friend3 = newActor("friend3");
+
+        Friendship.setFriends(myContext, actor, Arrays.asList(friend1, friend2),
+                MyQuery.getFriendsIds(actor.actorId));
+        assertEquals(idsOf(friend1, friend2), MyQuery.getFriendsIds(actor.actorId));
+
+        Friendship.setFriends(myContext, actor, Arrays.asList(friend2, friend3, actor),
+                MyQuery.getFriendsIds(actor.actorId));
+        assertEquals("friend1 removed, friend2 unchanged, friend3 added, the actor itself skipped",
+                idsOf(friend2, friend3), MyQuery.getFriendsIds(actor.actorId));
+        assertEquals(idsOf(actor), MyQuery.getFollowersIds(friend2.actorId));
+        assertEquals(Collections.emptySet(), MyQuery.getFollowersIds(friend1.actorId));
+
+        Friendship.setFriends(myContext, actor, Collections.emptyList(), MyQuery.getFriendsIds(actor.actorId));
+        assertEquals(Collections.emptySet(), MyQuery.getFriendsIds(actor.actorId));
+    }
+
+    @Test
+    public void testSetFollowers() {
+        Actor friend = newActor("followed");
+        Actor follower1 = newActor("follower1");
+        Actor follower2 = newActor("follower2");
+        Actor follower3 = newActor("follower3");
+
+        Friendship.setFollowers(myContext, friend, Arrays.asList(follower1, follower2),
+                MyQuery.getFollowersIds(friend.actorId));
+        assertEquals(idsOf(follower1, follower2), MyQuery.getFollowersIds(friend.actorId));
+
+        Friendship.setFollowers(myContext, friend, Arrays.asList(follower2, follower3),
+                MyQuery.getFollowersIds(friend.actorId));
+        assertEquals("follower1 removed, follower2 unchanged, follower3 added",
+                idsOf(follower2, follower3), MyQuery.getFollowersIds(friend.actorId));
+        assertEquals(idsOf(friend), MyQuery.getFriendsIds(follower3.actorId));
+        assertEquals(Collections.emptySet(), MyQuery.getFriendsIds(follower1.actorId));
+    }
+
+    private Actor newActor(String name) {
+        String username = name + demoData.testRunUid + "@identi.ca";
+        String actorOid = OriginPumpio.ACCOUNT_PREFIX + username;
+        Actor actor = Actor.fromOriginAndActorOid(accountActor.origin, actorOid);
+        actor.setUsername(username);
+        actor.setProfileUrl("http://identi.ca/" + name + demoData.testRunUid);
+        dataUpdater.onActivity(accountActor.update(actor));
+        actor.actorId = MyQuery.oidToId(OidEnum.ACTOR_OID, accountActor.origin.getId(), actorOid);
+        assertNotEquals("Actor " + username + " added", 0, actor.actorId);
+        return actor;
+    }
+
+    private static Set<Long> idsOf(Actor... actors) {
+        Set<Long> ids = new HashSet<>();
+        for (Actor actor : actors) {
+            ids.add(actor.actorId);
+        }
+        return ids;
+    }
+}
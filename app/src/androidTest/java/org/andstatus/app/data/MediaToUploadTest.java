@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2018 yvolk (Yuri Volkov), http://yurivolkov.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.andstatus.app.data;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+
+import org.andstatus.app.context.TestSuite;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MediaToUploadTest {
+
+    @Before
+    public void setUp() {
+        TestSuite.initialize(this);
+    }
+
+    @Test
+    public void testPrepareImage() throws IOException {
+        DownloadFile original = new DownloadFile("mediaToUploadTest.jpg");
+        Bitmap bitmap = Bitmap.createBitmap(3000, 2000, Bitmap.Config.ARGB_8888);
+        try (OutputStream out = new FileOutputStream(original.getFile())) {
+            bitmap.compress(Bitmap.CompressFormat.JPEG, 100, out);
+        }
+        bitmap.recycle();
+        original = new DownloadFile(original.getFilename());
+
+        assertNull("Small enough", MediaToUpload.prepareImage(original, 0, 4000));
+
+        MediaToUpload media = MediaToUpload.prepareImage(original, 0, 1000);
+        assertNotNull("Scaled", media);
+        assertFalse(media.toString(), media.isEmpty());
+        DownloadFile prepared = new DownloadFile(MediaToUpload.preparedFilename(original.getFilename(),
+                Bitmap.CompressFormat.JPEG, 0, 1000));
+        assertTrue(prepared.toString(), prepared.existed);
+        assertEquals(prepared.getSize(), media.size);
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(prepared.getFilePath(), bounds);
+        assertEquals(1000, bounds.outWidth);
+        assertEquals(667, bounds.outHeight, 1);
+
+        MediaToUpload media2 = MediaToUpload.prepareImage(original, 0, 1000);
+        assertNotNull("Prepared file reused", media2);
+        assertEquals(media.uri, media2.uri);
+
+        media2.onUploaded();
+        assertFalse(prepared.existsNow());
+        original.delete();
+    }
+}
@@ -0,0 +1,60 @@
+package org.andstatus.app.data;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class OidToIdCacheTest {
+
+    @Test
+    public void testGetAndPut() {
+        OidToIdCache cache = new OidToIdCache();
+        assertEquals(0, cache.get(OidEnum.NOTE_OID, 1, "note1"));
+        assertEquals(1, cache.getMisses());
+
+        cache.put(OidEnum.NOTE_OID, 1, "note1", 11);
+        assertEquals(11, cache.get(OidEnum.NOTE_OID, 1, "note1"));
+        assertEquals(1, cache.getHits());
+        assertEquals("Other origin", 0, cache.get(OidEnum.NOTE_OID, 2, "note1"));
+        assertEquals("Other kind of oid", 0, cache.get(OidEnum.ACTOR_OID, 1, "note1"));
+
+        cache.put(OidEnum.REBLOG_OID, 1, "reblog1", 12);
+        assertEquals("Reblogs are not cached", 0, cache.get(OidEnum.REBLOG_OID, 1, "reblog1"));
+        cache.put(OidEnum.ACTOR_OID, 1, "actor1", 0);
+        assertEquals("Not found ids are not cached", 1, cache.size());
+
+        cache.put(OidEnum.ACTOR_OID, 1, "actor1", 13);
+        cache.remove(OidEnum.NOTE_OID, 1, "note1");
+        assertEquals(0, cache.get(OidEnum.NOTE_OID, 1, "note1"));
+        assertEquals(13, cache.get(OidEnum.ACTOR_OID, 1, "actor1"));
+
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testDeferredInTransaction() {
+        OidToIdCache cache = new OidToIdCache();
+        OidToIdCache.Deferred deferred = cache.defer();
+        cache.put(OidEnum.NOTE_OID, 1, "note1", 11);
+        assertEquals("Visible in the transaction", 11, cache.get(OidEnum.NOTE_OID, 1, "note1"));
+        assertEquals("Not cached before commit", 0, cache.size());
+        deferred.end(false);
+        assertEquals("Rolled back", 0, cache.get(OidEnum.NOTE_OID, 1, "note1"));
+
+        deferred = cache.defer();
+        cache.put(OidEnum.NOTE_OID, 1, "note2", 12);
+        OidToIdCache.Deferred nested = cache.defer();
+        cache.put(OidEnum.ACTOR_OID, 1, "actor1", 13);
+        nested.end(true);
+        assertEquals(13, cache.get(OidEnum.ACTOR_OID, 1, "actor1"));
+        assertEquals("Outer transaction is not committed yet", 0, cache.size());
+        deferred.end(true);
+        assertEquals(2, cache.size());
+        assertEquals(12, cache.get(OidEnum.NOTE_OID, 1, "note2"));
+        assertEquals(13, cache.get(OidEnum.ACTOR_OID, 1, "actor1"));
+
+        cache.put(OidEnum.NOTE_OID, 1, "note3", 14);
+        assertEquals("Not deferred after end", 3, cache.size());
+    }
+}
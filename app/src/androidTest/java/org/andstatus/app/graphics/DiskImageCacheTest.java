@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2018 yvolk (Yuri Volkov), http://yurivolkov.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.andstatus.app.graphics;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+
+import org.andstatus.app.context.MyContextHolder;
+import org.andstatus.app.context.TestSuite;
+import org.andstatus.app.data.AttachedImageFile;
+import org.andstatus.app.data.DownloadFile;
+import org.andstatus.app.data.DownloadStatus;
+import org.andstatus.app.data.ImageFile;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DiskImageCacheTest {
+    private static final String FILENAME = "diskImageCacheTest.png";
+    private static final long IMAGE_ID = 987654321;
+    private static final int SIZE = 16;
+    private Context context;
+    private File original;
+
+    @Before
+    public void setUp() throws Exception {
+        TestSuite.initialize(this);
+        context = MyContextHolder.get().context();
+        original = new DownloadFile(FILENAME).getFile();
+        try (OutputStream out = new FileOutputStream(original)) {
+            out.write(new byte[]{1, 2, 3});
+        }
+    }
+
+    @Test
+    public void testHitMissAndInvalidation() {
+        DiskImageCache cache = new DiskImageCache(context, CacheName.ATTACHED_IMAGE, 1000000);
+        ImageFile imageFile = newImageFile(IMAGE_ID);
+        DiskImageCache.delete(saveAndGet(cache, imageFile));
+        cache.misses.set(0);
+        cache.hits.set(0);
+
+        assertNull(cache.getValidFile(imageFile, SIZE, SIZE, false));
+        assertEquals(1, cache.misses.get());
+
+        File thumbnail = saveAndGet(cache, imageFile);
+        assertNotNull(thumbnail);
+        assertEquals(1, cache.hits.get());
+        assertNull("Other size", cache.getValidFile(imageFile, SIZE * 2, SIZE * 2, false));
+        assertNull("Rounded", cache.getValidFile(imageFile, SIZE, SIZE, true));
+        assertEquals(3, cache.misses.get());
+
+        assertTrue(thumbnail.setLastModified(original.lastModified() - 60000));
+        assertNull("Thumbnail is older than the original", cache.getValidFile(imageFile, SIZE, SIZE, false));
+        assertFalse("Outdated thumbnail should be deleted", thumbnail.exists());
+    }
+
+    @Test
+    public void testTrimDeletesLeastRecentlyUsed() {
+        new DiskImageCache(context, CacheName.AVATAR, 0).trim();
+        DiskImageCache cache = new DiskImageCache(context, CacheName.AVATAR, 0);
+        File[] thumbnails = new File[4];
+        long time = System.currentTimeMillis() - 100000;
+        for (int i = 0; i < thumbnails.length; i++) {
+            thumbnails[i] = saveAndGet(cache, newImageFile(IMAGE_ID + i));
+            assertNotNull(thumbnails[i]);
+            assertTrue(thumbnails[i].setLastModified(time + i * 10000));
+        }
+        long fileSize = thumbnails[0].length();
+
+        new DiskImageCache(context, CacheName.AVATAR, 3 * fileSize).trim();
+        assertFalse(thumbnails[0].exists());
+        assertFalse(thumbnails[1].exists());
+        assertTrue("Recently used thumbnail should be kept", thumbnails[2].exists());
+        assertTrue(thumbnails[3].exists());
+    }
+
+    private File saveAndGet(DiskImageCache cache, ImageFile imageFile) {
+        cache.save(imageFile, SIZE, SIZE, false, Bitmap.createBitmap(SIZE, SIZE, CachedImage.BITMAP_CONFIG));
+        return cache.getValidFile(imageFile, SIZE, SIZE, false);
+    }
+
+    private static ImageFile newImageFile(long imageId) {
+        return new AttachedImageFile(imageId, FILENAME, MediaMetadata.EMPTY, DownloadStatus.LOADED,
+                System.currentTimeMillis());
+    }
+}
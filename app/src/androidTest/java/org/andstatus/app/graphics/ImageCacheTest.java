@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2018 yvolk (Yuri Volkov), http://yurivolkov.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.andstatus.app.graphics;
+
+import android.graphics.Bitmap;
+import android.graphics.Rect;
+
+import org.andstatus.app.context.MyContextHolder;
+import org.andstatus.app.context.TestSuite;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class ImageCacheTest {
+
+    @Before
+    public void setUp() throws Exception {
+        TestSuite.initialize(this);
+    }
+
+    @Test
+    public void testEvictionByTotalBytes() {
+        ImageCache cache = new ImageCache(MyContextHolder.get().context(), CacheName.AVATAR, 10, 2);
+        assertEquals("Two bitmaps of the maximum size", 2 * 10 * 10 * ImageCache.BYTES_PER_PIXEL,
+                cache.maxSize());
+
+        cache.put("a", newImage(1, 10));
+        cache.put("b", newImage(2, 10));
+        assertEquals(cache.maxSize(), cache.size());
+
+        cache.put("c", newImage(3, 10));
+        assertEquals(cache.maxSize(), cache.size());
+        assertNull("Least recently used", cache.get("a"));
+        assertNotNull(cache.get("c"));
+        assertEquals("Bitmap of the evicted image is reused", 1, cache.recycledBitmaps.size());
+
+        cache.put("d", newImage(4, 5));
+        assertNull("Evicted to free bytes for a smaller image", cache.get("b"));
+        assertNotNull(cache.get("c"));
+        assertNotNull(cache.get("d"));
+        assertEquals((10 * 10 + 5 * 5) * ImageCache.BYTES_PER_PIXEL, cache.size());
+        assertEquals(2, cache.evictionCount());
+    }
+
+    private static CachedImage newImage(long imageId, int size) {
+        return new CachedImage(imageId, Bitmap.createBitmap(size, size, CachedImage.BITMAP_CONFIG),
+                new Rect(0, 0, size, size));
+    }
+}
@@ -31,7 +31,9 @@ import org.json.JSONObject;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 public class HttpConnectionMock extends HttpConnection {
@@ -41,6 +43,7 @@ public class HttpConnectionMock extends HttpConnection {
     public volatile int responsesCounter = 0;
     private boolean sameResponse = false;
     private volatile InputStream responseFileStream = null;
+    private volatile Map<String, String> responseHeaders = Collections.emptyMap();
 
     private volatile RuntimeException runtimeException = null;
     private volatile ConnectionException exception = null;
@@ -77,6 +80,10 @@ public class HttpConnectionMock extends HttpConnection {
         this.responseFileStream = inputStream;
     }
 
+    public void setResponseHeaders(Map<String, String> responseHeaders) {
+        this.responseHeaders = responseHeaders;
+    }
+
     public void setRuntimeException(RuntimeException exception) {
         runtimeException = exception;
     }
@@ -126,6 +133,7 @@ public class HttpConnectionMock extends HttpConnection {
 
     private void onRequest(String method, HttpReadResult result) {
         result.strResponse = getNextResponse();
+        result.setRateLimitHeaders(responseHeaders::get);
         if (result.fileResult != null && responseFileStream != null) {
             try {
                 FileUtils.readStreamToFile(responseFileStream, result.fileResult);
@@ -21,6 +21,10 @@ import org.json.JSONException;
 import org.json.JSONObject;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
@@ -49,4 +53,96 @@ public class HttpReadResultTest {
         assertEquals(true, result.hasFormParams());
         assertTrue(result.toString(), result.toString().contains("posted"));
     }
+
+    @Test
+    public void testResultToItems() throws ConnectionException {
+        final String url = "https://example.com/somepath/file.html";
+        final String in = "{\"since_id\":\"Wed, 05 Mar 2014 16:37:17 +0100\",\"ids\":[1,2,3],"
+                + "\"results\":[{\"text\":\"Text1\",\"id\":1234567890123,\"to_user\":null},"
+                + "{\"text\":\"Text2\",\"favorited\":true,\"entities\":{\"urls\":[]}}]"
+                + "}";
+        List<JSONObject> items = new ArrayList<>();
+        HttpReadResult result = new HttpReadResult(url).setItemConsumer("results", items::add);
+        result.strResponse = in;
+        result.readItemsOfStringResponse();
+        assertEquals(2, items.size());
+        assertEquals("Text1", items.get(0).optString("text"));
+        assertEquals(1234567890123L, items.get(0).optLong("id"));
+        assertTrue(items.get(0).isNull("to_user"));
+        assertTrue(items.get(1).optBoolean("favorited"));
+        assertEquals(0, items.get(1).optJSONObject("entities").optJSONArray("urls").length());
+        assertTrue(result.toString(), result.toString().contains("items:2"));
+
+        items.clear();
+        result = new HttpReadResult(url).setItemConsumer("items", items::add);
+        result.strResponse = "[{\"text\":\"Text1\"},{\"text\":\"Text2\"},{\"text\":\"Text3\"}]";
+        result.readItemsOfStringResponse();
+        assertEquals(3, items.size());
+        assertEquals("Text3", items.get(2).optString("text"));
+    }
+
+    @Test
+    public void testConditionalRequest() throws ConnectionException {
+        final String url = "https://example.com/somepath/timeline.json";
+        final String accountKey = "testConditional/example.com";
+        HttpReadResult result = new HttpReadResult(url);
+        HttpValidators.addTo(result, accountKey);
+        assertTrue(result.conditionalHeaders.toString(), result.conditionalHeaders.isEmpty());
+
+        result.setStatusCode(200);
+        result.setValidators("\"123abc\"", "Wed, 05 Mar 2014 16:37:17 GMT");
+        assertFalse(result.isNotModified());
+        HttpValidators.onProcessed(result, accountKey);
+
+        result = new HttpReadResult(url);
+        HttpValidators.addTo(result, accountKey);
+        assertEquals("\"123abc\"", result.conditionalHeaders.get(HttpValidators.IF_NONE_MATCH));
+        assertEquals("Wed, 05 Mar 2014 16:37:17 GMT", result.conditionalHeaders.get(HttpValidators.IF_MODIFIED_SINCE));
+        result.setStatusCode(304);
+        assertTrue(result.isNotModified());
+        assertTrue(result.toString(), result.toString().contains("not modified"));
+
+        result = new HttpReadResult(url);
+        HttpValidators.addTo(result, accountKey + "2");
+        assertTrue("Validators are per account", result.conditionalHeaders.isEmpty());
+    }
+
+    @Test
+    public void testValidatorsAreStoredAfterDataSaved() throws ConnectionException {
+        final String url = "https://example.com/somepath/deferred" + System.currentTimeMillis() + ".json";
+        final String accountKey = "testDeferred/example.com";
+
+        HttpValidators.Deferred deferred = HttpValidators.defer();
+        onReceived(url, accountKey, "\"deferred1\"");
+        assertTrue("Stored before data was saved", getConditionalHeaders(url, accountKey).isEmpty());
+        deferred.end(false);
+        assertTrue("Stored, although data was not saved", getConditionalHeaders(url, accountKey).isEmpty());
+
+        deferred = HttpValidators.defer();
+        onReceived(url, accountKey, "\"deferred2\"");
+        HttpValidators.Deferred nested = HttpValidators.defer();
+        onReceived(url + "?nested", accountKey, "\"nested\"");
+        nested.end(true);
+        assertEquals("\"nested\"", getConditionalHeaders(url + "?nested", accountKey)
+                .get(HttpValidators.IF_NONE_MATCH));
+        assertTrue("Stored by nested command", getConditionalHeaders(url, accountKey).isEmpty());
+        deferred.end(true);
+        assertEquals("\"deferred2\"", getConditionalHeaders(url, accountKey).get(HttpValidators.IF_NONE_MATCH));
+
+        onReceived(url, accountKey, "\"notDeferred\"");
+        assertEquals("\"notDeferred\"", getConditionalHeaders(url, accountKey).get(HttpValidators.IF_NONE_MATCH));
+    }
+
+    private static void onReceived(String url, String accountKey, String eTag) {
+        HttpReadResult result = new HttpReadResult(url);
+        result.setStatusCode(200);
+        result.setValidators(eTag, "");
+        HttpValidators.onProcessed(result, accountKey);
+    }
+
+    private static Map<String, String> getConditionalHeaders(String url, String accountKey) {
+        HttpReadResult result = new HttpReadResult(url);
+        HttpValidators.addTo(result, accountKey);
+        return result.conditionalHeaders;
+    }
 }
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2018 yvolk (Yuri Volkov), http://yurivolkov.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.andstatus.app.net.http;
+
+import org.andstatus.app.context.MyPreferences;
+import org.andstatus.app.context.TestSuite;
+import org.andstatus.app.util.SharedPreferencesUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+import cz.msebera.android.httpclient.client.HttpClient;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class MyHttpClientFactoryTest {
+
+    @Before
+    public void setUp() throws Exception {
+        TestSuite.initialize(this);
+    }
+
+    @Test
+    public void testPooledClientIsShared() {
+        HttpClient client1 = HttpConnectionApacheCommon.getHttpClient(SslModeEnum.SECURE);
+        assertSame("The same client for the same SSL mode",
+                client1, HttpConnectionApacheCommon.getHttpClient(SslModeEnum.SECURE));
+        assertNotSame("Other SSL mode", client1, HttpConnectionApacheCommon.getHttpClient(SslModeEnum.MISCONFIGURED));
+
+        final long maxConnectionsPerHost = MyPreferences.getMaxConnectionsPerHost();
+        SharedPreferencesUtil.putString(MyPreferences.KEY_MAX_CONNECTIONS_PER_HOST,
+                Long.toString(maxConnectionsPerHost + 1));
+        try {
+            assertNotSame("Recreated after preferences change",
+                    client1, HttpConnectionApacheCommon.getHttpClient(SslModeEnum.SECURE));
+        } finally {
+            SharedPreferencesUtil.putString(MyPreferences.KEY_MAX_CONNECTIONS_PER_HOST,
+                    Long.toString(maxConnectionsPerHost));
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2018 yvolk (Yuri Volkov), http://yurivolkov.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.andstatus.app.net.http;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RateLimitsTest {
+    private static final String ACCOUNT = "someuser/Twitter";
+
+    @After
+    public void tearDown() {
+        RateLimits.clear();
+    }
+
+    @Test
+    public void testParseTime() {
+        final long now = 1523000000000L;
+        assertEquals(now + 120000, RateLimits.parseTime("120", now));
+        assertEquals(1523000300000L, RateLimits.parseTime("1523000300", now));
+        assertEquals(1523189100000L, RateLimits.parseTime("2018-04-08T12:05:00.000Z", now));
+        assertEquals(1523189100000L, RateLimits.parseTime("Sun, 08 Apr 2018 12:05:00 GMT", now));
+        assertEquals(0, RateLimits.parseTime("soon", now));
+        assertEquals(0, RateLimits.parseTime("", now));
+    }
+
+    @Test
+    public void testKey() {
+        assertEquals(RateLimits.toKey(ACCOUNT, "https://example.com/api/v1/accounts/123/statuses?limit=20"),
+                RateLimits.toKey(ACCOUNT, "https://example.com/api/v1/accounts/456/statuses"));
+        assertEquals(ACCOUNT + " https://example.com/statuses/show/*.json",
+                RateLimits.toKey(ACCOUNT, "https://example.com/statuses/show/789.json"));
+    }
+
+    @Test
+    public void testBucket() {
+        final long now = System.currentTimeMillis();
+        RateLimits.Bucket bucket = new RateLimits.Bucket();
+        assertEquals("No limits known yet", 0, bucket.reserve(now));
+
+        bucket.onLimits(RateLimits.BURST_SIZE + 10, now + 10000, now);
+        for (int i = 0; i < RateLimits.BURST_SIZE; i++) {
+            assertEquals("Burst " + i, 0, bucket.reserve(now));
+        }
+        long wait = bucket.reserve(now);
+        assertTrue("The rest of the quota is spread till reset: " + wait, wait > 0 && wait <= 1000);
+
+        bucket.onLimits(0, now + 10000, now);
+        assertEquals("Exhausted till reset", 10000, bucket.reserve(now));
+    }
+
+    @Test
+    public void testTooManyRequests() throws ConnectionException {
+        final String url = "https://example.com/statuses/home_timeline.json";
+        HttpReadResult result = new HttpReadResult(url);
+        result.setStatusCode(429);
+        assertEquals(ConnectionException.StatusCode.TOO_MANY_REQUESTS, result.getStatusCode());
+        result.setRateLimitHeaders(name -> RateLimits.RETRY_AFTER.equals(name) ? "600" : null);
+        RateLimits.onResponse(result, ACCOUNT);
+        long throttledFor = RateLimits.getThrottledUntil(ACCOUNT) - System.currentTimeMillis();
+        assertTrue("Throttled for " + throttledFor, throttledFor > TimeUnit.MINUTES.toMillis(9));
+        assertEquals("Other account", 0, RateLimits.getThrottledUntil("otheruser/Twitter"));
+
+        try {
+            RateLimits.beforeRequest(new HttpReadResult(url), ACCOUNT);
+            fail("Request should not be sent");
+        } catch (ConnectionException e) {
+            assertEquals(ConnectionException.StatusCode.TOO_MANY_REQUESTS, e.getStatusCode());
+            assertTrue("Should be retried: " + e, !e.isHardError());
+        }
+        RateLimits.beforeRequest(new HttpReadResult(url), "otheruser/Twitter");
+    }
+
+    @Test
+    public void testTwitterHeaders() throws ConnectionException {
+        final String url = "https://api.twitter.com/1.1/statuses/update.json";
+        final long resetAtSeconds = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()) + 900;
+        Map<String, String> headers = new HashMap<>();
+        headers.put(RateLimits.TWITTER_LIMIT, "300");
+        headers.put(RateLimits.TWITTER_REMAINING, "0");
+        headers.put(RateLimits.TWITTER_RESET, Long.toString(resetAtSeconds));
+        HttpReadResult result = new HttpReadResult(url);
+        result.setStatusCode(200);
+        result.setRateLimitHeaders(headers::get);
+        assertEquals("0", result.rateLimitHeaders.get(RateLimits.TWITTER_REMAINING));
+        RateLimits.onResponse(result, ACCOUNT);
+        assertEquals("Not throttled, only the endpoint is exhausted", 0, RateLimits.getThrottledUntil(ACCOUNT));
+
+        try {
+            RateLimits.beforeRequest(new HttpReadResult(url), ACCOUNT);
+            fail("Request should not be sent till the reset");
+        } catch (ConnectionException e) {
+            assertEquals(ConnectionException.StatusCode.TOO_MANY_REQUESTS, e.getStatusCode());
+        }
+        RateLimits.beforeRequest(new HttpReadResult("https://api.twitter.com/1.1/statuses/home_timeline.json"),
+                ACCOUNT);
+    }
+}
@@ -17,10 +17,12 @@
 package org.andstatus.app.net.social;
 
 import android.content.Context;
+import android.net.Uri;
 import android.support.annotation.NonNull;
 
 import org.andstatus.app.context.TestSuite;
 import org.andstatus.app.data.DownloadStatus;
+import org.andstatus.app.net.http.ConnectionException;
 import org.andstatus.app.net.http.HttpReadResult;
 import org.andstatus.app.net.social.Connection.ApiRoutineEnum;
 import org.andstatus.app.util.TriState;
@@ -279,4 +281,18 @@ public class ConnectionGnuSocialTest {
                 TestSuite.utcTime(activity.getUpdatedDate()));
     }
 
+    @Test
+    public void testGetActorsByOidsOneByOne() throws ConnectionException {
+        connection.getHttpMock().addResponse("{\"id_str\":\"8001\",\"screen_name\":\"one8001\"}");
+        connection.getHttpMock().setSameResponse(true);
+
+        List<String> oids = ConnectionMastodonTest.newOids(3);
+        List<Actor> actors = connection.getActorsByOids(oids);
+        assertEquals("Actors " + actors, 3, actors.size());
+        List<HttpReadResult> results = connection.getHttpMock().getResults();
+        assertEquals("Without users/lookup, one request per Actor " + results, 3, results.size());
+        for (int i = 0; i < oids.size(); i++) {
+            assertEquals(oids.get(i), Uri.parse(results.get(i).getUrl()).getQueryParameter("user_id"));
+        }
+    }
 }
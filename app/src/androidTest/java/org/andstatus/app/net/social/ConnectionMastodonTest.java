@@ -16,15 +16,20 @@
 
 package org.andstatus.app.net.social;
 
+import android.net.Uri;
+
 import org.andstatus.app.context.MyContextHolder;
 import org.andstatus.app.context.TestSuite;
 import org.andstatus.app.data.MyContentType;
+import org.andstatus.app.net.http.ConnectionException;
+import org.andstatus.app.net.http.HttpReadResult;
 import org.andstatus.app.util.TriState;
 import org.andstatus.app.util.UriUtils;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
@@ -155,4 +160,40 @@ public class ConnectionMastodonTest {
         assertEquals("Username", "izwx6502", actor.getUsername());
         assertEquals("WebfingerId", "izwx6502@mstdn.jp", actor.getWebFingerId());
     }
+
+    @Test
+    public void testGetActorsByOidsInBatches() throws ConnectionException {
+        connection.getHttpMock().addResponse("[{\"id\":\"5001\",\"username\":\"batch5001\"}]");
+        connection.getHttpMock().setSameResponse(true);
+
+        List<Actor> actors = connection.getActorsByOids(newOids(45));
+        assertEquals("One Actor per response " + actors, 2, actors.size());
+        List<HttpReadResult> results = connection.getHttpMock().getResults();
+        assertEquals("Requests " + results, 2, results.size());
+        assertEquals(40, Uri.parse(results.get(0).getUrl()).getQueryParameters("id[]").size());
+        assertEquals(5, Uri.parse(results.get(1).getUrl()).getQueryParameters("id[]").size());
+    }
+
+    @Test
+    public void testGetActorsByOidsOneByOneIfLookupFails() throws ConnectionException {
+        connection.getHttpMock().addResponse("{\"error\":\"Record not found\"}");
+        for (int i = 0; i < 3; i++) {
+            connection.getHttpMock().addResponse("{\"id\":\"" + (6000 + i) + "\",\"username\":\"one" + i + "\"}");
+        }
+
+        List<Actor> actors = connection.getActorsByOids(newOids(3));
+        assertEquals("Actors " + actors, 3, actors.size());
+        assertEquals("one2", actors.get(2).getUsername());
+        List<HttpReadResult> results = connection.getHttpMock().getResults();
+        assertEquals("Lookup and then one request per Actor " + results, 4, results.size());
+        assertThat(results.get(3).getUrl(), containsString("accounts/102"));
+    }
+
+    static List<String> newOids(int size) {
+        List<String> oids = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            oids.add(Integer.toString(100 + i));
+        }
+        return oids;
+    }
 }
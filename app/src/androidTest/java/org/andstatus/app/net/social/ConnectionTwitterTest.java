@@ -16,6 +16,8 @@
 
 package org.andstatus.app.net.social;
 
+import android.net.Uri;
+
 import org.andstatus.app.account.AccountDataReaderEmpty;
 import org.andstatus.app.account.AccountName;
 import org.andstatus.app.account.MyAccount;
@@ -25,7 +27,9 @@ import org.andstatus.app.data.DataUpdater;
 import org.andstatus.app.data.DownloadStatus;
 import org.andstatus.app.data.MyQuery;
 import org.andstatus.app.data.OidEnum;
+import org.andstatus.app.net.http.ConnectionException;
 import org.andstatus.app.net.http.HttpConnectionMock;
+import org.andstatus.app.net.http.HttpReadResult;
 import org.andstatus.app.net.http.OAuthClientKeys;
 import org.andstatus.app.net.social.Connection.ApiRoutineEnum;
 import org.andstatus.app.origin.Origin;
@@ -41,7 +45,10 @@ import org.junit.Test;
 import java.io.IOException;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import static org.andstatus.app.context.DemoData.demoData;
 import static org.junit.Assert.assertEquals;
@@ -219,5 +226,41 @@ public class ConnectionTwitterTest {
         assertNotEquals("Activity was not added " + activity, 0, activity.getId());
     }
 
+    @Test
+    public void testRateLimitsOfPostRequests() throws IOException {
+        httpConnection.addResponse(org.andstatus.app.tests.R.raw.twitter_follow);
+        httpConnection.setSameResponse(true);
+        final long resetInSeconds = 5;
+        Map<String, String> headers = new HashMap<>();
+        headers.put("x-rate-limit-limit", "15");
+        headers.put("x-rate-limit-remaining", "0");
+        headers.put("x-rate-limit-reset",
+                Long.toString(TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()) + resetInSeconds));
+        httpConnection.setResponseHeaders(headers);
+        connection.follow("96340134", true);
+
+        httpConnection.setResponseHeaders(new HashMap<>());
+        long startedAt = System.currentTimeMillis();
+        connection.follow("96340134", true);
+        long waited = System.currentTimeMillis() - startedAt;
+        assertEquals(2, httpConnection.getRequestsCounter());
+        assertTrue("The second POST request should wait for the reset, waited " + waited + " ms",
+                waited >= TimeUnit.SECONDS.toMillis(resetInSeconds - 2));
+    }
 
+    @Test
+    public void testGetActorsByOidsInBatches() throws ConnectionException {
+        httpConnection.addResponse("[{\"id_str\":\"7001\",\"screen_name\":\"batch7001\"}]");
+        httpConnection.setSameResponse(true);
+
+        List<Actor> actors = connection.getActorsByOids(ConnectionMastodonTest.newOids(250));
+        assertEquals("One Actor per response " + actors, 3, actors.size());
+        List<HttpReadResult> results = httpConnection.getResults();
+        assertEquals("Requests " + results, 3, results.size());
+        int[] sizes = {100, 100, 50};
+        for (int i = 0; i < sizes.length; i++) {
+            assertEquals("Request " + i, sizes[i],
+                    Uri.parse(results.get(i).getUrl()).getQueryParameter("user_id").split(",").length);
+        }
+    }
 }
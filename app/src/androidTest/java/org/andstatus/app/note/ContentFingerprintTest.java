@@ -0,0 +1,40 @@
+package org.andstatus.app.note;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ContentFingerprintTest {
+
+    @Test
+    public void testContainedContentHasCommonFingerprint() {
+        final String content = "the quick brown fox jumps over the lazy dog, and then the dog chases the fox";
+        Set<Long> fingerprints = ContentFingerprint.of(content);
+        assertEquals(fingerprints, ContentFingerprint.of(content));
+
+        for (int start = 0; start + ContentFingerprint.MIN_LENGTH <= content.length(); start += 3) {
+            String contained = content.substring(start, start + ContentFingerprint.MIN_LENGTH);
+            assertTrue("'" + contained + "' has no common fingerprints",
+                    haveCommon(fingerprints, ContentFingerprint.of(contained)));
+            String containing = "Reblogged: " + content + " #tag";
+            assertTrue("'" + containing + "' has no common fingerprints",
+                    haveCommon(fingerprints, ContentFingerprint.of(containing)));
+        }
+
+        assertNull(ContentFingerprint.of(content.substring(0, ContentFingerprint.MIN_LENGTH - 1)));
+        assertFalse(haveCommon(fingerprints,
+                ContentFingerprint.of("completely different text of some other note")));
+    }
+
+    private static boolean haveCommon(Set<Long> set1, Set<Long> set2) {
+        Set<Long> common = new HashSet<>(set1);
+        common.retainAll(set2);
+        return !common.isEmpty();
+    }
+}
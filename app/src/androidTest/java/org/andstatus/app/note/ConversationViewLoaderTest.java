@@ -13,6 +13,7 @@ import org.junit.Test;
 import java.util.List;
 
 import static org.andstatus.app.context.DemoData.demoData;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 public class ConversationViewLoaderTest implements ProgressPublisher {
@@ -50,6 +51,10 @@ public class ConversationViewLoaderTest implements ProgressPublisher {
                 orderFound = true;
             }
         }
+        assertEquals("Each note is listed once " + list, list.size(),
+                list.stream().map(ConversationItem::getNoteId).distinct().count());
+        assertEquals("Each note is enumerated once " + list, list.size(),
+                list.stream().map(item -> item.historyOrder).distinct().count());
         assertTrue("Indented note found in " + list, indentFound);
         assertTrue("Ordered note found in " + list, orderFound);
         assertTrue(progressCounter > 0);
@@ -20,6 +20,8 @@ import org.andstatus.app.note.KeywordsFilter.Keyword;
 import org.andstatus.app.util.MyHtml;
 import org.junit.Test;
 
+import java.util.Arrays;
+
 import static org.andstatus.app.note.KeywordsFilter.CONTAINS_PREFIX;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -74,6 +76,21 @@ public class KeywordsFilterTest {
         assertNotMatchAll(query, body2);
     }
 
+    @Test
+    public void testFtsMatchQuery() {
+        assertEquals("", new KeywordsFilter("").getFtsMatchQuery());
+        assertEquals("\"word\"", new KeywordsFilter("Word").getFtsMatchQuery());
+        assertEquals("\"word\" \"deleted notice\"",
+                new KeywordsFilter("word, \"Deleted notice\"").getFtsMatchQuery());
+        assertEquals("Tag and a mention", "\"tag\" \"andstatus\"",
+                new KeywordsFilter("#tag @AndStatus").getFtsMatchQuery());
+        assertEquals("'contains:' is skipped", "\"word\"",
+                new KeywordsFilter("word " + CONTAINS_PREFIX + "//andstatus.org/").getFtsMatchQuery());
+        assertEquals("", new KeywordsFilter(CONTAINS_PREFIX + "andst").getFtsMatchQuery());
+        assertEquals("Non ASCII letters are parts of words", "\"привет мир\"",
+                new KeywordsFilter("\"Привет, мир!\"").getFtsMatchQuery());
+    }
+
     private void assertOneQueryToKeywords(String query, Keyword... keywords) {
         int size = keywords.length;
         KeywordsFilter filter1 = new KeywordsFilter(query);
@@ -102,4 +119,25 @@ public class KeywordsFilterTest {
         final String bodyToSearch = MyHtml.getContentToSearch(body);
         assertFalse("Some keyword from '" + query + "' match: '" + body + "'", new KeywordsFilter(query).matchedAny(bodyToSearch));
     }
+
+    @Test
+    public void testMatcher() {
+        KeywordsMatcher matcher = new KeywordsMatcher(Arrays.asList("he", "she", "his", "hers"));
+        assertTrue(matcher.matchedAny("ushers"));
+        assertTrue(matcher.matchedAll("ushers his"));
+        assertFalse(matcher.matchedAll("ushers"));
+        assertFalse(matcher.matchedAny("hi, s"));
+
+        StringBuilder keywords = new StringBuilder();
+        for (int ind = 0; ind < 300; ind++) {
+            keywords.append("keyword").append(ind).append("x ");
+        }
+        KeywordsFilter filter = new KeywordsFilter(keywords.toString());
+        assertEquals(300, filter.keywordsToFilter.size());
+        assertTrue(filter.matchedAny(MyHtml.getContentToSearch("Some text with Keyword299x inside")));
+        assertFalse(filter.matchedAny(MyHtml.getContentToSearch("Some text with keyword300x inside")));
+        assertFalse(filter.matchedAll(MyHtml.getContentToSearch("keyword1x keyword2x")));
+        assertTrue(new KeywordsFilter("keyword1x keyword2x")
+                .matchedAll(MyHtml.getContentToSearch("keyword2x and keyword1x")));
+    }
 }
@@ -6,6 +6,7 @@ import org.andstatus.app.context.TestSuite;
 import org.andstatus.app.data.MyQuery;
 import org.andstatus.app.database.table.ActivityTable;
 import org.andstatus.app.net.social.ActivityType;
+import org.andstatus.app.timeline.meta.Timeline;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -54,7 +55,39 @@ public class NotifierTest {
         assertEquals(1, events.getCount(NotificationEventType.PRIVATE));
     }
 
+    @Test
+    public void testIncrementalCounters() {
+        final MyContext myContext = TestSuite.getMyContextForTest();
+        Notifier notifier = myContext.getNotifier();
+        NotificationEvents events = notifier.events;
+        notifier.clearAll();
+
+        long activityId = setNotificationEvent(NotificationEventType.MENTION);
+        long accountActorId = MyQuery.activityIdToLongColumnValue(ActivityTable.ACCOUNT_ID, activityId);
+        events.onActivitySaved(accountActorId, NotificationEventType.EMPTY, NotificationEventType.MENTION,
+                System.currentTimeMillis());
+        assertEquals(1, events.getCount(NotificationEventType.MENTION));
+
+        events.onActivitySaved(accountActorId, NotificationEventType.MENTION, NotificationEventType.MENTION,
+                System.currentTimeMillis());
+        assertEquals("Re-saved activity is counted once", 1, events.getCount(NotificationEventType.MENTION));
+
+        events.reconcile();
+        assertEquals("Counted in the database", 1, events.getCount(NotificationEventType.MENTION));
+
+        notifier.clear(Timeline.EMPTY);
+        assertEquals(0, events.getCount(NotificationEventType.MENTION));
+        events.reconcile();
+        assertEquals("Cleared in the database", 0, events.getCount(NotificationEventType.MENTION));
+    }
+
     private void onNotificationEvent(Notifier notifier, NotificationEventType eventType) {
+        setNotificationEvent(eventType);
+        notifier.events.invalidate();
+        notifier.update();
+    }
+
+    private long setNotificationEvent(NotificationEventType eventType) {
         String where = "SELECT " + ActivityTable._ID + " FROM " + ActivityTable.TABLE_NAME +
                 " WHERE " + ActivityTable.ACTIVITY_TYPE + "=" + eventTypeToActivityType(eventType).id  +
                 " AND " + ActivityTable.UPDATED_DATE + ">1" +
@@ -66,7 +99,7 @@ public class NotifierTest {
         MyContextHolder.get().getDatabase().execSQL("UPDATE " + ActivityTable.TABLE_NAME +
         " SET " + ActivityTable.NEW_NOTIFICATION_EVENT + "=" + eventType.id +
         " WHERE " + ActivityTable._ID + "=" + activityId);
-        notifier.update();
+        return activityId;
     }
 
     private ActivityType eventTypeToActivityType(NotificationEventType eventType) {
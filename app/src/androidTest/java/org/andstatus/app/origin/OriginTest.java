@@ -66,21 +66,25 @@ public class OriginTest {
         assertTrue(origin.isMentionAsWebFingerId());
 
         textLimit = 140;
+        uploadLimit = 2097152;
         config = OriginConfig.fromTextLimit(textLimit, uploadLimit);
         origin = new Origin.Builder(origin).save(config).build();
         assertEquals("Textlimit", textLimit, origin.getTextLimit());
+        assertEquals("Upload limit", uploadLimit, origin.getUploadLimit());
         assertEquals("Short URL length", 0, origin.shortUrlLength);
         assertEquals("Characters left", textLimit - body.length(),
                 origin.charactersLeftForNote(body));
         assertFalse(origin.isMentionAsWebFingerId());
 
         textLimit = 0;
+        uploadLimit = 0;
         config = OriginConfig.fromTextLimit(textLimit, uploadLimit);
         assertTrue(config.nonEmpty());
         config.shortUrlLength = 24;
         origin = new Origin.Builder(origin).save(config).build();
         assertEquals("Textlimit", OriginType.TEXT_LIMIT_MAXIMUM, origin.getTextLimit());
         assertEquals("Short URL length", config.shortUrlLength, origin.shortUrlLength);
+        assertEquals("Upload limit", 0, origin.getUploadLimit());
         assertEquals("Characters left",
                 origin.getTextLimit() - body.length()
                         - config.shortUrlLength + urlString.length(),
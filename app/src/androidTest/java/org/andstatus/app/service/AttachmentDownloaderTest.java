@@ -69,6 +69,7 @@ public class AttachmentDownloaderTest {
         loadAndAssertStatusForRow(dd, DownloadStatus.ABSENT, true);
 
         loadAndAssertStatusForRow(dd, DownloadStatus.LOADED, false);
+        loadAndAssertStatusForRow(DownloadData.fromId(dd.getDownloadId()), DownloadStatus.LOADED, false);
         
         testFileProvider(dd.getDownloadId());
     }
@@ -97,6 +98,7 @@ public class AttachmentDownloaderTest {
         if (DownloadStatus.LOADED.equals(status)) {
             assertFalse("Loaded " + data.getUri() + "; " + data, commandData.getResult().hasError());
             assertEquals("Loaded " + data.getUri(), status, loader.getStatus());
+            assertTrue("Download reported " + commandData.getResult(), commandData.getResult().hasDownloads());
         } else {
             assertTrue("Error loading " + data.getUri(), commandData.getResult().hasError());
         }
@@ -16,6 +16,8 @@
 
 package org.andstatus.app.service;
 
+import android.os.Parcel;
+
 import org.andstatus.app.SearchObjects;
 import org.andstatus.app.account.MyAccount;
 import org.andstatus.app.context.MyContextHolder;
@@ -24,11 +26,13 @@ import org.andstatus.app.data.DbUtils;
 import org.andstatus.app.data.MyQuery;
 import org.andstatus.app.data.OidEnum;
 import org.andstatus.app.origin.Origin;
+import org.andstatus.app.timeline.meta.Timeline;
 import org.andstatus.app.timeline.meta.TimelineType;
 import org.andstatus.app.util.MyLog;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Collections;
 import java.util.Queue;
 import java.util.concurrent.PriorityBlockingQueue;
 
@@ -119,9 +123,36 @@ public class CommandDataTest {
         assertEquals(data1, data3);
     }
 
+    @Test
+    public void testDownloadsInResult() {
+        CommandResult result = new CommandResult();
+        assertFalse(result.hasDownloads());
+        result.onAvatarDownloaded(0);
+        assertFalse("Zero ids are ignored", result.hasDownloads());
+        result.onAvatarDownloaded(11);
+        result.onAttachmentDownloaded(23);
+        result.onAttachmentDownloaded(23);
+        assertTrue(result.hasDownloads());
+
+        Parcel parcel = Parcel.obtain();
+        result.writeToParcel(parcel, 0);
+        parcel.setDataPosition(0);
+        CommandResult result2 = CommandResult.CREATOR.createFromParcel(parcel);
+        parcel.recycle();
+        assertEquals(Collections.singleton(11L), result2.getAvatarActorIds());
+        assertEquals(Collections.singleton(23L), result2.getAttachmentIds());
+
+        result2.prepareForLaunch();
+        assertFalse(result2.hasDownloads());
+    }
+
     @Test
     public void testPriority() {
-        Queue<CommandData> queue = new PriorityBlockingQueue<>(100);
+        assertPriority(new PriorityBlockingQueue<>(100));
+        assertPriority(new IndexedCommandQueue());
+    }
+
+    private void assertPriority(Queue<CommandData> queue) {
         final MyAccount ma = demoData.getMyAccount(demoData.gnusocialTestAccountName);
         queue.add(CommandData.newActorCommand(CommandEnum.GET_FRIENDS, 123, ""));
         queue.add(CommandData.newActorCommand(CommandEnum.GET_TIMELINE, ma.getActorId(), ma.getUsername()));
@@ -142,6 +173,73 @@ public class CommandDataTest {
         assertCommand(queue, CommandEnum.GET_TIMELINE, TimelineType.INTERACTIONS);
     }
 
+    @Test
+    public void testIndexedQueue() {
+        final MyAccount ma = demoData.getMyAccount(demoData.gnusocialTestAccountName);
+        IndexedCommandQueue queue = new IndexedCommandQueue();
+        CommandData data1 = CommandData.newSearch(SearchObjects.NOTES, MyContextHolder.get(), ma.getOrigin(), "q1");
+        CommandData data2 = CommandData.newTimelineCommand(CommandEnum.GET_TIMELINE, ma, TimelineType.HOME);
+        queue.add(data1);
+        queue.add(data2);
+        assertFalse(queue.hasForegroundTasks());
+
+        CommandData data3 = CommandData.newSearch(SearchObjects.NOTES, MyContextHolder.get(), ma.getOrigin(), "q1")
+                .setInForeground(true);
+        assertTrue(queue.contains(data3));
+        queue.add(data3);
+        assertEquals("Equal command replaced the queued one", 2, queue.size());
+        assertTrue(queue.get(data1) == data3);
+        assertTrue(queue.hasForegroundTasks());
+
+        assertTrue(queue.poll(cd -> cd.getCommand() == CommandEnum.GET_TIMELINE
+                && cd.getTimelineType() == TimelineType.HOME) == data2);
+        assertFalse(queue.contains(data2));
+        assertTrue(queue.remove(data1));
+        assertTrue(queue.isEmpty());
+        assertEquals(null, queue.poll());
+    }
+
+    @Test
+    public void testIndexedQueueWhenHashCodeChanges() {
+        final MyAccount ma = demoData.getMyAccount(demoData.gnusocialTestAccountName);
+        Timeline timeline = MyContextHolder.get().timelines().get(TimelineType.SEARCH, 0, ma.getOrigin(),
+                "indexedQueue" + System.nanoTime());
+        assertEquals(timeline.toString(), 0, timeline.getId());
+        CommandData data1 = CommandData.newTimelineCommand(CommandEnum.GET_TIMELINE, timeline);
+        IndexedCommandQueue queue = new IndexedCommandQueue();
+        queue.add(data1);
+        int hashCode = data1.hashCode();
+        timeline.save(MyContextHolder.get());
+        assertTrue(timeline.toString(), timeline.getId() != 0);
+        assertTrue("Hash code changed", hashCode != data1.hashCode());
+        try {
+            assertTrue(queue.contains(data1));
+            CommandData data1Copy = CommandData.newTimelineCommand(CommandEnum.GET_TIMELINE, timeline);
+            assertTrue(queue.contains(data1Copy));
+            assertTrue(queue.get(data1Copy) == data1);
+            queue.offer(data1Copy);
+            assertEquals("Command shouldn't be duplicated", 1, queue.size());
+            assertTrue(queue.get(data1) == data1Copy);
+            queue.offer(data1);
+            assertEquals(1, queue.size());
+
+            assertTrue(queue.poll(cd -> cd.getTimeline() == timeline) == data1);
+            assertTrue(queue.isEmpty());
+
+            CommandData data2 = CommandData.newTimelineCommand(CommandEnum.GET_TIMELINE,
+                    MyContextHolder.get().timelines().get(TimelineType.SEARCH, 0, ma.getOrigin(),
+                            "indexedQueue2" + System.nanoTime()));
+            queue.add(data2);
+            data2.getTimeline().save(MyContextHolder.get());
+            assertTrue(queue.remove(data2));
+            assertTrue(queue.isEmpty());
+            assertFalse(queue.remove(data2));
+            MyContextHolder.get().timelines().delete(data2.getTimeline());
+        } finally {
+            MyContextHolder.get().timelines().delete(timeline);
+        }
+    }
+
     private void assertCommand(Queue<CommandData> queue, CommandEnum commandEnum) {
         assertCommand(queue, commandEnum, TimelineType.UNKNOWN);
     }
@@ -154,6 +252,36 @@ public class CommandDataTest {
         }
     }
 
+    @Test
+    public void testLanes() {
+        final MyAccount ma1 = demoData.getMyAccount(demoData.gnusocialTestAccountName);
+        final MyAccount ma2 = demoData.getMyAccount(demoData.conversationAccountName);
+        assertTrue(ma1.getOriginId() != ma2.getOriginId());
+        CommandQueue queues = new CommandQueue();
+        queues.clear();
+        CommandQueue.addToPreQueue(CommandData.newTimelineCommand(CommandEnum.GET_TIMELINE, ma1, TimelineType.HOME)
+                .setInForeground(true));
+        CommandQueue.addToPreQueue(CommandData.newTimelineCommand(CommandEnum.GET_TIMELINE, ma1,
+                TimelineType.INTERACTIONS).setInForeground(true));
+        CommandQueue.addToPreQueue(CommandData.newTimelineCommand(CommandEnum.GET_TIMELINE, ma2, TimelineType.HOME)
+                .setInForeground(true));
+        assertEquals(2, queues.countFreeLanesToExecute());
+
+        CommandData cd1 = queues.pollQueue();
+        assertEquals(cd1.toString(), ma1.getOriginId(), cd1.getLaneId());
+        assertEquals(1, queues.countFreeLanesToExecute());
+        CommandData cd2 = queues.pollQueue();
+        assertEquals("The first lane is busy: " + cd2, ma2.getOriginId(), cd2.getLaneId());
+        assertEquals(null, queues.pollQueue());
+
+        queues.releaseLane(cd1);
+        CommandData cd3 = queues.pollQueue();
+        assertEquals(cd3.toString(), ma1.getOriginId(), cd3.getLaneId());
+        queues.releaseLane(cd2);
+        queues.releaseLane(cd3);
+        queues.clear();
+    }
+
     @Test
     public void testSummary() {
         followUnfollowSummary(CommandEnum.FOLLOW);
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2018 yvolk (Yuri Volkov), http://yurivolkov.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.andstatus.app.service;
+
+import android.net.Uri;
+
+import org.andstatus.app.context.TestSuite;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DownloadEngineTest {
+    private final DownloadEngine engine = new DownloadEngine(new DownloadEngine.Parent() {
+        @Override
+        public void onBeforeExecuting(CommandData commandData) {
+            // Empty
+        }
+
+        @Override
+        public void onAfterExecuting(CommandData commandData) {
+            // Empty
+        }
+
+        @Override
+        public void onWorkerEnded() {
+            // Empty
+        }
+
+        @Override
+        public boolean isStopping() {
+            return false;
+        }
+    });
+
+    @Before
+    public void setUp() throws Exception {
+        TestSuite.initializeWithData(this);
+    }
+
+    @Test
+    public void testEqualCommandsAreQueuedOnce() {
+        engine.add(CommandData.newFetchAttachment(0, 101));
+        engine.add(CommandData.newFetchAttachment(0, 101));
+        engine.add(CommandData.newFetchAttachment(0, 102));
+        assertTrue(engine.toString(), engine.isBusy());
+
+        List<CommandData> left = engine.stop();
+        assertEquals(left.toString(), 2, left.size());
+        assertFalse(engine.toString(), engine.isBusy());
+    }
+
+    @Test
+    public void testConcurrencyLimits() {
+        DownloadEngine.Download download1 = newDownload(201, "https://example.com/1.png");
+        DownloadEngine.Download download2 = newDownload(202, "https://example.com/2.png");
+        DownloadEngine.Download download3 = newDownload(203, "https://example.com/3.png");
+        DownloadEngine.Download sameUri = newDownload(204, "https://example.com/1.png");
+        DownloadEngine.Download otherHost = newDownload(205, "https://example.org/1.png");
+
+        assertTrue(engine.tryToStart(download1));
+        assertTrue(engine.tryToStart(download2));
+        assertFalse("More than " + DownloadEngine.MAX_DOWNLOADS_PER_HOST + " downloads to one host",
+                engine.tryToStart(download3));
+        assertFalse("The same URI is being downloaded", engine.tryToStart(sameUri));
+        assertTrue(engine.tryToStart(otherHost));
+        assertNull("The host is busy", engine.pollDeferred());
+
+        engine.onEnded(download2);
+        assertEquals(download3, engine.pollDeferred());
+        assertNull(engine.pollDeferred());
+
+        engine.onEnded(download1);
+        assertTrue(engine.toString(), engine.isBusy());
+        List<CommandData> left = engine.stop();
+        assertEquals("The command, which waited for the URI, should be queued again " + left,
+                1, left.size());
+        assertEquals(sameUri.commandData, left.get(0));
+    }
+
+    @Test
+    public void testStopHandsBackCommandsNotExecuted() {
+        DownloadEngine.Download download1 = newDownload(301, "https://example.com/1.png");
+        DownloadEngine.Download download2 = newDownload(302, "https://example.com/2.png");
+        DownloadEngine.Download deferred = newDownload(303, "https://example.com/3.png");
+        DownloadEngine.Download waiting = newDownload(304, "https://example.com/1.png");
+        CommandData pending = CommandData.newFetchAttachment(0, 305);
+
+        assertTrue(engine.tryToStart(download1));
+        assertTrue(engine.tryToStart(download2));
+        assertFalse(engine.tryToStart(deferred));
+        assertFalse(engine.tryToStart(waiting));
+        engine.add(pending);
+
+        List<CommandData> left = engine.stop();
+        assertEquals(left.toString(), 3, left.size());
+        assertTrue(left.toString(), left.contains(deferred.commandData));
+        assertTrue(left.toString(), left.contains(waiting.commandData));
+        assertTrue(left.toString(), left.contains(pending));
+        assertFalse(engine.toString(), engine.isBusy());
+        assertTrue("Slots should be free after stop", engine.tryToStart(download1));
+    }
+
+    private static DownloadEngine.Download newDownload(long downloadId, String uri) {
+        return new DownloadEngine.Download(CommandData.newFetchAttachment(0, downloadId), Uri.parse(uri));
+    }
+}
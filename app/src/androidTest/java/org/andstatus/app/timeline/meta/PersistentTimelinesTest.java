@@ -32,6 +32,7 @@ import org.junit.Test;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static org.andstatus.app.context.DemoData.demoData;
@@ -235,4 +236,25 @@ public class PersistentTimelinesTest {
         }
         assertTrue("No syncable timelines for " + accountsToSync, syncableFound);
     }
+
+    @Test
+    public void testAutoSyncInterval() {
+        MyAccount myAccount = demoData.getMyAccount(demoData.conversationAccountName);
+        final long syncFrequencyMs = myAccount.getEffectiveSyncFrequencyMillis();
+        assertTrue("Sync frequency of " + myAccount, syncFrequencyMs > 0);
+        Timeline stored = myContext.timelines().forUser(TimelineType.HOME, myAccount.getActor());
+        Timeline timeline = Timeline.fromId(myContext, stored.getId());
+        timeline.resetCounters(false);
+        timeline.forgetPositionsAndDates();
+        assertEquals("Never synced " + timeline, syncFrequencyMs, timeline.getAutoSyncIntervalMillis());
+
+        final long now = System.currentTimeMillis();
+        timeline.onNewMsg(now - TimeUnit.DAYS.toMillis(10), "quiet1");
+        long intervalMs = timeline.getAutoSyncIntervalMillis();
+        assertTrue("Quiet timeline " + intervalMs + "ms, " + timeline, intervalMs >= syncFrequencyMs * 8
+                && intervalMs <= syncFrequencyMs * 9);
+
+        timeline.onNewMsg(now, "busy1");
+        assertEquals("Busy timeline " + timeline, syncFrequencyMs, timeline.getAutoSyncIntervalMillis());
+    }
 }
@@ -23,6 +23,10 @@ import org.andstatus.app.origin.Origin;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 import static org.andstatus.app.context.DemoData.demoData;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -46,4 +50,39 @@ public class CachedUsersAndActorsTest {
         assertEquals(users.toString(), false, users.isMeOrMyFriend(Actor.EMPTY));
     }
 
+    @Test
+    public void testPrefixIndex() {
+        CachedUsersAndActors users = MyContextHolder.get().users();
+        Actor actor = demoData.getMyAccount(demoData.conversationAccount2Name).getActor();
+        String prefix = actor.getUsername().substring(0, 2).toUpperCase();
+        List<Long> actorIds = users.findActorIdsByPrefix(actor.origin, prefix, 50);
+        assertTrue("Prefix '" + prefix + "' " + actorIds, actorIds.contains(actor.actorId));
+        long first = actorIds.get(0);
+        assertTrue("My actors and friends first " + actorIds,
+                users.isMe(first) || users.friendsOfMyActors.containsKey(first));
+
+        ActorPrefixIndex index = ActorPrefixIndex.load(MyContextHolder.get(), actor.origin);
+        int size = index.size();
+        Actor added = Actor.fromOriginAndActorOid(actor.origin, "prefixIndexTestOid");
+        added.actorId = Long.MAX_VALUE - 1;
+        added.setUsername("zzPrefixIndexTest");
+        added.setRealName("Zz Prefix Test");
+        index.add(added);
+        assertEquals(index.toString(), size + 2, index.size());
+        assertEquals(Collections.singleton(added.actorId), index.find("ZZPREFIXINDEX", 10));
+        assertEquals(Collections.singleton(added.actorId), index.find("zz prefix", 10));
+        assertTrue(index.find("zz prefix", 0).isEmpty());
+
+        for (int i = 1; i <= 3; i++) {
+            Actor ranked = Actor.fromOriginAndActorOid(actor.origin, "prefixIndexRankOid" + i);
+            ranked.actorId = Long.MAX_VALUE - 1 - i;
+            ranked.setUsername("zzPrefixRank" + i);
+            index.add(ranked);
+        }
+        final long best = Long.MAX_VALUE - 4;
+        assertEquals("All candidates are ranked before truncating",
+                Collections.singletonList(best), index.find("zzprefixrank", 1, id -> id == best ? 0 : 1));
+        assertEquals(Arrays.asList(best, Long.MAX_VALUE - 2),
+                index.find("zzprefixrank", 2, id -> id == best ? 0 : 1));
+    }
 }
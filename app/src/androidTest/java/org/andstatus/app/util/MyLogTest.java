@@ -55,8 +55,16 @@ public class MyLogTest {
         MyLog.setLogToFile(true);
         assertFalse(StringUtils.isEmpty(MyLog.getLogFilename()));
         MyLog.v(this, method);
+        MyLog.flushLogFile();
         File file = MyLog.getFileInLogDir(MyLog.getLogFilename(), true);
         assertTrue(file.exists());
+        long length = file.length();
+        assertTrue("Log file is empty", length > 0);
+        for (int ind = 0; ind < 10; ind++) {
+            MyLog.v(this, method + " " + ind);
+        }
+        MyLog.flushLogFile();
+        assertTrue("Lines were not appended", file.length() > length);
         
         MyLog.setLogToFile(false);
         assertTrue(StringUtils.isEmpty(MyLog.getLogFilename()));
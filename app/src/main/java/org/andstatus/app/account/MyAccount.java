@@ -388,6 +388,9 @@ public final class MyAccount implements Comparable<MyAccount>, IsEmpty {
                     Origin.Builder originBuilder = new Origin.Builder(myAccount.getOrigin());
                     originBuilder.save(config);
                 }
+            } catch (ConnectionException e) {
+                if (e.getStatusCode() != StatusCode.NOT_MODIFIED) throw e;
+                ok = true;
             } finally {
                 MyLog.v(this, "Get Origin config " + (ok ? "succeeded" : "failed"));
             }
@@ -70,8 +70,12 @@ public class MyAccounts implements IsEmpty {
     public MyAccounts initialize() {
         myAccounts.clear();
         recentAccounts.clear();
-        for (android.accounts.Account account : getAccounts(myContext.context())) {
-            MyAccount ma = Builder.fromAndroidAccount(myContext, account).getAccount();
+        // Data of accounts is read from the AccountManager concurrently. Accounts are built one by one,
+        // because this uses the database, which has one connection
+        for (AccountData accountData : getAccounts(myContext.context()).parallelStream()
+                .map(account -> AccountData.fromAndroidAccount(myContext.context(), account))
+                .collect(toList())) {
+            MyAccount ma = Builder.fromAccountData(myContext, accountData, "fromAndroidAccount").getAccount();
             if (ma.isValid()) {
                 myAccounts.add(ma);
             } else {
@@ -19,18 +19,21 @@ package org.andstatus.app.activity;
 import android.content.Context;
 import android.database.Cursor;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
 import org.andstatus.app.actor.ActorListLoader;
 import org.andstatus.app.actor.ActorViewItem;
 import org.andstatus.app.context.MyContext;
 import org.andstatus.app.context.MyContextHolder;
 import org.andstatus.app.context.MyPreferences;
+import org.andstatus.app.data.ColumnIndexedCursor;
 import org.andstatus.app.data.DbUtils;
 import org.andstatus.app.database.table.ActivityTable;
 import org.andstatus.app.net.social.ActivityType;
 import org.andstatus.app.net.social.Actor;
 import org.andstatus.app.note.NoteViewItem;
 import org.andstatus.app.origin.Origin;
+import org.andstatus.app.timeline.DownloadsUpdate;
 import org.andstatus.app.timeline.DuplicationLink;
 import org.andstatus.app.timeline.TimelineFilter;
 import org.andstatus.app.timeline.ViewItem;
@@ -38,6 +41,11 @@ import org.andstatus.app.timeline.meta.Timeline;
 import org.andstatus.app.util.MyStringBuilder;
 import org.andstatus.app.util.RelativeTime;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 /** View on ActivityStream
  * @author yvolk@yurivolkov.com
  */
@@ -63,16 +71,38 @@ public class ActivityViewItem extends ViewItem<ActivityViewItem> implements Comp
         noteViewItem = NoteViewItem.EMPTY;
     }
 
+    /** Indexes of columns, read by {@link #ActivityViewItem(Cursor)} */
+    private static class Columns {
+        final int activityId;
+        final int originId;
+        final int activityType;
+        final int updatedDate;
+        final int actorId;
+        final int noteId;
+        final int objActorId;
+
+        Columns(Cursor cursor) {
+            activityId = cursor.getColumnIndex(ActivityTable.ACTIVITY_ID);
+            originId = cursor.getColumnIndex(ActivityTable.ORIGIN_ID);
+            activityType = cursor.getColumnIndex(ActivityTable.ACTIVITY_TYPE);
+            updatedDate = cursor.getColumnIndex(ActivityTable.UPDATED_DATE);
+            actorId = cursor.getColumnIndex(ActivityTable.ACTOR_ID);
+            noteId = cursor.getColumnIndex(ActivityTable.NOTE_ID);
+            objActorId = cursor.getColumnIndex(ActivityTable.OBJ_ACTOR_ID);
+        }
+    }
+
     protected ActivityViewItem(Cursor cursor) {
         super(false);
-        id = DbUtils.getLong(cursor, ActivityTable.ACTIVITY_ID);
-        origin = MyContextHolder.get().origins().fromId(DbUtils.getLong(cursor, ActivityTable.ORIGIN_ID));
-        activityType = ActivityType.fromId(DbUtils.getLong(cursor, ActivityTable.ACTIVITY_TYPE));
-        updatedDate = DbUtils.getLong(cursor, ActivityTable.UPDATED_DATE);
+        final Columns columns = ColumnIndexedCursor.columns(cursor, Columns.class, Columns::new);
+        id = DbUtils.getLong(cursor, columns.activityId);
+        origin = MyContextHolder.get().origins().fromId(DbUtils.getLong(cursor, columns.originId));
+        activityType = ActivityType.fromId(DbUtils.getLong(cursor, columns.activityType));
+        updatedDate = DbUtils.getLong(cursor, columns.updatedDate);
         actor = ActorViewItem.fromActor(Actor.fromOriginAndActorId(origin,
-                DbUtils.getLong(cursor, ActivityTable.ACTOR_ID)));
-        noteId = DbUtils.getLong(cursor, ActivityTable.NOTE_ID);
-        objActorId = DbUtils.getLong(cursor, ActivityTable.OBJ_ACTOR_ID);
+                DbUtils.getLong(cursor, columns.actorId)));
+        noteId = DbUtils.getLong(cursor, columns.noteId);
+        objActorId = DbUtils.getLong(cursor, columns.objActorId);
         if (objActorId != 0) {
             objActorItem = ActorViewItem.fromActorId(origin, objActorId);
         }
@@ -142,6 +172,15 @@ public class ActivityViewItem extends ViewItem<ActivityViewItem> implements Comp
                     : link;
     }
 
+    @Nullable
+    @Override
+    public Set<Long> getDuplicatesKeys() {
+        if (isEmpty()) return Collections.emptySet();
+        if (noteId != 0) return noteViewItem.getDuplicatesKeys();
+        if (objActorId != 0) return objActorItem.getDuplicatesKeys();
+        return Collections.emptySet();
+    }
+
     @NonNull
     protected DuplicationLink duplicatesByChildren(Timeline timeline, @NonNull ActivityViewItem other) {
         if (noteId !=0) {
@@ -182,6 +221,24 @@ public class ActivityViewItem extends ViewItem<ActivityViewItem> implements Comp
         this.objActorItem = objActorItem;
     }
 
+    @Override
+    public void addRebloggersToLoad(Set<Long> noteIds) {
+        noteViewItem.addRebloggersToLoad(noteIds);
+    }
+
+    @Override
+    public void setLoadedRebloggers(Map<Long, List<Actor>> rebloggers) {
+        noteViewItem.setLoadedRebloggers(rebloggers);
+    }
+
+    @Override
+    public boolean applyDownloads(DownloadsUpdate update) {
+        boolean changed = noteViewItem.applyDownloads(update);
+        changed |= actor.applyDownloads(update);
+        changed |= getObjActorItem().applyDownloads(update);
+        return changed;
+    }
+
     @Override
     public void addActorsToLoad(ActorListLoader loader) {
         noteViewItem.addActorsToLoad(loader);
@@ -16,6 +16,7 @@
 
 package org.andstatus.app.actor;
 
+import android.provider.BaseColumns;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.text.TextUtils;
@@ -28,20 +29,24 @@ import android.widget.Filterable;
 
 import org.andstatus.app.R;
 import org.andstatus.app.context.MyContextHolder;
+import org.andstatus.app.data.SqlActorIds;
 import org.andstatus.app.database.table.ActorTable;
 import org.andstatus.app.graphics.AvatarView;
+import org.andstatus.app.net.social.Actor;
 import org.andstatus.app.origin.Origin;
 import org.andstatus.app.timeline.LoadableListActivity;
-import org.andstatus.app.util.CollectionsUtil;
 import org.andstatus.app.util.I18n;
 import org.andstatus.app.util.MyLog;
 import org.andstatus.app.util.MyUrlSpan;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.stream.Collectors;
 
 public class ActorAutoCompleteAdapter extends BaseAdapter implements Filterable {
+    private static final int MAX_RESULTS = 50;
     private final Origin origin;
     private final LoadableListActivity myActivity;
     private final LayoutInflater mInflater;
@@ -115,13 +120,17 @@ public class ActorAutoCompleteAdapter extends BaseAdapter implements Filterable
      * is removed from the list.</p>
      */
     private class ArrayFilter extends Filter {
+        private String loadedPrefix = "";
+        private List<ActorViewItem> loadedValues = Collections.emptyList();
+
         @Override
         protected FilterResults performFiltering(CharSequence prefix) {
             List<ActorViewItem> filteredValues = new ArrayList<>();
             if (!TextUtils.isEmpty(prefix)) {
                 final String prefixString = prefix.toString().toLowerCase();
-                filteredValues = loadFiltered(prefixString);
-                CollectionsUtil.sort(filteredValues);
+                filteredValues = canFilterLoaded(prefixString)
+                        ? filterLoaded(prefixString)
+                        : loadFiltered(prefixString);
             }
             final FilterResults results = new FilterResults();
             results.values = filteredValues;
@@ -129,24 +138,50 @@ public class ActorAutoCompleteAdapter extends BaseAdapter implements Filterable
             return results;
         }
 
+        /** While a user continues to type the same name, we narrow down already loaded complete list,
+         * without accessing the database on each keystroke */
+        private boolean canFilterLoaded(String prefixString) {
+            return !loadedPrefix.isEmpty() && prefixString.startsWith(loadedPrefix)
+                    && loadedValues.size() < MAX_RESULTS;
+        }
+
+        private List<ActorViewItem> filterLoaded(String prefixString) {
+            return loadedValues.stream().filter(item -> nameStartsWith(item.actor, prefixString))
+                    .collect(Collectors.toList());
+        }
+
+        private boolean nameStartsWith(Actor actor, String prefixString) {
+            return actor.getWebFingerId().toLowerCase().startsWith(prefixString)
+                    || actor.getUsername().toLowerCase().startsWith(prefixString)
+                    || actor.getRealName().toLowerCase().startsWith(prefixString);
+        }
+
         private List<ActorViewItem> loadFiltered(final String prefixString) {
             if (!origin.isValid()) {
                 return Collections.emptyList();
             }
-            ActorListLoader loader = new ActorListLoader(myActivity.getMyContext(), ActorListType.ACTORS_AT_ORIGIN,
-                    MyContextHolder.get().accounts().getFirstSucceededForOrigin(origin), origin, 0, "") {
-                @NonNull
-                @Override
-                protected String getSelection() {
-                    return ActorTable.TABLE_NAME + "." + ActorTable.ORIGIN_ID + "=" + origin.getId() + " AND "
-                            + ActorTable.TABLE_NAME + "." + ActorTable.WEBFINGER_ID + " LIKE '" + prefixString + "%'";
-                }
-            };
-            loader.load(null);
-            List<ActorViewItem> filteredValues = loader.getList();
+            List<Long> actorIds = myActivity.getMyContext().users()
+                    .findActorIdsByPrefix(origin, prefixString, MAX_RESULTS);
+            List<ActorViewItem> filteredValues = new ArrayList<>();
+            if (!actorIds.isEmpty()) {
+                ActorListLoader loader = new ActorListLoader(myActivity.getMyContext(), ActorListType.ACTORS_AT_ORIGIN,
+                        MyContextHolder.get().accounts().getFirstSucceededForOrigin(origin), origin, 0, "") {
+                    @NonNull
+                    @Override
+                    protected String getSelection() {
+                        return ActorTable.TABLE_NAME + "." + BaseColumns._ID + SqlActorIds.fromIds(actorIds).getSql();
+                    }
+                };
+                loader.load(null);
+                loader.getList().stream().filter(item -> item.getId() != 0)
+                        .sorted(Comparator.comparingInt(item -> actorIds.indexOf(item.getId())))
+                        .forEach(filteredValues::add);
+            }
             for (ActorViewItem viewItem : filteredValues) {
                 MyLog.v(this, () -> "filtered: " + viewItem.actor);
             }
+            loadedPrefix = prefixString;
+            loadedValues = filteredValues;
             return filteredValues;
         }
 
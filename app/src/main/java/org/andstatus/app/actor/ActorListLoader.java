@@ -10,6 +10,7 @@ import org.andstatus.app.account.MyAccount;
 import org.andstatus.app.context.MyContext;
 import org.andstatus.app.context.MyPreferences;
 import org.andstatus.app.data.ActorSql;
+import org.andstatus.app.data.ColumnIndexedCursor;
 import org.andstatus.app.data.MatchedUri;
 import org.andstatus.app.data.SqlActorIds;
 import org.andstatus.app.data.SqlWhere;
@@ -94,8 +95,8 @@ public class ActorListLoader extends SyncLoader<ActorViewItem> {
         // TODO: Why only MyAccount's ID ??
         Uri mContentUri = MatchedUri.getActorListUri(ma.getActorId(), mActorListType, ma.getOriginId(), mCentralItemId,
                 searchQuery);
-        try (Cursor c = myContext.context().getContentResolver()
-                    .query(mContentUri, ActorSql.projection(), getSelection(), null, null)) {
+        try (Cursor c = ColumnIndexedCursor.of(myContext.context().getContentResolver()
+                    .query(mContentUri, ActorSql.projection(), getSelection(), null, null))) {
             while (c != null && c.moveToNext()) {
                 populateItem(c);
             }
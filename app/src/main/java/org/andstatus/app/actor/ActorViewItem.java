@@ -18,6 +18,7 @@ package org.andstatus.app.actor;
 
 import android.database.Cursor;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
 import org.andstatus.app.MyActivity;
 import org.andstatus.app.context.MyContext;
@@ -27,6 +28,7 @@ import org.andstatus.app.graphics.AvatarView;
 import org.andstatus.app.net.social.Actor;
 import org.andstatus.app.origin.Origin;
 import org.andstatus.app.origin.OriginType;
+import org.andstatus.app.timeline.DownloadsUpdate;
 import org.andstatus.app.timeline.DuplicationLink;
 import org.andstatus.app.timeline.TimelineFilter;
 import org.andstatus.app.timeline.ViewItem;
@@ -35,6 +37,7 @@ import org.andstatus.app.util.MyStringBuilder;
 import org.andstatus.app.util.StringUtils;
 
 import java.util.Collections;
+import java.util.Set;
 import java.util.stream.Stream;
 
 import static org.andstatus.app.timeline.DuplicationLink.DUPLICATES;
@@ -147,6 +150,11 @@ public class ActorViewItem extends ViewItem<ActorViewItem> implements Comparable
         return actor.avatarFile;
     }
 
+    @Override
+    public boolean applyDownloads(DownloadsUpdate update) {
+        return update.applyToActor(actor);
+    }
+
     public void showAvatar(MyActivity myActivity, AvatarView imageView) {
         getAvatarFile().showImage(myActivity, imageView);
     }
@@ -177,6 +185,13 @@ public class ActorViewItem extends ViewItem<ActorViewItem> implements Comparable
         return super.duplicates(timeline, other);
     }
 
+    /** Actors of different origins may duplicate each other, see {@link #duplicates(Timeline, ActorViewItem)} */
+    @Nullable
+    @Override
+    public Set<Long> getDuplicatesKeys() {
+        return isEmpty() ? Collections.emptySet() : null;
+    }
+
     public void hideTheFollower(Actor actor) {
         myFollowingActorToHide = actor;
     }
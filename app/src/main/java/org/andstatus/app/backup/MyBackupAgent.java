@@ -20,6 +20,8 @@ import android.app.backup.BackupAgent;
 import android.app.backup.BackupDataInput;
 import android.app.backup.BackupDataOutput;
 import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
 import android.os.ParcelFileDescriptor;
 
 import org.andstatus.app.R;
@@ -34,19 +36,25 @@ import org.andstatus.app.data.checker.DataChecker;
 import org.andstatus.app.database.DatabaseHolder;
 import org.andstatus.app.service.MyServiceManager;
 import org.andstatus.app.service.MyServiceState;
-import org.andstatus.app.util.FileUtils;
 import org.andstatus.app.util.MyLog;
 import org.andstatus.app.util.SharedPreferencesUtil;
 import org.andstatus.app.util.TriState;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 public class MyBackupAgent extends BackupAgent {
     public static final String DATABASE_KEY = "database";
     public static final String SHARED_PREFERENCES_KEY = "shared_preferences";
+    private static final String COMPRESSED_FILE_EXTENSION = ".gz";
+    private static final int CHECKPOINT_ATTEMPTS = 5;
 
     private MyBackupDescriptor backupDescriptor = null;
 
@@ -135,12 +143,76 @@ public class MyBackupAgent extends BackupAgent {
         sharedPreferencesBackedUp = backupFile(data,
                 SHARED_PREFERENCES_KEY,
                 SharedPreferencesUtil.defaultSharedPreferencesPath(MyContextHolder.get().context()));
-        databasesBackedUp = backupFile(data,
-                DATABASE_KEY + "_" + DatabaseHolder.DATABASE_NAME,
-                MyStorage.getDatabasePath(DatabaseHolder.DATABASE_NAME));
+        databasesBackedUp = backupDatabase(data);
         accountsBackedUp = MyContextHolder.get().accounts().onBackup(data, backupDescriptor);
     }
     
+    private long backupDatabase(MyBackupDataOutput data) throws IOException {
+        File dbFile = MyStorage.getDatabasePath(DatabaseHolder.DATABASE_NAME);
+        if (!dbFile.exists()) {
+            MyLog.v(this, () -> "Database doesn't exist, path='" + dbFile.getAbsolutePath() + "'");
+            return 0;
+        }
+        File compressedFile = new File(getCacheDir(), DatabaseHolder.DATABASE_NAME + COMPRESSED_FILE_EXTENSION);
+        try {
+            compressDatabaseSnapshot(dbFile, compressedFile);
+            return backupFile(data, DATABASE_KEY + "_" + DatabaseHolder.DATABASE_NAME, compressedFile);
+        } finally {
+            if (compressedFile.exists() && !compressedFile.delete()) {
+                MyLog.i(this, "Couldn't delete " + compressedFile.getAbsolutePath());
+            }
+        }
+    }
+
+    /** The database file is read, while we hold the write lock: no other connection can change it then.
+     * The write-ahead log (if it is used) is checkpointed before that, so the file alone is consistent */
+    private void compressDatabaseSnapshot(File dbFile, File compressedFile) throws IOException {
+        SQLiteDatabase db = MyContextHolder.get().getDatabase();
+        if (db == null) {
+            throw new FileNotFoundException("Database is not available");
+        }
+        checkpointDatabase(db);
+        db.beginTransactionNonExclusive();
+        try (InputStream in = new FileInputStream(dbFile);
+             OutputStream out = new GZIPOutputStream(new FileOutputStream(compressedFile, false),
+                     MyBackupDataInput.FILE_CHUNK_SIZE)) {
+            byte[] bytes = new byte[MyBackupDataInput.FILE_CHUNK_SIZE];
+            int bytesRead;
+            while ((bytesRead = in.read(bytes)) != -1) {
+                out.write(bytes, 0, bytesRead);
+            }
+        } finally {
+            db.endTransaction();
+        }
+        backupDescriptor.getLogger().logProgress("Compressed database " + dbFile.length() + " bytes to "
+                + compressedFile.length() + " bytes");
+    }
+
+    /** Moves all pages of the write-ahead log into the database file. The checkpoint is incomplete,
+     * if other connections use the log at the same time, so it is retried a few times */
+    private void checkpointDatabase(SQLiteDatabase db) throws IOException {
+        final String method = "checkpointDatabase";
+        String checkpointResult = "";
+        for (int attempt = 1; attempt <= CHECKPOINT_ATTEMPTS; attempt++) {
+            try (Cursor cursor = db.rawQuery("PRAGMA wal_checkpoint(TRUNCATE)", null)) {
+                if (cursor.moveToFirst()) {
+                    int busy = cursor.getInt(0);
+                    long logPages = cursor.getLong(1);
+                    long checkpointedPages = cursor.getLong(2);
+                    if (busy == 0 && logPages == checkpointedPages) return;
+
+                    checkpointResult = "busy:" + busy + ", log:" + logPages + ", checkpointed:" + checkpointedPages;
+                } else {
+                    checkpointResult = "no result";
+                }
+            }
+            backupDescriptor.getLogger().logProgress("Database checkpoint is incomplete, " + checkpointResult
+                    + ", attempt " + attempt);
+            if (DbUtils.waitBetweenRetries(method)) break;
+        }
+        throw new IOException("Couldn't checkpoint the database, " + checkpointResult);
+    }
+
     private long backupFile(MyBackupDataOutput data, String key, File dataFile) throws IOException {
         long backedUpCount = 0;
         if (dataFile.exists()) {
@@ -152,13 +224,16 @@ public class MyBackupAgent extends BackupAgent {
             int bytesToWrite = (int) fileLength;
             data.writeEntityHeader(key, bytesToWrite, MyBackupDataOutput.getDataFileExtension(dataFile));
             int bytesWritten = 0;
-            while (bytesWritten < bytesToWrite) {
-                byte[] bytes = FileUtils.getBytes(dataFile, bytesWritten, MyBackupDataInput.FILE_CHUNK_SIZE);
-                if (bytes.length <= 0) {
-                    break;
+            try (InputStream in = new FileInputStream(dataFile)) {
+                byte[] bytes = new byte[MyBackupDataInput.FILE_CHUNK_SIZE];
+                while (bytesWritten < bytesToWrite) {
+                    int bytesRead = in.read(bytes, 0, Math.min(bytes.length, bytesToWrite - bytesWritten));
+                    if (bytesRead <= 0) {
+                        break;
+                    }
+                    bytesWritten += bytesRead;
+                    data.writeEntityData(bytes, bytesRead);
                 }
-                bytesWritten += bytes.length;
-                data.writeEntityData(bytes, bytes.length);
             }
             if (bytesWritten != bytesToWrite) {
                 throw new FileNotFoundException("Couldn't backup "
@@ -209,6 +284,7 @@ public class MyBackupAgent extends BackupAgent {
             switch (backupDescriptor.getBackupSchemaVersion()) {
                 case MyBackupDescriptor.BACKUP_SCHEMA_VERSION_UNKNOWN:
                     throw new FileNotFoundException("No backup information in the backup descriptor");
+                case MyBackupDescriptor.BACKUP_SCHEMA_VERSION_NOT_COMPRESSED:
                 case MyBackupDescriptor.BACKUP_SCHEMA_VERSION:
                     if (data == null) {
                         throw new FileNotFoundException("No BackupDataInput");
@@ -251,7 +327,9 @@ public class MyBackupAgent extends BackupAgent {
     private void doRestore(MyBackupDataInput data) throws IOException {
         restoreSharedPreferences(data);
         assertNextHeader(data, DATABASE_KEY + "_" + DatabaseHolder.DATABASE_NAME);
-        databasesRestored += restoreFile(data, MyStorage.getDatabasePath(DatabaseHolder.DATABASE_NAME));
+        databasesRestored += backupDescriptor.isDatabaseCompressed()
+                ? restoreCompressedFile(data, MyStorage.getDatabasePath(DatabaseHolder.DATABASE_NAME))
+                : restoreFile(data, MyStorage.getDatabasePath(DatabaseHolder.DATABASE_NAME));
         MyContextHolder.release();
         MyContextHolder.setOnRestore(true);
         MyContextHolder.initialize(this, this);
@@ -314,10 +392,7 @@ public class MyBackupAgent extends BackupAgent {
     
     /** @return count of restores files */
     public long restoreFile(MyBackupDataInput data, File dataFile) throws IOException {
-        if (dataFile.exists() && !dataFile.delete()) {
-            throw new FileNotFoundException("Couldn't delete old file before restore '"
-                    + dataFile.getName() + "'");
-        }
+        deleteBeforeRestore(dataFile);
         final String method = "restoreFile";
         MyLog.i(this, method + " started, " + fileWritten(data.getKey(), dataFile, data.getDataSize()));
         int bytesToWrite = data.getDataSize();
@@ -342,6 +417,34 @@ public class MyBackupAgent extends BackupAgent {
         return 1;
     }
 
+    /** The data is decompressed, while it is being read from the backup
+     * @return count of restores files */
+    private long restoreCompressedFile(MyBackupDataInput data, File dataFile) throws IOException {
+        deleteBeforeRestore(dataFile);
+        final String method = "restoreCompressedFile";
+        MyLog.i(this, method + " started, " + fileWritten(data.getKey(), dataFile, data.getDataSize()));
+        long bytesWritten = 0;
+        try (InputStream in = new GZIPInputStream(data.getEntityInputStream(), MyBackupDataInput.FILE_CHUNK_SIZE);
+             OutputStream out = new FileOutputStream(dataFile, false)) {
+            byte[] bytes = new byte[MyBackupDataInput.FILE_CHUNK_SIZE];
+            int bytesRead;
+            while ((bytesRead = in.read(bytes)) != -1) {
+                out.write(bytes, 0, bytesRead);
+                bytesWritten += bytesRead;
+            }
+        }
+        backupDescriptor.getLogger().logProgress("Restored file:'" + dataFile.getName() + "', key:'"
+                + data.getKey() + "', " + data.getDataSize() + " bytes decompressed to " + bytesWritten + " bytes");
+        return 1;
+    }
+
+    private void deleteBeforeRestore(File dataFile) throws FileNotFoundException {
+        if (dataFile.exists() && !dataFile.delete()) {
+            throw new FileNotFoundException("Couldn't delete old file before restore '"
+                    + dataFile.getName() + "'");
+        }
+    }
+
     MyBackupDescriptor getBackupDescriptor() {
         return backupDescriptor;
     }
@@ -19,13 +19,16 @@ package org.andstatus.app.backup;
 import android.app.backup.BackupDataInput;
 
 import org.andstatus.app.context.MyContext;
+import org.andstatus.app.data.DbUtils;
 import org.andstatus.app.util.FileUtils;
 import org.andstatus.app.util.MyLog;
 import org.json.JSONObject;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Iterator;
 import java.util.Set;
 import java.util.TreeSet;
@@ -41,6 +44,8 @@ public class MyBackupDataInput {
     private Iterator<BackupHeader> keysIterator;
     private boolean mHeaderReady = false;
     private int dataOffset = 0;
+    /** Data file of the current header, kept open while its data is being read */
+    private InputStream dataStream = null;
     private BackupHeader header = BackupHeader.getEmpty();
     
     static class BackupHeader implements Comparable<BackupHeader> {
@@ -153,6 +158,7 @@ public class MyBackupDataInput {
     }
 
     private boolean readNextHeader2() throws IOException {
+        closeDataStream();
         mHeaderReady = false;
         dataOffset = 0;
         if (keysIterator.hasNext()) {
@@ -216,18 +222,51 @@ public class MyBackupDataInput {
         } else if (size < 1 || dataOffset >= header.dataSize) {
             // skip
         } else if (mHeaderReady) {
-            File dataFile = new File(dataFolder, header.key + MyBackupDataOutput.DATA_FILE_SUFFIX + header.fileExtension);
-            byte[] readData = FileUtils.getBytes(dataFile, dataOffset, size);
-            bytesRead = readData.length;
-            System.arraycopy(readData, 0, data, offset, bytesRead);
+            if (dataStream == null) {
+                dataStream = new FileInputStream(new File(dataFolder,
+                        header.key + MyBackupDataOutput.DATA_FILE_SUFFIX + header.fileExtension));
+            }
+            bytesRead = Math.max(dataStream.read(data, offset, Math.min(size, header.dataSize - dataOffset)), 0);
         } else {
             throw new IllegalStateException("Entity header not read");
         }
         MyLog.v(this, "key=" + header.key + ", offset=" + dataOffset + ", bytes read=" + bytesRead);
         dataOffset += bytesRead;
+        if (dataOffset >= header.dataSize) {
+            closeDataStream();
+        }
         return bytesRead;
     }
 
+    private void closeDataStream() {
+        DbUtils.closeSilently(dataStream);
+        dataStream = null;
+    }
+
+    /** Entity data of the current header as a stream, which is read in chunks of at most {@link #FILE_CHUNK_SIZE} */
+    InputStream getEntityInputStream() {
+        return new InputStream() {
+            private int bytesRead = 0;
+
+            @Override
+            public int read() throws IOException {
+                byte[] bytes = new byte[1];
+                return read(bytes, 0, 1) < 1 ? -1 : bytes[0] & 0xFF;
+            }
+
+            @Override
+            public int read(byte[] bytes, int offset, int length) throws IOException {
+                int bytesToRead = Math.min(Math.min(length, FILE_CHUNK_SIZE), getDataSize() - bytesRead);
+                if (bytesToRead <= 0) return -1;
+
+                int read = readEntityData(bytes, offset, bytesToRead);
+                if (read <= 0) return -1;
+                bytesRead += read;
+                return read;
+            }
+        };
+    }
+
     /** {@link BackupDataInput#skipEntityData()}  */
     public void skipEntityData() throws IOException {
         if (backupDataInput != null) {
@@ -238,6 +277,7 @@ public class MyBackupDataInput {
     }
 
     private void skipEntityData2() {
+        closeDataStream();
         if (mHeaderReady) {
             mHeaderReady = false;
         } else {
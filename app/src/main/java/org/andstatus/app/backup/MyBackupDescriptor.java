@@ -42,12 +42,15 @@ public class MyBackupDescriptor {
 
     static final int BACKUP_SCHEMA_VERSION_UNKNOWN = -1;
     /** Depends, in particular, on @{@link DatabaseCreator#DATABASE_VERSION}
+     * v.8 2018-07-20 app.v.42 The database is compressed
      * v.7 2017-11-04 app.v.36 Moving to ActivityStreams data model
      * v.6 2016-11-27 app.v.31 database schema changed
      * v.5 2016-05-22 app.v.27 database schema changed
      * v.4 2016-02-28 app.v.23 database schema changed
      */
-    static final int BACKUP_SCHEMA_VERSION = 7;
+    static final int BACKUP_SCHEMA_VERSION = 8;
+    /** The oldest version, which we can restore */
+    static final int BACKUP_SCHEMA_VERSION_NOT_COMPRESSED = 7;
     static final String KEY_ACCOUNTS_COUNT = "accounts_count";
     static final String KEY_CREATED_DATE = "created_date";
     static final String KEY_BACKUP_SCHEMA_VERSION = "backup_schema_version";
@@ -80,7 +83,7 @@ public class MyBackupDescriptor {
             myBackupDescriptor.createdDate = jso.optLong(KEY_CREATED_DATE, myBackupDescriptor.createdDate);
             myBackupDescriptor.applicationVersionCode = jso.optInt(KEY_APPLICATION_VERSION_CODE, myBackupDescriptor.applicationVersionCode);
             myBackupDescriptor.accountsCount = jso.optLong(KEY_ACCOUNTS_COUNT, myBackupDescriptor.accountsCount);
-            if (myBackupDescriptor.backupSchemaVersion != BACKUP_SCHEMA_VERSION) {
+            if (!myBackupDescriptor.isSchemaVersionSupported()) {
                 try {
                     MyLog.w(TAG, "Bad backup descriptor: " + jso.toString(2) );
                 } catch (JSONException e) {
@@ -111,6 +114,14 @@ public class MyBackupDescriptor {
         return backupSchemaVersion;
     }
 
+    boolean isSchemaVersionSupported() {
+        return backupSchemaVersion >= BACKUP_SCHEMA_VERSION_NOT_COMPRESSED && backupSchemaVersion <= BACKUP_SCHEMA_VERSION;
+    }
+
+    boolean isDatabaseCompressed() {
+        return backupSchemaVersion > BACKUP_SCHEMA_VERSION_NOT_COMPRESSED;
+    }
+
     long getCreatedDate() {
         return createdDate;
     }
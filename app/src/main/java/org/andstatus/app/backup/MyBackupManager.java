@@ -158,7 +158,7 @@ class MyBackupManager {
                 ParcelFileDescriptor.MODE_READ_ONLY);
         try {
             newDescriptor = MyBackupDescriptor.fromOldParcelFileDescriptor(newState, progressLogger);
-            if (newDescriptor.getBackupSchemaVersion() != MyBackupDescriptor.BACKUP_SCHEMA_VERSION) {
+            if (!newDescriptor.isSchemaVersionSupported()) {
                 throw new FileNotFoundException("Unsupported backup schema version: " + newDescriptor.getBackupSchemaVersion()
                         + "; created with app version code:" + newDescriptor.getApplicationVersionCode()
                         + "; data folder:'" + dataFolder.getAbsolutePath() + "'");
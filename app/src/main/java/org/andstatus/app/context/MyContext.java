@@ -22,6 +22,7 @@ import android.database.sqlite.SQLiteDatabase;
 import android.support.annotation.NonNull;
 
 import org.andstatus.app.account.MyAccounts;
+import org.andstatus.app.data.OidToIdCache;
 import org.andstatus.app.database.DatabaseHolder;
 import org.andstatus.app.net.http.HttpConnection;
 import org.andstatus.app.notification.NotificationData;
@@ -54,6 +55,8 @@ public interface MyContext extends IdentifiableInstance {
     PersistentOrigins origins();
     @NonNull
     PersistentTimelines timelines();
+    @NonNull
+    OidToIdCache oidToIdCache();
     default void putAssertionData(@NonNull String key, @NonNull ContentValues contentValues) {}
     void release();
     boolean isExpired();
@@ -207,6 +207,8 @@ public final class MyContextHolder {
         builder.append("\n");
         builder.append(ImageCaches.getCacheInfo());
         builder.append("\n");
+        builder.append(get().oidToIdCache().getInfo());
+        builder.append("\n");
         builder.append(AsyncTaskLauncher.threadPoolInfo());
         return builder.toString();
     }
@@ -45,6 +45,9 @@ import org.andstatus.app.util.SharedPreferencesUtil;
 import org.andstatus.app.util.TriState;
 import org.andstatus.app.util.UriUtils;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 /**
  * Contains global state of the application
  * The objects are effectively immutable
@@ -73,6 +76,7 @@ public class MyContextImpl implements MyContext {
     private final MyAccounts accounts = MyAccounts.newEmpty(this);
     private final PersistentOrigins origins = PersistentOrigins.newEmpty(this);
     private final PersistentTimelines timelines = PersistentTimelines.newEmpty(this);
+    private final OidToIdCache oidToIdCache = new OidToIdCache();
 
     private volatile boolean expired = false;
     private final Notifier notifier = new Notifier(this);
@@ -135,10 +139,14 @@ public class MyContextImpl implements MyContext {
                 if (MyContextHolder.isOnRestore()) {
                     state = MyContextState.RESTORING;
                 } else {
+                    // Image caches don't use the database, so they are initialized concurrently with the data,
+                    // which is loaded part after part, as the database has one connection
+                    CompletableFuture<Void> imageCachesInitialized =
+                            CompletableFuture.runAsync(() -> ImageCaches.initialize(context()));
                     users.initialize();
                     accounts.initialize();
                     timelines.initialize();
-                    ImageCaches.initialize(context());
+                    join(imageCachesInitialized);
                     state = MyContextState.READY;
                 }
                 break;
@@ -149,6 +157,18 @@ public class MyContextImpl implements MyContext {
         return this;
     }
 
+    /** Rethrows an exception of the task as it is, not wrapped into {@link CompletionException} */
+    private static void join(CompletableFuture<Void> future) {
+        try {
+            future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw e;
+        }
+    }
+
     private void initializeDatabase(boolean createApplicationData) {
         final String method = "initializeDatabase";
         DatabaseHolder newDb = new DatabaseHolder(context, createApplicationData);
@@ -297,6 +317,12 @@ public class MyContextImpl implements MyContext {
         return timelines;
     }
 
+    @NonNull
+    @Override
+    public OidToIdCache oidToIdCache() {
+        return oidToIdCache;
+    }
+
     @Override
     public ConnectionState getConnectionState() {
         return UriUtils.getConnectionState(context);
@@ -71,6 +71,8 @@ public class MyPreferences {
     public static final String KEY_ATTACH_IMAGES_TO_MY_NOTES = "attach_images";
     public static final String KEY_DOWNLOAD_ATTACHMENTS_OVER_WIFI_ONLY = "download_attachments_over_wifi_only";
     public static final String KEY_MAXIMUM_SIZE_OF_ATTACHMENT_MB = "maximum_size_of_attachment_mb";
+    /** Larger images are scaled down before upload */
+    public static final String KEY_MAXIMUM_SIZE_OF_UPLOADED_IMAGE_PX = "maximum_size_of_uploaded_image_px";
     public static final String KEY_MODERN_INTERFACE_TO_SELECT_AN_ATTACHMENT = "use_kitkat_media_chooser";
 
     // ----------------------------------------------------------
@@ -84,6 +86,10 @@ public class MyPreferences {
     public static final String KEY_DONT_SYNCHRONIZE_OLD_NOTES = "dont_synchronize_old_messages";
     public static final String KEY_CONNECTION_TIMEOUT_SECONDS = "connection_timeout";
     private static final long CONNECTION_TIMEOUT_DEFAULT_SECONDS = 30;
+    public static final String KEY_SYNC_MAX_CONCURRENT_ORIGINS = "sync_max_concurrent_origins";
+    private static final long SYNC_MAX_CONCURRENT_ORIGINS_DEFAULT = 3;
+    public static final String KEY_MAX_CONNECTIONS_PER_HOST = "max_connections_per_host";
+    private static final long MAX_CONNECTIONS_PER_HOST_DEFAULT = 4;
 
     // ----------------------------------------------------------
     // Filters
@@ -146,6 +152,18 @@ public class MyPreferences {
                 KEY_CONNECTION_TIMEOUT_SECONDS, CONNECTION_TIMEOUT_DEFAULT_SECONDS));
     }
 
+    /** Maximum number of origins ("lanes"), commands for which may be executed in parallel */
+    public static int getMaxConcurrentOriginsToSync() {
+        return (int) Math.max(SharedPreferencesUtil.getLongStoredAsString(
+                KEY_SYNC_MAX_CONCURRENT_ORIGINS, SYNC_MAX_CONCURRENT_ORIGINS_DEFAULT), 1);
+    }
+
+    /** Maximum number of simultaneously open (kept alive) HTTP connections to one host */
+    public static int getMaxConnectionsPerHost() {
+        return (int) Math.max(SharedPreferencesUtil.getLongStoredAsString(
+                KEY_MAX_CONNECTIONS_PER_HOST, MAX_CONNECTIONS_PER_HOST_DEFAULT), 1);
+    }
+
     /**
      * @return the number of seconds between two sync ("fetch"...) actions.
      */
@@ -268,6 +286,11 @@ public class MyPreferences {
                 * BYTES_IN_MB;
     }
 
+    /** @return maximum width and height of an uploaded image in pixels */
+    public static int getMaximumSizeOfUploadedImagePx() {
+        return (int) Math.max(SharedPreferencesUtil.getLong(KEY_MAXIMUM_SIZE_OF_UPLOADED_IMAGE_PX, 2048), 320);
+    }
+
     public static long getMaximumSizeOfCachedMediaBytes() {
         return Math.max(SharedPreferencesUtil.getLong(KEY_MAXIMUM_SIZE_OF_CACHED_MEDIA_MB, 1000), 1)
                 * BYTES_IN_MB;
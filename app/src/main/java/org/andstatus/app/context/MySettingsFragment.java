@@ -109,6 +109,8 @@ public class MySettingsFragment extends PreferenceFragment implements
         showFrequency();
         showDontSynchronizeOldNotes();
         showConnectionTimeout();
+        showMaxConcurrentOriginsToSync();
+        showMaxConnectionsPerHost();
         showHistorySize();
         showHistoryTime();
         showRingtone();
@@ -127,6 +129,7 @@ public class MySettingsFragment extends PreferenceFragment implements
         showManageTimelines();
         showMaxDistanceBetweenDuplicates();
         showMaximumSizeOfAttachment();
+        showMaximumSizeOfUploadedImage();
         showMaximumSizeOfCachedMedia();
     }
 
@@ -159,6 +162,20 @@ public class MySettingsFragment extends PreferenceFragment implements
         }
     }
 
+    private void showMaxConcurrentOriginsToSync() {
+        Preference preference = findPreference(MyPreferences.KEY_SYNC_MAX_CONCURRENT_ORIGINS);
+        if (preference != null) {
+            preference.setSummary(Integer.toString(MyPreferences.getMaxConcurrentOriginsToSync()));
+        }
+    }
+
+    private void showMaxConnectionsPerHost() {
+        Preference preference = findPreference(MyPreferences.KEY_MAX_CONNECTIONS_PER_HOST);
+        if (preference != null) {
+            preference.setSummary(Integer.toString(MyPreferences.getMaxConnectionsPerHost()));
+        }
+    }
+
     private void showDontSynchronizeOldNotes() {
         long hours = MyPreferences.getDontSynchronizeOldNotes();
         Preference preference = findPreference(MyPreferences.KEY_DONT_SYNCHRONIZE_OLD_NOTES);
@@ -323,6 +340,13 @@ public class MySettingsFragment extends PreferenceFragment implements
         }
     }
 
+    private void showMaximumSizeOfUploadedImage() {
+        Preference preference = findPreference(MyPreferences.KEY_MAXIMUM_SIZE_OF_UPLOADED_IMAGE_PX);
+        if (preference != null) {
+            preference.setSummary(Integer.toString(MyPreferences.getMaximumSizeOfUploadedImagePx()));
+        }
+    }
+
     private void showMaximumSizeOfCachedMedia() {
         Preference preference = findPreference(MyPreferences.KEY_MAXIMUM_SIZE_OF_CACHED_MEDIA_MB);
         if (preference != null) {
@@ -440,6 +464,12 @@ public class MySettingsFragment extends PreferenceFragment implements
                 case MyPreferences.KEY_CONNECTION_TIMEOUT_SECONDS:
                     showConnectionTimeout();
                     break;
+                case MyPreferences.KEY_SYNC_MAX_CONCURRENT_ORIGINS:
+                    showMaxConcurrentOriginsToSync();
+                    break;
+                case MyPreferences.KEY_MAX_CONNECTIONS_PER_HOST:
+                    showMaxConnectionsPerHost();
+                    break;
                 case MyPreferences.KEY_NOTIFICATION_METHOD_SOUND:
                     showRingtone();
                     break;
@@ -473,6 +503,9 @@ public class MySettingsFragment extends PreferenceFragment implements
                 case MyPreferences.KEY_MAXIMUM_SIZE_OF_ATTACHMENT_MB:
                     showMaximumSizeOfAttachment();
                     break;
+                case MyPreferences.KEY_MAXIMUM_SIZE_OF_UPLOADED_IMAGE_PX:
+                    showMaximumSizeOfUploadedImage();
+                    break;
                 case MyPreferences.KEY_MAXIMUM_SIZE_OF_CACHED_MEDIA_MB:
                     showMaximumSizeOfCachedMedia();
                     break;
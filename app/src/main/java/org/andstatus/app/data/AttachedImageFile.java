@@ -41,6 +41,11 @@ public class AttachedImageFile extends ImageFile {
         );
     }
 
+    public static AttachedImageFile fromDownloadData(DownloadData data) {
+        return new AttachedImageFile(data.getDownloadId(), data.getFilename(), data.mediaMetadata,
+                data.getStatus(), data.getDownloadedDate());
+    }
+
     public AttachedImageFile(long downloadId, String filename, MediaMetadata mediaMetadata,
                              DownloadStatus downloadStatus, long downloadedDate) {
         super(filename, mediaMetadata, downloadId, downloadStatus, downloadedDate);
@@ -59,6 +64,6 @@ public class AttachedImageFile extends ImageFile {
     protected void requestDownload() {
         if (downloadId == 0) return;
 
-        MyServiceManager.sendCommand(CommandData.newFetchAttachment(0, downloadId));
+        MyServiceManager.sendCommand(CommandData.newFetchAttachment(0, downloadId).setInForeground(true));
     }
 }
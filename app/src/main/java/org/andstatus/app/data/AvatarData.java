@@ -28,7 +28,11 @@ public class AvatarData extends DownloadData {
     }
 
     public static AvatarData getDisplayedForActor(Actor actor) {
-        return new AvatarData(actor.actorId, Uri.EMPTY);
+        return getDisplayedForActorId(actor.actorId);
+    }
+
+    public static AvatarData getDisplayedForActorId(long actorId) {
+        return new AvatarData(actorId, Uri.EMPTY);
     }
 
     private AvatarData(long actorIdIn, Uri avatarUriNew) {
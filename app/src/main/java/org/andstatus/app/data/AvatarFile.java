@@ -50,6 +50,14 @@ public class AvatarFile extends ImageFile {
                     DbUtils.getLong(cursor, DownloadTable.DOWNLOADED_DATE));
     }
 
+    @NonNull
+    public static AvatarFile fromDownloadData(Actor actor, DownloadData data) {
+        return actor.isEmpty()
+                ? AvatarFile.EMPTY
+                : new AvatarFile(actor, data.getFilename(), MediaMetadata.EMPTY, data.getStatus(),
+                    data.getDownloadedDate());
+    }
+
     public static AvatarFile fromActorOnly(Actor actor) {
         return actor.isEmpty()
                 ? AvatarFile.EMPTY
@@ -87,7 +95,8 @@ public class AvatarFile extends ImageFile {
         if (getActor().actorId == 0) return;
 
         MyServiceManager.sendCommand(
-                CommandData.newActorCommand(CommandEnum.GET_AVATAR, getActor().actorId, getActor().getUsername()));
+                CommandData.newActorCommand(CommandEnum.GET_AVATAR, getActor().actorId, getActor().getUsername())
+                        .setInForeground(true));
     }
 
     @Override
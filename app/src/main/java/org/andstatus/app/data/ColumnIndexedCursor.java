@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2018 yvolk (Yuri Volkov), http://yurivolkov.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.andstatus.app.data;
+
+import android.database.Cursor;
+import android.database.CursorWrapper;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Cursor, which keeps column indexes of each row reader, resolved once per cursor (and so per projection),
+ * so loops over many rows read fields by index instead of resolving their names for every field of every row.
+ * A reader defines a holder of indexes of the columns it reads, and gets it by {@link #columns(Cursor, Class, Function)}.
+ * Use it for loops over rows, see {@link #of(Cursor)}.
+ * Not thread safe, like cursors themselves.
+ * @author yvolk@yurivolkov.com
+ */
+public class ColumnIndexedCursor extends CursorWrapper {
+    private final Map<Class<?>, Object> columns = new HashMap<>();
+
+    private ColumnIndexedCursor(Cursor cursor) {
+        super(cursor);
+    }
+
+    public static Cursor of(Cursor cursor) {
+        return cursor == null || cursor instanceof ColumnIndexedCursor ? cursor : new ColumnIndexedCursor(cursor);
+    }
+
+    /**
+     * @param resolver creates a holder of indexes of columns (-1 for absent columns) of the cursor
+     * @return the holder, created once for the cursor, wrapped by {@link #of(Cursor)}, or a new one for other cursors
+     */
+    public static <T> T columns(Cursor cursor, Class<T> holderClass, Function<Cursor, T> resolver) {
+        if (!(cursor instanceof ColumnIndexedCursor)) return resolver.apply(cursor);
+
+        Map<Class<?>, Object> columns = ((ColumnIndexedCursor) cursor).columns;
+        Object holder = columns.get(holderClass);
+        if (holder == null) {
+            holder = resolver.apply(cursor);
+            columns.put(holderClass, holder);
+        }
+        return holderClass.cast(holder);
+    }
+}
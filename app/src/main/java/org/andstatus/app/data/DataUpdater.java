@@ -17,6 +17,8 @@
 package org.andstatus.app.data;
 
 import android.content.ContentValues;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
 import android.net.Uri;
 import android.support.annotation.NonNull;
 
@@ -42,8 +44,15 @@ import org.andstatus.app.util.StringUtils;
 import org.andstatus.app.util.TriState;
 import org.andstatus.app.util.UriUtils;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 
 import static org.andstatus.app.util.RelativeTime.SOME_TIME_AGO;
 import static org.andstatus.app.util.UriUtils.nonEmptyOid;
@@ -60,14 +69,14 @@ public class DataUpdater {
     static final String MSG_ASSERTION_KEY = "updateNote";
     private final CommandExecutionContext execContext;
     private LatestActorActivities lum = new LatestActorActivities();
-    private KeywordsFilter keywordsFilter = new KeywordsFilter(
-            SharedPreferencesUtil.getString(MyPreferences.KEY_FILTER_HIDE_NOTES_BASED_ON_KEYWORDS, ""));
+    private final KeywordsFilter keywordsFilter = KeywordsFilter.getHideNotesFilter();
+    /** Reused during a batch, see {@link #onActivities(List)} */
+    private SQLiteStatement conversationIdUpdate = null;
 
     public static void onActivities(CommandExecutionContext execContext, List<AActivity> activities) {
         DataUpdater dataUpdater = new DataUpdater(execContext);
-        for (AActivity mbActivity : activities) {
-            dataUpdater.onActivity(mbActivity);
-        }
+        dataUpdater.onActivities(activities);
+        dataUpdater.saveLum();
     }
 
     public DataUpdater(MyAccount ma) {
@@ -82,6 +91,132 @@ public class DataUpdater {
         return onActivity(mbActivity, true);
     }
 
+    /**
+     * Batch mode: stores the whole page of activities in one database transaction.
+     * Ids of already stored notes and activities are looked up in bulk before that.
+     * Latest actor activities are not saved, see {@link #saveLum()}
+     */
+    public void onActivities(List<AActivity> activities) {
+        final String method = "onActivities";
+        if (activities.isEmpty()) return;
+
+        SQLiteDatabase db = execContext.getMyContext().getDatabase();
+        if (db == null) {
+            MyLog.v(this, () -> method + "; Database is null");
+            return;
+        }
+        lookupIds(activities);
+        boolean successful = false;
+        db.beginTransaction();
+        OidToIdCache.Deferred cachedIds = execContext.getMyContext().oidToIdCache().defer();
+        try {
+            conversationIdUpdate = db.compileStatement("UPDATE " + NoteTable.TABLE_NAME
+                    + " SET " + NoteTable.CONVERSATION_ID + "=? WHERE " + NoteTable._ID + "=?");
+            for (AActivity activity : activities) {
+                onActivity(activity, false);
+            }
+            db.setTransactionSuccessful();
+            successful = true;
+        } finally {
+            DbUtils.closeSilently(conversationIdUpdate);
+            conversationIdUpdate = null;
+            boolean committed = false;
+            try {
+                db.endTransaction();
+                committed = successful && !db.inTransaction();
+            } finally {
+                cachedIds.end(committed);
+                if (!committed) {
+                    // Counts of notification events were changed on save of activities, which may be rolled back
+                    execContext.getMyContext().getNotifier().events.invalidate();
+                }
+            }
+        }
+        MyLog.v(this, () -> method + "; " + activities.size() + " activities stored");
+    }
+
+    private void lookupIds(List<AActivity> activities) {
+        Map<Long, List<Note>> notes = new HashMap<>();
+        Map<Long, List<AActivity>> activitiesToLookup = new HashMap<>();
+        Map<Long, List<Actor>> actors = new HashMap<>();
+        for (AActivity activity : activities) {
+            collectIdsToLookup(activity, notes, activitiesToLookup, actors, 0);
+        }
+        for (Map.Entry<Long, List<Note>> entry : notes.entrySet()) {
+            Map<String, Long> ids = MyQuery.oidsToIds(execContext.getMyContext(), OidEnum.NOTE_OID,
+                    entry.getKey(), oidsOf(entry.getValue(), note -> note.oid));
+            for (Note note : entry.getValue()) {
+                Long id = ids.get(note.oid);
+                if (id != null && note.noteId == 0) note.noteId = id;
+            }
+        }
+        for (Map.Entry<Long, List<AActivity>> entry : activitiesToLookup.entrySet()) {
+            Map<String, Long> ids = MyQuery.oidsToIds(execContext.getMyContext(), OidEnum.ACTIVITY_OID,
+                    entry.getKey(), oidsOf(entry.getValue(), activity -> activity.getTimelinePosition().getPosition()));
+            for (AActivity activity : entry.getValue()) {
+                Long id = ids.get(activity.getTimelinePosition().getPosition());
+                if (id != null && activity.getId() == 0) activity.setId(id);
+            }
+        }
+        // Actors' ids are looked up one by one later, so here we only warm up the cache
+        for (Map.Entry<Long, List<Actor>> entry : actors.entrySet()) {
+            MyQuery.oidsToIds(execContext.getMyContext(), OidEnum.ACTOR_OID,
+                    entry.getKey(), oidsOf(entry.getValue(), actor -> actor.oid));
+        }
+    }
+
+    private void collectIdsToLookup(AActivity activity, Map<Long, List<Note>> notes,
+                                    Map<Long, List<AActivity>> activities, Map<Long, List<Actor>> actors,
+                                    int recursing) {
+        if (activity == null || activity.isEmpty() || recursing > MAX_RECURSING) return;
+
+        if (activity.getId() == 0 && !activity.getTimelinePosition().isEmpty()) {
+            addToLookup(activities, activity.accountActor.origin.getId(), activity);
+        }
+        addActorToLookup(actors, activity.getActor());
+        switch (activity.getObjectType()) {
+            case ACTIVITY:
+                collectIdsToLookup(activity.getActivity(), notes, activities, actors, recursing + 1);
+                break;
+            case NOTE:
+                final Note note = activity.getNote();
+                if (note.noteId == 0 && nonEmptyOid(note.oid)) {
+                    addToLookup(notes, note.origin.getId(), note);
+                }
+                addActorToLookup(actors, activity.getAuthor());
+                collectIdsToLookup(note.getInReplyTo(), notes, activities, actors, recursing + 1);
+                break;
+            case ACTOR:
+                addActorToLookup(actors, activity.getObjActor());
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static void addActorToLookup(Map<Long, List<Actor>> actors, Actor actor) {
+        if (actor.actorId == 0 && actor.isOidReal()) {
+            addToLookup(actors, actor.origin.getId(), actor);
+        }
+    }
+
+    private static <T> void addToLookup(Map<Long, List<T>> map, long originId, T item) {
+        List<T> items = map.get(originId);
+        if (items == null) {
+            items = new ArrayList<>();
+            map.put(originId, items);
+        }
+        items.add(item);
+    }
+
+    private static <T> Collection<String> oidsOf(Collection<T> items, Function<T, String> oidOf) {
+        Set<String> oids = new HashSet<>();
+        for (T item : items) {
+            oids.add(oidOf.apply(item));
+        }
+        return oids;
+    }
+
     public AActivity onActivity(AActivity activity, boolean saveLum) {
         return onActivityInternal(activity, saveLum, 0);
     }
@@ -238,11 +373,18 @@ public class DataUpdater {
                 Uri msgUri = execContext.getContext().getContentResolver().insert(
                         MatchedUri.getMsgUri(me.getActorId(), 0), values);
                 note.noteId = ParsedUri.fromUri(msgUri).getNoteId();
+                execContext.myContext.oidToIdCache().put(OidEnum.NOTE_OID, note.origin.getId(), note.oid, note.noteId);
 
                 if (note.getConversationId() == 0) {
-                    ContentValues values2 = new ContentValues();
-                    values2.put(NoteTable.CONVERSATION_ID, note.setConversationIdFromMsgId());
-                    execContext.getContext().getContentResolver().update(msgUri, values2, null, null);
+                    if (conversationIdUpdate == null) {
+                        ContentValues values2 = new ContentValues();
+                        values2.put(NoteTable.CONVERSATION_ID, note.setConversationIdFromMsgId());
+                        execContext.getContext().getContentResolver().update(msgUri, values2, null, null);
+                    } else {
+                        conversationIdUpdate.bindLong(1, note.setConversationIdFromMsgId());
+                        conversationIdUpdate.bindLong(2, note.noteId);
+                        conversationIdUpdate.executeUpdateDelete();
+                    }
                 }
                 MyLog.v("Note", () -> "Added " + note);
             } else {
@@ -417,6 +559,13 @@ public class DataUpdater {
             } else if (values.size() > 0) {
                 execContext.getContext().getContentResolver().update(actorUri, values, null, null);
             }
+            if (values.containsKey(ActorTable.ACTOR_OID)) {
+                execContext.myContext.oidToIdCache().put(OidEnum.ACTOR_OID, objActor.origin.getId(), actorOid,
+                        objActor.actorId);
+            }
+            if (values.containsKey(ActorTable.WEBFINGER_ID)) {
+                execContext.myContext.users().onActorSaved(objActor);
+            }
 
             updateFriendship(activity, me);
 
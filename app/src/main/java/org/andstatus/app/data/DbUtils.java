@@ -207,37 +207,45 @@ public final class DbUtils {
         return TriState.fromId(getInt(cursor, columnName));
     }
 
+    public static TriState getTriState(Cursor cursor, int columnIndex) {
+        return TriState.fromId(getInt(cursor, columnIndex));
+    }
+
     public static boolean getBoolean(Cursor cursor, String columnName) {
         return getInt(cursor, columnName) == 1;
     }
 
+    public static boolean getBoolean(Cursor cursor, int columnIndex) {
+        return getInt(cursor, columnIndex) == 1;
+    }
+
     public static long getLong(Cursor cursor, String columnName) {
-        if (cursor == null) {
-            return 0;
-        }
+        return cursor == null ? 0 : getLong(cursor, cursor.getColumnIndex(columnName));
+    }
+
+    public static long getLong(Cursor cursor, int columnIndex) {
         long value = 0;
-        int columnIndex = cursor.getColumnIndex(columnName);
-        if (columnIndex >= 0) {
+        if (cursor != null && columnIndex >= 0) {
             try {
                 value = cursor.getLong(columnIndex);
             } catch (Exception e){
-                MyLog.d(TAG, "getLong column " + columnName, e);
+                MyLog.d(TAG, "getLong column " + cursor.getColumnName(columnIndex), e);
             }
         }
         return value;
     }
 
     public static int getInt(Cursor cursor, String columnName) {
-        if (cursor == null) {
-            return 0;
-        }
+        return cursor == null ? 0 : getInt(cursor, cursor.getColumnIndex(columnName));
+    }
+
+    public static int getInt(Cursor cursor, int columnIndex) {
         int value = 0;
-        int columnIndex = cursor.getColumnIndex(columnName);
-        if (columnIndex >= 0) {
+        if (cursor != null && columnIndex >= 0) {
             try {
                 value = cursor.getInt(columnIndex);
             } catch (Exception e){
-                MyLog.d(TAG, "getInt column " + columnName, e);
+                MyLog.d(TAG, "getInt column " + cursor.getColumnName(columnIndex), e);
             }
         }
         return value;
@@ -41,6 +41,7 @@ import org.andstatus.app.util.TriState;
 import org.andstatus.app.util.UrlUtils;
 
 import java.net.URL;
+import java.util.Collections;
 import java.util.List;
 
 import static org.andstatus.app.context.DemoData.demoData;
@@ -220,6 +221,9 @@ public class DemoNoteInserter {
                 List<Actor> rebloggers = MyQuery.getRebloggers(MyContextHolder.get().getDatabase(), accountActor.origin, note.noteId);
                 assertTrue("Reblogger is not found among rebloggers: " + activity
                         + "\nrebloggers: " + rebloggers, rebloggers.stream().anyMatch(a -> a.actorId == actor.actorId));
+                List<Actor> rebloggers2 = MyQuery.getRebloggers(MyContextHolder.get(),
+                        Collections.singleton(note.noteId)).get(note.noteId);
+                assertEquals("Rebloggers loaded for several notes: " + rebloggers2, rebloggers, rebloggers2);
                 break;
             case FOLLOW:
                 assertTrue("Friend not found: " + activity,
@@ -19,6 +19,7 @@ package org.andstatus.app.data;
 import android.content.ContentValues;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteDatabaseLockedException;
+import android.database.sqlite.SQLiteStatement;
 
 import org.andstatus.app.context.MyContext;
 import org.andstatus.app.database.table.FriendshipTable;
@@ -26,11 +27,20 @@ import org.andstatus.app.net.social.Actor;
 import org.andstatus.app.util.MyLog;
 import org.andstatus.app.util.TriState;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
 /**
  * Helper class to update the "Friendship" information (see {@link FriendshipTable})
  * @author yvolk@yurivolkov.com
  */
 public class Friendship {
+    private static final int IDS_PER_STATEMENT = 500;
+
     private long friendId;
     private TriState followedBy = TriState.UNKNOWN;
     private long actorId;
@@ -45,6 +55,94 @@ public class Friendship {
         fu.update(myContext.getDatabase());
     }
 
+    /**
+     * Makes the actor a follower of exactly the friends provided, writing only the difference
+     * from the friends, stored before, in one transaction
+     * @param friendIdsOld as in {@link MyQuery#getFriendsIds(long)}
+     */
+    public static void setFriends(MyContext myContext, Actor actor, Collection<Actor> friends, Set<Long> friendIdsOld) {
+        new Diff(actor, true, friends, friendIdsOld).update(myContext.getDatabase());
+    }
+
+    /**
+     * Makes exactly the followers provided follow the friend, writing only the difference
+     * from the followers, stored before, in one transaction
+     * @param followerIdsOld as in {@link MyQuery#getFollowersIds(long)}
+     */
+    public static void setFollowers(MyContext myContext, Actor friend, Collection<Actor> followers,
+                                    Set<Long> followerIdsOld) {
+        new Diff(friend, false, followers, followerIdsOld).update(myContext.getDatabase());
+    }
+
+    private static class Diff {
+        final Actor actor;
+        /** true if the actor is a follower of others, false if the actor is their friend */
+        final boolean actorFollows;
+        final Set<Long> toFollow = new HashSet<>();
+        final Set<Long> toUnfollow;
+
+        Diff(Actor actor, boolean actorFollows, Collection<Actor> others, Set<Long> idsOld) {
+            this.actor = actor;
+            this.actorFollows = actorFollows;
+            toUnfollow = new HashSet<>(idsOld);
+            for (Actor other : others) {
+                // The same user doesn't follow himself, see setFollowed
+                if (other.actorId == 0 || actor.isSameUser(other)) continue;
+
+                toUnfollow.remove(other.actorId);
+                if (!idsOld.contains(other.actorId)) toFollow.add(other.actorId);
+            }
+        }
+
+        void update(SQLiteDatabase db) {
+            if (actor.actorId == 0 || db == null || toFollow.isEmpty() && toUnfollow.isEmpty()) return;
+
+            for (int pass=0; pass<5; pass++) {
+                try {
+                    tryToUpdate(db);
+                    MyLog.v(this, () -> "Actor " + actor.actorId + (actorFollows ? " friends" : " followers")
+                            + " +" + toFollow.size() + " -" + toUnfollow.size());
+                    break;
+                } catch (SQLiteDatabaseLockedException e) {
+                    MyLog.i(this, "update, Database is locked, pass=" + pass, e);
+                    if (DbUtils.waitBetweenRetries("update")) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        private void tryToUpdate(SQLiteDatabase db) {
+            String actorColumn = actorFollows ? FriendshipTable.ACTOR_ID : FriendshipTable.FRIEND_ID;
+            String otherColumn = actorFollows ? FriendshipTable.FRIEND_ID : FriendshipTable.ACTOR_ID;
+            SQLiteStatement insert = null;
+            db.beginTransaction();
+            try {
+                List<Long> ids = new ArrayList<>(toUnfollow);
+                for (int from = 0; from < ids.size(); from += IDS_PER_STATEMENT) {
+                    db.execSQL("UPDATE " + FriendshipTable.TABLE_NAME
+                            + " SET " + FriendshipTable.FOLLOWED + "=0"
+                            + " WHERE " + actorColumn + "=" + actor.actorId
+                            + " AND " + otherColumn + " IN ("
+                            + ids.subList(from, Math.min(from + IDS_PER_STATEMENT, ids.size())).stream()
+                                .map(String::valueOf).collect(Collectors.joining(",")) + ")");
+                }
+                insert = db.compileStatement("INSERT OR REPLACE INTO " + FriendshipTable.TABLE_NAME
+                        + " (" + FriendshipTable.ACTOR_ID + ", " + FriendshipTable.FRIEND_ID
+                        + ", " + FriendshipTable.FOLLOWED + ") VALUES (?, ?, 1)");
+                for (long otherId : toFollow) {
+                    insert.bindLong(1, actorFollows ? actor.actorId : otherId);
+                    insert.bindLong(2, actorFollows ? otherId : actor.actorId);
+                    insert.executeInsert();
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                DbUtils.closeSilently(insert);
+                db.endTransaction();
+            }
+        }
+    }
+
     private Friendship(long actorId, long friendId) {
         this.actorId = actorId;
         this.friendId = friendId;
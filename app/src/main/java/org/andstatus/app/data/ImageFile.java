@@ -270,6 +270,7 @@ public abstract class ImageFile implements IsEmpty {
 
     protected abstract CachedImage getDefaultImage();
 
+    /** Requested for an image to be shown, so the download is "in foreground" */
     protected abstract void requestDownload();
 
     protected boolean isDefaultImageRequired() {
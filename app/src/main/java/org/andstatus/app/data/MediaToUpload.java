@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2018 yvolk (Yuri Volkov), http://yurivolkov.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.andstatus.app.data;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Matrix;
+import android.media.ExifInterface;
+import android.net.Uri;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import org.andstatus.app.context.MyPreferences;
+import org.andstatus.app.origin.Origin;
+import org.andstatus.app.util.MyLog;
+import org.andstatus.app.util.UriUtils;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Media file of a note, prepared to be uploaded: an image, larger than
+ * {@link MyPreferences#getMaximumSizeOfUploadedImagePx()} or than the {@link Origin#getUploadLimit()},
+ * is scaled down and recompressed (without metadata) to a separate file in the downloads folder.
+ * The prepared file is reused on retries and is deleted after a successful upload.
+ * @author yvolk@yurivolkov.com
+ */
+public class MediaToUpload {
+    public static final MediaToUpload EMPTY = new MediaToUpload(Uri.EMPTY, 0, DownloadFile.EMPTY);
+    static final String PREPARED_FILE_PREFIX = "upload_";
+    private static final int QUALITY_MAX = 90;
+    private static final int QUALITY_MIN = 50;
+    private static final int QUALITY_STEP = 10;
+    private static final float SCALE_STEP = 0.75f;
+    private static final int MAX_ATTEMPTS = 8;
+
+    public final Uri uri;
+    public final long size;
+    private final DownloadFile prepared;
+
+    private MediaToUpload(Uri uri, long size, DownloadFile prepared) {
+        this.uri = uri;
+        this.size = size;
+        this.prepared = prepared;
+    }
+
+    @NonNull
+    public static MediaToUpload of(@NonNull DownloadData attachment, @NonNull Origin origin) {
+        Uri originalUri = attachment.mediaUriToBePosted();
+        if (UriUtils.isEmpty(originalUri)) return EMPTY;
+
+        DownloadFile original = attachment.getFile();
+        MediaToUpload prepared = prepareImage(original, origin.getUploadLimit(),
+                MyPreferences.getMaximumSizeOfUploadedImagePx());
+        return prepared == null ? new MediaToUpload(originalUri, original.getSize(), DownloadFile.EMPTY) : prepared;
+    }
+
+    /** @return null if the original file should be uploaded */
+    @Nullable
+    static MediaToUpload prepareImage(DownloadFile original, long uploadLimit, int maxSizePx) {
+        Bitmap.CompressFormat format = compressFormatOf(original);
+        if (format == null || !original.existsNow()) return null;
+
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(original.getFilePath(), bounds);
+        int maxSideOriginal = Math.max(bounds.outWidth, bounds.outHeight);
+        if (maxSideOriginal <= 0) return null;
+        if (maxSideOriginal <= maxSizePx && (uploadLimit <= 0 || original.getSize() <= uploadLimit)) return null;
+
+        DownloadFile prepared = new DownloadFile(preparedFilename(original.getFilename(), format, uploadLimit,
+                maxSizePx));
+        if (prepared.existed && prepared.getFile().lastModified() >= original.getFile().lastModified()) {
+            return new MediaToUpload(FileProvider.downloadFilenameToUri(prepared.getFilename()), prepared.getSize(),
+                    prepared);
+        }
+        try {
+            if (!writePrepared(original, bounds, format, uploadLimit, maxSizePx, prepared.getFile())) return null;
+        } catch (IOException | OutOfMemoryError e) {
+            MyLog.w(MediaToUpload.class, "Failed to prepare " + original.getFilename() + " for upload", e);
+            prepared.delete();
+            return null;
+        }
+        MyLog.v(MediaToUpload.class, () -> "Prepared " + original.getFilename() + " for upload: "
+                + bounds.outWidth + "x" + bounds.outHeight + ", " + original.getSize() + " bytes -> "
+                + prepared.getFile().length() + " bytes");
+        return new MediaToUpload(FileProvider.downloadFilenameToUri(prepared.getFilename()),
+                prepared.getFile().length(), prepared);
+    }
+
+    /** Animated and unknown images are uploaded as is */
+    @Nullable
+    private static Bitmap.CompressFormat compressFormatOf(DownloadFile original) {
+        switch (MyContentType.uri2MimeType(null, Uri.parse(original.getFilename()))) {
+            case "image/jpeg":
+            case "image/webp":
+                return Bitmap.CompressFormat.JPEG;
+            case "image/png":
+                return Bitmap.CompressFormat.PNG;
+            default:
+                return null;
+        }
+    }
+
+    static String preparedFilename(String originalFilename, Bitmap.CompressFormat format, long uploadLimit,
+                                   int maxSizePx) {
+        int indDot = originalFilename.lastIndexOf('.');
+        return PREPARED_FILE_PREFIX + maxSizePx + "_" + uploadLimit + "_"
+                + (indDot > 0 ? originalFilename.substring(0, indDot) : originalFilename)
+                + (format == Bitmap.CompressFormat.PNG ? ".png" : ".jpg");
+    }
+
+    private static boolean writePrepared(DownloadFile original, BitmapFactory.Options bounds,
+                                         Bitmap.CompressFormat format, long uploadLimit, int maxSizePx,
+                                         File file) throws IOException {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = 1;
+        while (Math.max(bounds.outWidth, bounds.outHeight) / (options.inSampleSize * 2) >= maxSizePx) {
+            options.inSampleSize *= 2;
+        }
+        Bitmap bitmap = BitmapFactory.decodeFile(original.getFilePath(), options);
+        if (bitmap == null) return false;
+
+        float scale = Math.min(1f, (float) maxSizePx / Math.max(bitmap.getWidth(), bitmap.getHeight()));
+        bitmap = transform(bitmap, scale, rotationOf(original));
+        File tmpFile = new File(file.getPath() + ".tmp");
+        try {
+            int quality = QUALITY_MAX;
+            for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+                try (OutputStream out = new FileOutputStream(tmpFile)) {
+                    bitmap.compress(format, quality, out);
+                }
+                if (uploadLimit <= 0 || tmpFile.length() <= uploadLimit) {
+                    return tmpFile.renameTo(file);
+                }
+                if (format == Bitmap.CompressFormat.JPEG && quality > QUALITY_MIN) {
+                    quality -= QUALITY_STEP;
+                } else {
+                    bitmap = transform(bitmap, SCALE_STEP, 0);
+                }
+            }
+            MyLog.i(MediaToUpload.class, "Couldn't fit " + original.getFilename() + " into " + uploadLimit + " bytes");
+            return false;
+        } finally {
+            bitmap.recycle();
+            if (tmpFile.exists() && !tmpFile.delete()) {
+                MyLog.i(MediaToUpload.class, "Couldn't delete " + tmpFile);
+            }
+        }
+    }
+
+    /** Orientation is stored in metadata, which is not written to the prepared file, so we apply it to pixels */
+    private static int rotationOf(DownloadFile original) {
+        try {
+            switch (new ExifInterface(original.getFilePath()).getAttributeInt(ExifInterface.TAG_ORIENTATION,
+                    ExifInterface.ORIENTATION_NORMAL)) {
+                case ExifInterface.ORIENTATION_ROTATE_90:
+                    return 90;
+                case ExifInterface.ORIENTATION_ROTATE_180:
+                    return 180;
+                case ExifInterface.ORIENTATION_ROTATE_270:
+                    return 270;
+                default:
+                    return 0;
+            }
+        } catch (IOException e) {
+            MyLog.v(MediaToUpload.class, () -> "No metadata in " + original.getFilename() + ", " + e.getMessage());
+            return 0;
+        }
+    }
+
+    private static Bitmap transform(Bitmap source, float scale, int rotation) {
+        if (scale >= 1f && rotation == 0) return source;
+
+        Matrix matrix = new Matrix();
+        if (scale < 1f) matrix.postScale(scale, scale);
+        if (rotation != 0) matrix.postRotate(rotation);
+        Bitmap bitmap = Bitmap.createBitmap(source, 0, 0, source.getWidth(), source.getHeight(), matrix, true);
+        if (bitmap != source) source.recycle();
+        return bitmap;
+    }
+
+    public boolean isEmpty() {
+        return UriUtils.isEmpty(uri);
+    }
+
+    public boolean isTooLargeFor(@NonNull Origin origin) {
+        return origin.getUploadLimit() > 0 && size > origin.getUploadLimit();
+    }
+
+    /** The prepared file is not needed anymore */
+    public void onUploaded() {
+        prepared.delete();
+    }
+
+    @Override
+    public String toString() {
+        return "MediaToUpload{" + uri + ", " + size + " bytes" + (prepared.isEmpty() ? "" : ", prepared") + '}';
+    }
+}
@@ -105,6 +105,7 @@ public class MyProvider extends ContentProvider {
             default:
                 throw new IllegalArgumentException(uriParser.toString());
         }
+        MyContextHolder.get().oidToIdCache().clear();
         return count;
     }
 
@@ -134,6 +135,9 @@ public class MyProvider extends ContentProvider {
             // Start from deletion of activities
             sqlDesc = selection + descSuffix;
             count += db.delete(ActivityTable.TABLE_NAME, selection, selectionArgs);
+            if (count > 0) {
+                MyContextHolder.get().getNotifier().events.invalidate();
+            }
 
             // Notes, which don't have any activities
             String sqlNoteIds = "SELECT msgA." + NoteTable._ID +
@@ -195,6 +199,9 @@ public class MyProvider extends ContentProvider {
         }
         try {
             db.delete(tableName, where, null);
+            if (isOidToIdTable(tableName)) {
+                myContext.oidToIdCache().clear();
+            }
         } catch (Exception e) {
             MyLog.w(TAG, method + "; table:'" + tableName + "', where:'" + where + "'", e);
         }
@@ -224,9 +231,15 @@ public class MyProvider extends ContentProvider {
             updateNoteFavorited(myContext, origin, noteId);
             updateNoteReblogged(myContext, origin, noteId);
         }
+        myContext.oidToIdCache().clear();
         return count;
     }
 
+    private static boolean isOidToIdTable(String tableName) {
+        return ActivityTable.TABLE_NAME.equals(tableName) || NoteTable.TABLE_NAME.equals(tableName)
+                || ActorTable.TABLE_NAME.equals(tableName);
+    }
+
     public static void updateNoteReblogged(MyContext myContext, Origin origin, long noteId) {
         TriState reblogged = TriState.fromBoolean(
                 myContext.users().containsMe(MyQuery.getRebloggers(myContext.getDatabase(), origin, noteId))
@@ -43,13 +43,18 @@ import org.andstatus.app.util.StringUtils;
 import org.andstatus.app.util.TriState;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 public class MyQuery {
     private static final String TAG = MyQuery.class.getSimpleName();
+    private static final int MAX_OIDS_IN_QUERY = 500;
 
     private MyQuery() {
         // Empty
@@ -88,6 +93,10 @@ public class MyQuery {
         if (StringUtils.isEmpty(oid)) {
             return 0;
         }
+        long cachedId = myContext.oidToIdCache().get(oidEnum, originId, oid);
+        if (cachedId != 0) {
+            return cachedId;
+        }
         String msgLog = "oidToId; " + oidEnum + ", origin=" + originId + ", oid=" + oid;
         String sql;
         switch (oidEnum) {
@@ -109,7 +118,74 @@ public class MyQuery {
             default:
                 throw new IllegalArgumentException(msgLog + "; Unknown oidEnum");
         }
-        return sqlToLong(myContext.getDatabase(), msgLog, sql);
+        long id = sqlToLong(myContext.getDatabase(), msgLog, sql);
+        myContext.oidToIdCache().put(oidEnum, originId, oid, id);
+        return id;
+    }
+
+    /**
+     * Bulk variant of {@link #oidToId(MyContext, OidEnum, long, String)}: one query for all oids,
+     * which are not in the {@link OidToIdCache} yet. Found ids are put to the cache.
+     * @return ids of found oids only
+     */
+    @NonNull
+    public static Map<String, Long> oidsToIds(@NonNull MyContext myContext, OidEnum oidEnum, long originId,
+                                              @NonNull Collection<String> oids) {
+        final String tableName;
+        final String originIdColumnName;
+        final String oidColumnName;
+        switch (oidEnum) {
+            case NOTE_OID:
+                tableName = NoteTable.TABLE_NAME;
+                originIdColumnName = NoteTable.ORIGIN_ID;
+                oidColumnName = NoteTable.NOTE_OID;
+                break;
+            case ACTOR_OID:
+                tableName = ActorTable.TABLE_NAME;
+                originIdColumnName = ActorTable.ORIGIN_ID;
+                oidColumnName = ActorTable.ACTOR_OID;
+                break;
+            case ACTIVITY_OID:
+                tableName = ActivityTable.TABLE_NAME;
+                originIdColumnName = ActivityTable.ORIGIN_ID;
+                oidColumnName = ActivityTable.ACTIVITY_OID;
+                break;
+            default:
+                throw new IllegalArgumentException("oidsToIds; Unknown oidEnum " + oidEnum);
+        }
+        final String sqlPrefix = "SELECT " + BaseColumns._ID + ", " + oidColumnName + " FROM " + tableName
+                + " WHERE " + originIdColumnName + "=" + originId + " AND " + oidColumnName + " IN (";
+        Map<String, Long> ids = new HashMap<>();
+        StringBuilder inList = new StringBuilder();
+        int count = 0;
+        for (String oid : oids) {
+            if (StringUtils.isEmpty(oid)) continue;
+            long cachedId = myContext.oidToIdCache().get(oidEnum, originId, oid);
+            if (cachedId != 0) {
+                ids.put(oid, cachedId);
+                continue;
+            }
+            if (inList.length() > 0) inList.append(",");
+            inList.append(quoteIfNotQuoted(oid));
+            if (++count >= MAX_OIDS_IN_QUERY) {
+                oidsToIds(myContext, oidEnum, originId, sqlPrefix + inList + ")", ids);
+                inList.setLength(0);
+                count = 0;
+            }
+        }
+        if (count > 0) {
+            oidsToIds(myContext, oidEnum, originId, sqlPrefix + inList + ")", ids);
+        }
+        return ids;
+    }
+
+    private static void oidsToIds(@NonNull MyContext myContext, OidEnum oidEnum, long originId, String sql,
+                                  Map<String, Long> ids) {
+        foldLeft(myContext, sql, ids, map -> cursor -> {
+            map.put(cursor.getString(1), cursor.getLong(0));
+            myContext.oidToIdCache().put(oidEnum, originId, cursor.getString(1), cursor.getLong(0));
+            return map;
+        });
     }
 
     public static long sqlToLong(SQLiteDatabase databaseIn, String msgLogIn, String sql) {
@@ -298,6 +374,13 @@ public class MyQuery {
         return noteIdToActors(db, origin, noteId, ActivityType.ANNOUNCE, ActivityType.UNDO_ANNOUNCE);
     }
 
+    /** Rebloggers of several notes, loaded in one query
+     * @return rebloggers by note ids. Notes without rebloggers are absent */
+    @NonNull
+    public static Map<Long, List<Actor>> getRebloggers(@NonNull MyContext myContext, @NonNull Collection<Long> noteIds) {
+        return noteIdsToActors(myContext, noteIds, ActivityType.ANNOUNCE, ActivityType.UNDO_ANNOUNCE);
+    }
+
     /** @return for each actor (actorId is a key): ID of the last type1 or type2 activity
      *  and the type of the activity */
     @NonNull
@@ -336,6 +419,49 @@ public class MyQuery {
         return actors;
     }
 
+    /** The same as {@link #noteIdToActors(SQLiteDatabase, Origin, long, ActivityType, ActivityType)},
+     * but for several notes at once
+     * @return actors by note ids */
+    @NonNull
+    public static Map<Long, List<Actor>> noteIdsToActors(@NonNull MyContext myContext, @NonNull Collection<Long> noteIds,
+                                                         ActivityType typeToReturn, ActivityType undoType) {
+        String method = "noteIdsToActors";
+        final Map<Long, Set<Long>> foundActors = new HashMap<>();
+        final Map<Long, List<Actor>> actors = new HashMap<>();
+        SQLiteDatabase db = myContext.getDatabase();
+        if (db == null || noteIds.isEmpty()) {
+            return actors;
+        }
+        String sql = "SELECT " + ActivityTable.NOTE_ID + ", " + ActivityTable.ACTIVITY_TYPE + ", "
+                + ActivityTable.ACTOR_ID + ", " + ActorTable.TABLE_NAME + "." + ActorTable.ORIGIN_ID + ", "
+                + ActorTable.WEBFINGER_ID + ", " + TimelineSql.usernameField() + " AS " + ActorTable.ACTIVITY_ACTOR_NAME
+                + " FROM " + ActivityTable.TABLE_NAME + " INNER JOIN " + ActorTable.TABLE_NAME
+                + " ON " + ActivityTable.ACTOR_ID + "=" + ActorTable.TABLE_NAME + "." + ActorTable._ID
+                + " WHERE " + ActivityTable.NOTE_ID + " IN ("
+                + noteIds.stream().map(Object::toString).collect(Collectors.joining(",")) + ") AND "
+                + ActivityTable.ACTIVITY_TYPE + " IN(" + typeToReturn.id + "," + undoType.id + ")"
+                + " ORDER BY " + ActivityTable.UPDATED_DATE + " DESC";
+        try (Cursor cursor = db.rawQuery(sql, null)) {
+            while(cursor.moveToNext()) {
+                long noteId = DbUtils.getLong(cursor, ActivityTable.NOTE_ID);
+                long actorId = DbUtils.getLong(cursor, ActivityTable.ACTOR_ID);
+                if (foundActors.computeIfAbsent(noteId, id -> new HashSet<>()).add(actorId)) {
+                    ActivityType activityType = ActivityType.fromId(DbUtils.getLong(cursor, ActivityTable.ACTIVITY_TYPE));
+                    if (activityType.equals(typeToReturn)) {
+                        Actor actor = Actor.fromOriginAndActorId(
+                                myContext.origins().fromId(DbUtils.getLong(cursor, ActorTable.ORIGIN_ID)), actorId);
+                        actor.setRealName(DbUtils.getString(cursor, ActorTable.ACTIVITY_ACTOR_NAME));
+                        actor.setWebFingerId(DbUtils.getString(cursor, ActorTable.WEBFINGER_ID));
+                        actors.computeIfAbsent(noteId, id -> new ArrayList<>()).add(actor);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            MyLog.w(TAG, method + "; SQL:'" + sql + "'", e);
+        }
+        return actors;
+    }
+
     @NonNull
     public static ActorToNote favoritedAndReblogged(@NonNull MyContext myContext, long noteId, long actorId) {
         String method = "favoritedAndReblogged";
@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2018 yvolk (Yuri Volkov), http://yurivolkov.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.andstatus.app.data;
+
+import android.support.annotation.NonNull;
+import android.util.LruCache;
+
+import org.andstatus.app.util.StringUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of ids of notes, actors and activities by their oids, see {@link MyQuery#oidToId(org.andstatus.app.context.MyContext, OidEnum, long, String)}.
+ * Only found (existing) ids are cached. The cache of each origin is size-bounded, least recently used entries
+ * are evicted first.
+ * Ids, found or stored inside a database transaction, are cached after the transaction is committed,
+ * see {@link #defer()}
+ * @author yvolk@yurivolkov.com
+ */
+public class OidToIdCache {
+    static final int MAX_SIZE_PER_ORIGIN = 5000;
+
+    private final ConcurrentHashMap<Long, LruCache<String, Long>> origins = new ConcurrentHashMap<>();
+    final AtomicLong hits = new AtomicLong();
+    final AtomicLong misses = new AtomicLong();
+    /** Ids, put in this thread after {@link #defer()}, by origin ids and keys */
+    private final ThreadLocal<Deferred> deferred = new ThreadLocal<>();
+
+    /** @return 0 if not cached */
+    public long get(OidEnum oidEnum, long originId, String oid) {
+        if (!isCacheable(oidEnum, oid)) return 0;
+
+        String key = toKey(oidEnum, oid);
+        Long id = null;
+        for (Deferred d = deferred.get(); d != null && id == null; d = d.outer) {
+            id = d.get(originId, key);
+        }
+        if (id == null) {
+            id = forOrigin(originId).get(key);
+        }
+        if (id == null) {
+            misses.incrementAndGet();
+            return 0;
+        }
+        hits.incrementAndGet();
+        return id;
+    }
+
+    public void put(OidEnum oidEnum, long originId, String oid, long id) {
+        if (id <= 0 || !isCacheable(oidEnum, oid)) return;
+
+        Deferred d = deferred.get();
+        if (d == null) {
+            forOrigin(originId).put(toKey(oidEnum, oid), id);
+        } else {
+            d.put(originId, toKey(oidEnum, oid), id);
+        }
+    }
+
+    public void remove(OidEnum oidEnum, long originId, String oid) {
+        if (!isCacheable(oidEnum, oid)) return;
+
+        String key = toKey(oidEnum, oid);
+        for (Deferred d = deferred.get(); d != null; d = d.outer) {
+            d.remove(originId, key);
+        }
+        forOrigin(originId).remove(key);
+    }
+
+    /** E.g. when some entries were deleted from the database or merged */
+    public void clear() {
+        for (Deferred d = deferred.get(); d != null; d = d.outer) {
+            d.entries.clear();
+        }
+        origins.clear();
+    }
+
+    /**
+     * Defers caching of ids, put in the current thread, until {@link Deferred#end(boolean)},
+     * so ids of rows, which were inserted in a rolled back transaction, don't get to the cache
+     */
+    @NonNull
+    public Deferred defer() {
+        Deferred d = new Deferred(deferred.get());
+        deferred.set(d);
+        return d;
+    }
+
+    public class Deferred {
+        private final Deferred outer;
+        private final Map<Long, Map<String, Long>> entries = new HashMap<>();
+
+        private Deferred(Deferred outer) {
+            this.outer = outer;
+        }
+
+        private Long get(long originId, String key) {
+            Map<String, Long> ids = entries.get(originId);
+            return ids == null ? null : ids.get(key);
+        }
+
+        private void put(long originId, String key, long id) {
+            Map<String, Long> ids = entries.get(originId);
+            if (ids == null) {
+                ids = new HashMap<>();
+                entries.put(originId, ids);
+            }
+            ids.put(key, id);
+        }
+
+        private void remove(long originId, String key) {
+            Map<String, Long> ids = entries.get(originId);
+            if (ids != null) ids.remove(key);
+        }
+
+        /** Caches the ids, if the transaction was committed, or drops them.
+         * Ids of a nested transaction are passed to the outer one, which may still be rolled back */
+        public void end(boolean committed) {
+            if (outer == null) {
+                deferred.remove();
+            } else {
+                deferred.set(outer);
+            }
+            if (committed) {
+                for (Map.Entry<Long, Map<String, Long>> entry : entries.entrySet()) {
+                    for (Map.Entry<String, Long> idEntry : entry.getValue().entrySet()) {
+                        if (outer == null) {
+                            forOrigin(entry.getKey()).put(idEntry.getKey(), idEntry.getValue());
+                        } else {
+                            outer.put(entry.getKey(), idEntry.getKey(), idEntry.getValue());
+                        }
+                    }
+                }
+            }
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (LruCache<String, Long> cache : origins.values()) {
+            size += cache.size();
+        }
+        return size;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public String getInfo() {
+        long accesses = hits.get() + misses.get();
+        return "Ids by oids: " + size() + " in " + origins.size() + " origins"
+                + ", hits:" + hits.get() + ", misses:" + misses.get()
+                + (accesses == 0 ? "" : ", hitRate:" + hits.get() * 100 / accesses + "%");
+    }
+
+    private static boolean isCacheable(OidEnum oidEnum, String oid) {
+        return oidEnum != OidEnum.REBLOG_OID && StringUtils.nonEmpty(oid);
+    }
+
+    @NonNull
+    private LruCache<String, Long> forOrigin(long originId) {
+        return origins.computeIfAbsent(originId, id -> new LruCache<>(MAX_SIZE_PER_ORIGIN));
+    }
+
+    private static String toKey(OidEnum oidEnum, String oid) {
+        return oidEnum.ordinal() + ":" + oid;
+    }
+}
@@ -27,10 +27,13 @@ import org.andstatus.app.database.table.ActivityTable;
 import org.andstatus.app.database.table.ActorTable;
 import org.andstatus.app.database.table.DownloadTable;
 import org.andstatus.app.database.table.FriendshipTable;
+import org.andstatus.app.database.table.NoteFtsTable;
 import org.andstatus.app.database.table.NoteTable;
+import org.andstatus.app.note.KeywordsFilter;
 import org.andstatus.app.timeline.meta.Timeline;
 import org.andstatus.app.timeline.meta.TimelineType;
 import org.andstatus.app.util.SharedPreferencesUtil;
+import org.andstatus.app.util.StringUtils;
 import org.andstatus.app.util.TriState;
 
 import java.util.Arrays;
@@ -117,6 +120,13 @@ public class TimelineSql {
                 break;
         }
 
+        if (timeline.hasSearchQuery()) {
+            String matchQuery = new KeywordsFilter(timeline.getSearchQuery()).getFtsMatchQuery();
+            if (StringUtils.nonEmpty(matchQuery)) {
+                // The index preselects notes, exact search query is applied in MyProvider
+                actWhere.append(ActivityTable.NOTE_ID + " IN (" + NoteFtsTable.noteIdsSql(matchQuery) + ")");
+            }
+        }
         if (timeline.getTimelineType().isAtOrigin() && !timeline.isCombined()) {
             actWhere.append(ActivityTable.ORIGIN_ID, "=" + timeline.getOrigin().getId());
         }
@@ -19,6 +19,7 @@ package org.andstatus.app.data.checker;
 import android.database.Cursor;
 
 import org.andstatus.app.data.DbUtils;
+import org.andstatus.app.database.table.NoteFtsTable;
 import org.andstatus.app.database.table.NoteTable;
 import org.andstatus.app.net.social.Note;
 import org.andstatus.app.service.MyServiceManager;
@@ -66,7 +67,10 @@ class SearchIndexUpdate extends DataChecker {
             MyLog.e(this, logMsg, e);
         }
 
-        if (!countOnly) notesToFix.forEach(this::fixOneNote);
+        if (!countOnly) {
+            notesToFix.forEach(this::fixOneNote);
+            rebuildFullTextSearchIndex();
+        }
 
         logger.logProgress(notesToFix.isEmpty()
                 ? "No changes to search index were needed. " + rowsCount + " notes"
@@ -74,6 +78,18 @@ class SearchIndexUpdate extends DataChecker {
         return notesToFix.size();
     }
 
+    private void rebuildFullTextSearchIndex() {
+        try {
+            logger.logProgress("Rebuilding full text search index");
+            MyServiceManager.setServiceUnavailable();
+            NoteFtsTable.rebuild(myContext.getDatabase());
+        } catch (Exception e) {
+            String logMsg = "Error rebuilding full text search index: " + e.getMessage();
+            logger.logProgress(logMsg);
+            MyLog.e(this, logMsg, e);
+        }
+    }
+
     private void fixOneNote(Note note) {
         String sql = "";
         try {
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2018 yvolk (Yuri Volkov), http://yurivolkov.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.andstatus.app.data.converter;
+
+import org.andstatus.app.data.DbUtils;
+
+class Convert40 extends ConvertOneStep {
+    Convert40() {
+        versionTo = 41;
+    }
+
+    @Override
+    protected void execute2() {
+        progressLogger.logProgress(stepTitle + ": Creating full text search index of notes");
+
+        sql = "CREATE VIRTUAL TABLE note_fts USING fts4(content=\"note\", content_to_search)";
+        DbUtils.execSQL(db, sql);
+
+        sql = "CREATE TRIGGER note_fts_before_update BEFORE UPDATE OF content_to_search ON note" +
+                " BEGIN DELETE FROM note_fts WHERE docid=old._id; END";
+        DbUtils.execSQL(db, sql);
+
+        sql = "CREATE TRIGGER note_fts_before_delete BEFORE DELETE ON note" +
+                " BEGIN DELETE FROM note_fts WHERE docid=old._id; END";
+        DbUtils.execSQL(db, sql);
+
+        sql = "CREATE TRIGGER note_fts_after_update AFTER UPDATE OF content_to_search ON note" +
+                " BEGIN INSERT INTO note_fts(docid, content_to_search) VALUES(new._id, new.content_to_search); END";
+        DbUtils.execSQL(db, sql);
+
+        sql = "CREATE TRIGGER note_fts_after_insert AFTER INSERT ON note" +
+                " BEGIN INSERT INTO note_fts(docid, content_to_search) VALUES(new._id, new.content_to_search); END";
+        DbUtils.execSQL(db, sql);
+
+        progressLogger.logProgress(stepTitle + ": Indexing notes");
+        sql = "INSERT INTO note_fts(note_fts) VALUES('rebuild')";
+        DbUtils.execSQL(db, sql);
+    }
+}
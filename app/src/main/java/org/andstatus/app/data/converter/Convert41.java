@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2018 yvolk (Yuri Volkov), http://yurivolkov.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.andstatus.app.data.converter;
+
+import org.andstatus.app.data.DbUtils;
+
+class Convert41 extends ConvertOneStep {
+    Convert41() {
+        versionTo = 42;
+    }
+
+    @Override
+    protected void execute2() {
+        progressLogger.logProgress(stepTitle + ": Adding upload limit to origins");
+
+        sql = "ALTER TABLE origin ADD COLUMN upload_limit INTEGER NOT NULL DEFAULT 0";
+        DbUtils.execSQL(db, sql);
+    }
+}
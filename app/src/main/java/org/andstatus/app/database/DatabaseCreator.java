@@ -26,6 +26,7 @@ import org.andstatus.app.database.table.AudienceTable;
 import org.andstatus.app.database.table.CommandTable;
 import org.andstatus.app.database.table.DownloadTable;
 import org.andstatus.app.database.table.FriendshipTable;
+import org.andstatus.app.database.table.NoteFtsTable;
 import org.andstatus.app.database.table.NoteTable;
 import org.andstatus.app.database.table.OriginTable;
 import org.andstatus.app.database.table.TimelineTable;
@@ -40,6 +41,8 @@ public class DatabaseCreator {
      * Current database scheme version, defined by AndStatus developers.
      * This is used to check (and upgrade if necessary) existing database after application update.
      *
+     * v.42 2018-07-15 OriginTable added "upload_limit" to prepare media for upload
+     * v.41 2018-07-01 NoteFtsTable added: full text search index of the note content
      * v.40 2018-06-05 DownloadTable added "downloaded_date" to decide, when to prune the download
      * v.38 2018-04-01 app.v.38 DownloadTable update to support Video. NoteTable - added Note's Name
      * v.37 2018-02-19 app.v.37 UserTable added, one-to-many linked to ActorTable. Renaming fields.
@@ -68,7 +71,7 @@ public class DatabaseCreator {
      *      All messages are in the same table.
      *      Allows to have multiple User Accounts in different Originating systems (twitter.com etc. )
      */
-    public static final int DATABASE_VERSION = 40;
+    public static final int DATABASE_VERSION = 42;
     public static final long ORIGIN_ID_TWITTER =  1L;
 
     private final SQLiteDatabase db;
@@ -85,6 +88,7 @@ public class DatabaseCreator {
         MyLog.i(this, "Creating tables");
         OriginTable.create(db);
         NoteTable.create(db);
+        NoteFtsTable.create(db);
         UserTable.create(db);
         ActorTable.create(db);
         AudienceTable.create(db);
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2018 yvolk (Yuri Volkov), http://yurivolkov.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.andstatus.app.database.table;
+
+import android.database.sqlite.SQLiteDatabase;
+import android.provider.BaseColumns;
+
+import org.andstatus.app.data.DbUtils;
+import org.andstatus.app.data.MyQuery;
+
+/**
+ * Full text search index of {@link NoteTable#CONTENT_TO_SEARCH}.
+ * This is an "external content" FTS4 table, see <a href="https://www.sqlite.org/fts3.html#_external_content_fts4_tables_">
+ * External Content FTS4 Tables</a>: its "docid" is {@link NoteTable#_ID}, and the index is kept in sync
+ * with the note table by triggers
+ * @author yvolk@yurivolkov.com
+ */
+public final class NoteFtsTable {
+    public static final String TABLE_NAME = "note_fts";
+    public static final String DOC_ID = "docid";
+
+    private NoteFtsTable() {
+    }
+
+    public static void create(SQLiteDatabase db) {
+        DbUtils.execSQL(db, "CREATE VIRTUAL TABLE " + TABLE_NAME + " USING fts4("
+                + "content=\"" + NoteTable.TABLE_NAME + "\", "
+                + NoteTable.CONTENT_TO_SEARCH
+                + ")");
+
+        DbUtils.execSQL(db, "CREATE TRIGGER note_fts_before_update BEFORE UPDATE OF "
+                + NoteTable.CONTENT_TO_SEARCH + " ON " + NoteTable.TABLE_NAME
+                + " BEGIN " + deleteOldSql() + " END");
+        DbUtils.execSQL(db, "CREATE TRIGGER note_fts_before_delete BEFORE DELETE ON " + NoteTable.TABLE_NAME
+                + " BEGIN " + deleteOldSql() + " END");
+        DbUtils.execSQL(db, "CREATE TRIGGER note_fts_after_update AFTER UPDATE OF "
+                + NoteTable.CONTENT_TO_SEARCH + " ON " + NoteTable.TABLE_NAME
+                + " BEGIN " + insertNewSql() + " END");
+        DbUtils.execSQL(db, "CREATE TRIGGER note_fts_after_insert AFTER INSERT ON " + NoteTable.TABLE_NAME
+                + " BEGIN " + insertNewSql() + " END");
+    }
+
+    private static String deleteOldSql() {
+        return "DELETE FROM " + TABLE_NAME + " WHERE " + DOC_ID + "=old." + BaseColumns._ID + ";";
+    }
+
+    private static String insertNewSql() {
+        return "INSERT INTO " + TABLE_NAME + "(" + DOC_ID + ", " + NoteTable.CONTENT_TO_SEARCH + ")"
+                + " VALUES(new." + BaseColumns._ID + ", new." + NoteTable.CONTENT_TO_SEARCH + ");";
+    }
+
+    /** Recreates the whole index from the note table */
+    public static void rebuild(SQLiteDatabase db) {
+        DbUtils.execSQL(db, "INSERT INTO " + TABLE_NAME + "(" + TABLE_NAME + ") VALUES('rebuild')");
+    }
+
+    /** @return SQL to select ids of notes, matching the full text search query */
+    public static String noteIdsSql(String matchQuery) {
+        return "SELECT " + DOC_ID + " FROM " + TABLE_NAME
+                + " WHERE " + TABLE_NAME + " MATCH " + MyQuery.quoteIfNotQuoted(matchQuery);
+    }
+}
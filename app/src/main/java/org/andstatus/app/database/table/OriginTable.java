@@ -46,6 +46,8 @@ public final class OriginTable implements BaseColumns {
     public static final String ALLOW_HTML = "allow_html";
     public static final String TEXT_LIMIT = "text_limit";
     public static final String SHORT_URL_LENGTH = "short_url_length";
+    /** Maximum size of an uploaded file in bytes, 0 if unknown */
+    public static final String UPLOAD_LIMIT = "upload_limit";
     public static final String MENTION_AS_WEBFINGER_ID = "mention_as_webfinger_id";
     public static final String USE_LEGACY_HTTP = "use_legacy_http";
     /**
@@ -71,7 +73,8 @@ public final class OriginTable implements BaseColumns {
                 + MENTION_AS_WEBFINGER_ID + " INTEGER NOT NULL DEFAULT " + TriState.UNKNOWN.id + ","
                 + USE_LEGACY_HTTP + " INTEGER NOT NULL DEFAULT " + TriState.UNKNOWN.id + ","
                 + IN_COMBINED_GLOBAL_SEARCH + " BOOLEAN NOT NULL DEFAULT 1,"
-                + IN_COMBINED_PUBLIC_RELOAD + " BOOLEAN NOT NULL DEFAULT 1"
+                + IN_COMBINED_PUBLIC_RELOAD + " BOOLEAN NOT NULL DEFAULT 1,"
+                + UPLOAD_LIMIT + " INTEGER NOT NULL DEFAULT 0"
                 + ")");
     }
 }
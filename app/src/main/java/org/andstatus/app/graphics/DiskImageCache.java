@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2018 yvolk (Yuri Volkov), http://yurivolkov.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.andstatus.app.graphics;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.support.annotation.Nullable;
+
+import org.andstatus.app.data.ImageFile;
+import org.andstatus.app.util.I18n;
+import org.andstatus.app.util.MyLog;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Persistent cache of images, already scaled (and rounded) for an {@link ImageCache},
+ * so that the original files are decoded only once.
+ * A thumbnail is identified by the {@link ImageFile#getId()}, the {@link CacheName} and the target size,
+ * it is valid while it is not older than the original file.
+ * The files are in the application's cache directory, least recently used ones are deleted first.
+ * @author yvolk@yurivolkov.com
+ */
+class DiskImageCache {
+    static final String DIRECTORY_THUMBNAILS = "thumbnails";
+    private static final String FILE_SUFFIX = ".webp";
+    private static final int QUALITY = 90;
+    private static final int SAVES_BETWEEN_TRIMS = 50;
+
+    private final CacheName name;
+    private final long maxBytes;
+    @Nullable
+    private final File dir;
+    private final AtomicInteger savesToTrim = new AtomicInteger();
+    final AtomicLong hits = new AtomicLong();
+    final AtomicLong misses = new AtomicLong();
+
+    DiskImageCache(Context context, CacheName name, long maxBytes) {
+        this.name = name;
+        this.maxBytes = maxBytes;
+        dir = getDirectory(context, name);
+    }
+
+    @Nullable
+    private static File getDirectory(Context context, CacheName name) {
+        if (context == null || context.getCacheDir() == null) return null;
+
+        File dir = new File(new File(context.getCacheDir(), DIRECTORY_THUMBNAILS), name.name().toLowerCase());
+        if (!dir.exists() && !dir.mkdirs()) {
+            MyLog.i(DiskImageCache.class, "Could not create '" + dir.getPath() + "'");
+            return null;
+        }
+        return dir;
+    }
+
+    /** @return null if there is no valid thumbnail */
+    @Nullable
+    File getValidFile(ImageFile imageFile, int width, int height, boolean rounded) {
+        File file = getFile(imageFile, width, height, rounded);
+        if (file == null || !file.exists()) {
+            misses.incrementAndGet();
+            return null;
+        }
+        if (file.lastModified() < new File(imageFile.getPath()).lastModified()) {
+            misses.incrementAndGet();
+            delete(file);
+            return null;
+        }
+        hits.incrementAndGet();
+        //noinspection ResultOfMethodCallIgnored
+        file.setLastModified(System.currentTimeMillis());
+        return file;
+    }
+
+    void save(ImageFile imageFile, int width, int height, boolean rounded, Bitmap bitmap) {
+        File file = getFile(imageFile, width, height, rounded);
+        if (file == null) return;
+
+        File tmpFile = new File(file.getPath() + ".tmp");
+        try (OutputStream out = new FileOutputStream(tmpFile)) {
+            bitmap.compress(Bitmap.CompressFormat.WEBP, QUALITY, out);
+        } catch (IOException e) {
+            MyLog.d(this, "Failed to save " + file.getName(), e);
+            delete(tmpFile);
+            return;
+        }
+        if (!tmpFile.renameTo(file)) {
+            delete(tmpFile);
+            return;
+        }
+        if (savesToTrim.incrementAndGet() >= SAVES_BETWEEN_TRIMS) {
+            savesToTrim.set(0);
+            trim();
+        }
+    }
+
+    @Nullable
+    private File getFile(ImageFile imageFile, int width, int height, boolean rounded) {
+        if (dir == null || imageFile.getId() == 0) return null;
+
+        return new File(dir, imageFile.getId() + "_" + width + "x" + height + (rounded ? "_r" : "") + FILE_SUFFIX);
+    }
+
+    /** Deletes least recently used thumbnails to keep the size of the cache below the limit */
+    void trim() {
+        File[] files = listFiles();
+        long size = 0;
+        for (File file : files) {
+            size += file.length();
+        }
+        if (size <= maxBytes) return;
+
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        int deleted = 0;
+        for (File file : files) {
+            if (size <= maxBytes * 3 / 4) break;
+            size -= file.length();
+            if (delete(file)) deleted++;
+        }
+        final int deletedCount = deleted;
+        MyLog.v(this, () -> name + ": deleted " + deletedCount + " thumbnails");
+    }
+
+    private File[] listFiles() {
+        File[] files = dir == null ? null : dir.listFiles();
+        return files == null ? new File[0] : files;
+    }
+
+    static boolean delete(File file) {
+        return file.delete();
+    }
+
+    String getInfo() {
+        long accesses = hits.get() + misses.get();
+        return "on disk " + I18n.formatBytes(maxBytes) + " max"
+                + ", hits:" + hits.get() + ", misses:" + misses.get()
+                + (accesses == 0 ? "" : ", hitRate:" + hits.get() * 100 / accesses + "%");
+    }
+}
@@ -31,6 +31,7 @@ import android.graphics.Shader;
 import android.media.MediaMetadataRetriever;
 import android.media.ThumbnailUtils;
 import android.net.Uri;
+import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.util.DisplayMetrics;
 import android.util.LruCache;
@@ -39,6 +40,7 @@ import org.andstatus.app.context.MyContextHolder;
 import org.andstatus.app.context.MyPreferences;
 import org.andstatus.app.data.ImageFile;
 import org.andstatus.app.data.MyContentType;
+import org.andstatus.app.util.I18n;
 import org.andstatus.app.util.MyLog;
 import org.andstatus.app.util.StringUtils;
 
@@ -52,20 +54,25 @@ import java.util.concurrent.atomic.AtomicLong;
 /**
  * @author yvolk@yurivolkov.com
  * On LruCache usage read http://developer.android.com/reference/android/util/LruCache.html
+ * The size of the cache is counted in bytes of cached bitmaps. Bitmaps of evicted images are reused,
+ * scaled (and rounded) images are kept in the {@link DiskImageCache} also.
  */
 public class ImageCache extends LruCache<String, CachedImage> {
 
     public final static int BYTES_PER_PIXEL = 4;
     final CacheName name;
-    private volatile int requestedCacheSize;
-    private volatile int currentCacheSize;
+    private final int requestedCacheSize;
     private volatile int maxBitmapHeight;
     private volatile int maxBitmapWidth;
     final AtomicLong hits = new AtomicLong();
     final AtomicLong misses = new AtomicLong();
     final Set<String> brokenBitmaps = new ConcurrentSkipListSet<>();
-    final Queue<Bitmap> recycledBitmaps;
+    /** Bitmaps of evicted images, allocated lazily */
+    final Queue<Bitmap> recycledBitmaps = new ConcurrentLinkedQueue<>();
+    private final AtomicLong recycledBytes = new AtomicLong();
+    private final long maxRecycledBytes;
     final DisplayMetrics displayMetrics;
+    final DiskImageCache diskCache;
     volatile boolean rounded = false;
 
     @Override
@@ -73,32 +80,26 @@ public class ImageCache extends LruCache<String, CachedImage> {
         throw new IllegalStateException("Cache cannot be resized");
     }
 
+    /** @param requestedCacheSizeIn Number of images of the maximum size, which fit into the cache */
     public ImageCache(Context context, CacheName name, int maxBitmapHeightWidthIn, int requestedCacheSizeIn) {
-        super(requestedCacheSizeIn);
+        super(toBytes(maxBitmapHeightWidthIn, Math.max(requestedCacheSizeIn, 1)));
         this.name = name;
         displayMetrics = context.getResources().getDisplayMetrics();
         int maxBitmapHeightWidth = maxBitmapHeightWidthIn;
         this.setMaxBounds(maxBitmapHeightWidth, maxBitmapHeightWidth);
         this.requestedCacheSize = requestedCacheSizeIn;
-        this.currentCacheSize = this.requestedCacheSize;
-        recycledBitmaps = new ConcurrentLinkedQueue<>();
-        try {
-            for (int i = 0; i < currentCacheSize + 2; i++) {
-                recycledBitmaps.add(newBlankBitmap());
-            }
-        } catch (OutOfMemoryError e) {
-            MyLog.w(this, getInfo(), e);
-            currentCacheSize = recycledBitmaps.size() - 2;
-            if (currentCacheSize < 0) {
-                currentCacheSize = 0;
-            }
-            super.resize(currentCacheSize);
-        }
+        maxRecycledBytes = toBytes(maxBitmapHeightWidthIn, 2);
+        diskCache = new DiskImageCache(context, name, 2L * maxSize());
     }
 
-    private Bitmap newBlankBitmap() {
-        return Bitmap.createBitmap(displayMetrics, maxBitmapWidth,
-                maxBitmapHeight, CachedImage.BITMAP_CONFIG);
+    private static int toBytes(int maxBitmapHeightWidth, int numberOfBitmaps) {
+        return (int) Math.min(Integer.MAX_VALUE,
+                1L * maxBitmapHeightWidth * maxBitmapHeightWidth * BYTES_PER_PIXEL * numberOfBitmaps);
+    }
+
+    @Override
+    protected int sizeOf(String key, CachedImage value) {
+        return value.getBitmap().getAllocationByteCount();
     }
 
     @Nullable
@@ -115,7 +116,12 @@ public class ImageCache extends LruCache<String, CachedImage> {
     protected void entryRemoved(boolean evicted, String key, CachedImage oldValue, CachedImage newValue) {
         if (oldValue.isBitmapRecyclable()) {
             oldValue.makeExpired();
-            recycledBitmaps.add(oldValue.getBitmap());
+            long bytes = oldValue.getBitmap().getAllocationByteCount();
+            if (recycledBytes.addAndGet(bytes) <= maxRecycledBytes) {
+                recycledBitmaps.add(oldValue.getBitmap());
+            } else {
+                recycledBytes.addAndGet(-bytes);
+            }
         }
     }
 
@@ -135,9 +141,7 @@ public class ImageCache extends LruCache<String, CachedImage> {
             if (!fromCacheOnly && (new File(imageFile.getPath())).exists()) {
                 image = loadImage(imageFile);
                 if (image != null) {
-                    if (currentCacheSize > 0) {
-                        put(imageFile.getPath(), image);
-                    }
+                    put(imageFile.getPath(), image);
                 } else {
                     brokenBitmaps.add(imageFile.getPath());
                 }
@@ -148,26 +152,66 @@ public class ImageCache extends LruCache<String, CachedImage> {
 
     @Nullable
     private CachedImage loadImage(ImageFile imageFile) {
-        Bitmap bitmap = loadBitmap(imageFile);
-        if (bitmap == null) {
+        try {
+            Bitmap thumbnail = loadThumbnail(imageFile);
+            if (thumbnail != null) {
+                return new CachedImage(imageFile.getId(), thumbnail,
+                        new Rect(0, 0, thumbnail.getWidth(), thumbnail.getHeight()));
+            }
+            Bitmap bitmap = loadBitmap(imageFile);
+            if (bitmap == null) {
+                return null;
+            }
+            Rect srcRect = new Rect(0, 0, bitmap.getWidth(), bitmap.getHeight());
+            Bitmap background = getSuitableRecycledBitmap(srcRect);
+            Canvas canvas = new Canvas(background);
+            canvas.drawColor(Color.TRANSPARENT, PorterDuff.Mode.CLEAR);
+            if (rounded) {
+                drawRoundedBitmap(canvas, bitmap);
+            } else {
+                canvas.drawBitmap(bitmap, 0 , 0, null);
+            }
+            bitmap.recycle();
+            diskCache.save(imageFile, maxBitmapWidth, maxBitmapHeight, rounded, background);
+            return new CachedImage(imageFile.getId(), background, srcRect);
+        } catch (OutOfMemoryError e) {
+            MyLog.w(imageFile, getInfo(), e);
+            evictAll();
+            recycledBitmaps.clear();
+            recycledBytes.set(0);
+            return null;
+        }
+    }
+
+    /** Decodes the scaled image from the disk cache into a recycled bitmap, if possible */
+    @Nullable
+    private Bitmap loadThumbnail(ImageFile imageFile) {
+        File file = diskCache.getValidFile(imageFile, maxBitmapWidth, maxBitmapHeight, rounded);
+        if (file == null) {
             return null;
         }
-        Rect srcRect = new Rect(0, 0, bitmap.getWidth(), bitmap.getHeight());
-        Bitmap background = getSuitableRecycledBitmap(srcRect);
-        if (background == null) {
-            MyLog.w(imageFile, "No suitable bitmap found to cache "
-                    + srcRect.width() + "x" + srcRect.height() + " '" + imageFile.getPath() + "'");
-            return null ;
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(file.getAbsolutePath(), options);
+        Bitmap bitmap = null;
+        if (options.outWidth > 0 && options.outHeight > 0) {
+            int bytes = options.outWidth * options.outHeight * BYTES_PER_PIXEL;
+            options.inJustDecodeBounds = false;
+            options.inMutable = true;
+            options.inPreferredConfig = CachedImage.BITMAP_CONFIG;
+            options.inBitmap = pollRecycledBitmap(bytes, 2 * bytes);
+            try {
+                bitmap = BitmapFactory.decodeFile(file.getAbsolutePath(), options);
+            } catch (IllegalArgumentException e) {
+                MyLog.d(imageFile, "Failed to reuse a bitmap", e);
+                options.inBitmap = null;
+                bitmap = BitmapFactory.decodeFile(file.getAbsolutePath(), options);
+            }
         }
-        Canvas canvas = new Canvas(background);
-        canvas.drawColor(Color.TRANSPARENT, PorterDuff.Mode.CLEAR);
-        if (rounded) {
-            drawRoundedBitmap(canvas, bitmap);
-        } else {
-            canvas.drawBitmap(bitmap, 0 , 0, null);
+        if (bitmap == null) {
+            DiskImageCache.delete(file);
         }
-        bitmap.recycle();
-        return new CachedImage(imageFile.getId(), background, srcRect);
+        return bitmap;
     }
 
     /**
@@ -183,8 +227,28 @@ public class ImageCache extends LruCache<String, CachedImage> {
         canvas.drawOval(rectF, paint);
     }
 
+    /** Reuses a recycled bitmap, if it is not too large, or allocates a new one */
+    @NonNull
     private Bitmap getSuitableRecycledBitmap(Rect srcRect) {
-        return recycledBitmaps.poll();
+        int bytes = srcRect.width() * srcRect.height() * BYTES_PER_PIXEL;
+        Bitmap bitmap = pollRecycledBitmap(bytes, 2 * bytes);
+        if (bitmap == null) {
+            return Bitmap.createBitmap(displayMetrics, srcRect.width(), srcRect.height(), CachedImage.BITMAP_CONFIG);
+        }
+        bitmap.reconfigure(srcRect.width(), srcRect.height(), CachedImage.BITMAP_CONFIG);
+        return bitmap;
+    }
+
+    @Nullable
+    private Bitmap pollRecycledBitmap(int minBytes, int maxBytes) {
+        for (Bitmap bitmap : recycledBitmaps) {
+            int bytes = bitmap.getAllocationByteCount();
+            if (bytes >= minBytes && bytes <= maxBytes && recycledBitmaps.remove(bitmap)) {
+                recycledBytes.addAndGet(-bytes);
+                return bitmap;
+            }
+        }
+        return null;
     }
 
     @Nullable
@@ -259,10 +323,8 @@ public class ImageCache extends LruCache<String, CachedImage> {
     public String getInfo() {
         StringBuilder builder = new StringBuilder(name.title);
         builder.append(": " + maxBitmapWidth + "x" + maxBitmapHeight + ", "
-                + size() + " of " + currentCacheSize);
-        if (requestedCacheSize != currentCacheSize) {
-            builder.append(" (initially capacity was " + requestedCacheSize + ")");
-        }
+                + snapshot().size() + " images, " + I18n.formatBytes(size()) + " of " + I18n.formatBytes(maxSize())
+                + " (" + requestedCacheSize + " of max size)");
         builder.append(", free: " + recycledBitmaps.size());
         if (!brokenBitmaps.isEmpty()) {
             builder.append(", broken: " + brokenBitmaps.size());
@@ -270,6 +332,7 @@ public class ImageCache extends LruCache<String, CachedImage> {
         long accesses = hits.get() + misses.get();
         builder.append(", hits:" + hits.get() + ", misses:" + misses.get()
                 + (accesses == 0 ? "" : ", hitRate:" + hits.get() * 100 / accesses + "%"));
+        builder.append("; " + diskCache.getInfo());
         return builder.toString();
     }
 
@@ -41,7 +41,11 @@ public class ConnectionException extends IOException {
         REQUEST_ENTITY_TOO_LARGE,
         LENGTH_REQUIRED,
         CLIENT_ERROR,
-        SERVER_ERROR;
+        SERVER_ERROR,
+        /** The resource wasn't changed since the previous (conditional) request */
+        NOT_MODIFIED,
+        /** Rate limit exceeded, see {@link RateLimits} */
+        TOO_MANY_REQUESTS;
         
         public static StatusCode fromResponseCode(int responseCode) {
             switch (responseCode) {
@@ -65,6 +69,9 @@ public class ConnectionException extends IOException {
                     return LENGTH_REQUIRED;
                 case 413:
                     return REQUEST_ENTITY_TOO_LARGE;
+                case 420:
+                case 429:
+                    return TOO_MANY_REQUESTS;
                 case 500:
                     return INTERNAL_SERVER_ERROR;
                 case 502:
@@ -152,7 +159,8 @@ public class ConnectionException extends IOException {
     }
 
     private static boolean isHardFromStatusCode(boolean isHardIn, StatusCode statusCode) {
-        return isHardIn || (statusCode != StatusCode.UNKNOWN && statusCode != StatusCode.OK);
+        return isHardIn || (statusCode != StatusCode.UNKNOWN && statusCode != StatusCode.OK
+                && statusCode != StatusCode.NOT_MODIFIED && statusCode != StatusCode.TOO_MANY_REQUESTS);
     }
 
     public StatusCode getStatusCode() {
@@ -87,7 +87,12 @@ public abstract class HttpConnection {
         if( result.hasFormParams()) {
             MyLog.logNetworkLevelMessage("post_form", data.getLogName(), result.getFormParams());
         }
-        postRequest(result);
+        RateLimits.beforeRequest(result, getAccountKey());
+        try {
+            postRequest(result);
+        } finally {
+            RateLimits.onResponse(result, getAccountKey());
+        }
         MyLog.logNetworkLevelMessage("post_response", data.getLogName(), result.strResponse);
         result.parseAndThrow();
         return result.getJsonObject();
@@ -103,13 +108,40 @@ public abstract class HttpConnection {
         return getRequestCommon(path, false).getJsonObject();
     }
     
+    /**
+     * Conditional request, see {@link HttpValidators}
+     * @throws ConnectionException with {@link StatusCode#NOT_MODIFIED}, if the resource wasn't changed
+     * since the previous request
+     */
+    public final JSONObject getRequestIfModified(String path) throws ConnectionException {
+        HttpReadResult result = getRequestCommon(path, true, true, null, null);
+        if (result.isNotModified()) {
+            throw ConnectionException.fromStatusCode(StatusCode.NOT_MODIFIED, result.toString());
+        }
+        JSONObject jso = result.getJsonObject();
+        HttpValidators.onProcessed(result, getAccountKey());
+        return jso;
+    }
+
     private HttpReadResult getRequestCommon(String path, boolean authenticated) throws ConnectionException {
+        return getRequestCommon(path, authenticated, false, null, null);
+    }
+
+    private HttpReadResult getRequestCommon(String path, boolean authenticated, boolean conditional,
+                                            String arrayKey, JsonItemConsumer consumer) throws ConnectionException {
         if (StringUtils.isEmpty(path)) {
             throw new IllegalArgumentException("path is empty");
         }
         HttpReadResult result = new HttpReadResult(pathToUrlString(path));
         result.authenticate = authenticated;
-        getRequest(result);
+        if (conditional) HttpValidators.addTo(result, getAccountKey());
+        if (consumer != null) result.setItemConsumer(arrayKey, consumer);
+        RateLimits.beforeRequest(result, getAccountKey());
+        try {
+            getRequest(result);
+        } finally {
+            RateLimits.onResponse(result, getAccountKey());
+        }
         MyLog.logNetworkLevelMessage("get_response", data.getLogName(), result.strResponse);
         result.parseAndThrow();
         return result;
@@ -123,6 +155,24 @@ public abstract class HttpConnection {
         return getRequestCommon(path, true).getJsonArray(parentKey);
     }
 
+    /**
+     * Like {@link #getRequestAsArray(String, String)}, but items of the array are passed to the consumer one by one,
+     * while the response is being read.
+     * The request is conditional, so no items are passed, if nothing changed since the previous request.
+     * Validators of the response are stored after the command succeeded, see {@link HttpValidators#defer()}
+     */
+    public final void getRequestAsArray(String path, String parentKey, JsonItemConsumer consumer)
+            throws ConnectionException {
+        HttpReadResult result = getRequestCommon(path, true, true, parentKey, consumer);
+        result.readItemsOfStringResponse();
+        HttpValidators.onProcessed(result, getAccountKey());
+    }
+
+    /** Validators and rate limits are stored per account */
+    private String getAccountKey() {
+        return data == null || data.getAccountName() == null ? "" : data.getAccountName().toString();
+    }
+
     public final void downloadFile(String url, File file) throws ConnectionException {
         HttpReadResult result = new HttpReadResult(url, file);
         getRequest(result);
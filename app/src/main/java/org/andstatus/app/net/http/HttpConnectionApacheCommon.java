@@ -35,6 +35,7 @@ import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import cz.msebera.android.httpclient.Header;
 import cz.msebera.android.httpclient.HttpEntity;
@@ -50,6 +51,7 @@ import cz.msebera.android.httpclient.entity.ContentType;
 import cz.msebera.android.httpclient.entity.mime.MultipartEntityBuilder;
 import cz.msebera.android.httpclient.message.BasicNameValuePair;
 import cz.msebera.android.httpclient.protocol.HTTP;
+import cz.msebera.android.httpclient.util.EntityUtils;
 
 public class HttpConnectionApacheCommon {
     private HttpConnectionApacheSpecific specific;
@@ -135,9 +137,7 @@ public class HttpConnectionApacheCommon {
     }
 
     public static HttpClient getHttpClient(SslModeEnum sslMode) {
-        return sslMode == SslModeEnum.MISCONFIGURED ?
-                MisconfiguredSslHttpClientFactory.getHttpClient() :
-                    MyHttpClientFactory.getHttpClient(sslMode) ;
+        return MyHttpClientFactory.getPooledHttpClient(sslMode);
     }
 
     protected void getRequest(HttpReadResult result) {
@@ -151,19 +151,26 @@ public class HttpConnectionApacheCommon {
                 if (result.authenticate) {
                     specific.httpApacheSetAuthorization(httpGet);
                 }
+                for (Map.Entry<String, String> header : result.conditionalHeaders.entrySet()) {
+                    httpGet.setHeader(header.getKey(), header.getValue());
+                }
                 httpResponse = specific.httpApacheGetResponse(httpGet);
                 StatusLine statusLine = httpResponse.getStatusLine();
                 result.statusLine = statusLine.toString();
                 result.setStatusCode(statusLine.getStatusCode());
+                final HttpResponse response = httpResponse;
+                result.setRateLimitHeaders(name -> getHeaderValue(response, name));
                 switch (result.getStatusCode()) {
                     case OK:
                     case UNKNOWN:
+                        result.setValidators(getHeaderValue(httpResponse, HttpValidators.ETAG),
+                                getHeaderValue(httpResponse, HttpValidators.LAST_MODIFIED));
                         HttpEntity entity = httpResponse.getEntity();
                         if (entity != null) {
                             if (result.fileResult != null) {
                                 FileUtils.readStreamToFile(entity.getContent(), result.fileResult);
                             } else {
-                                result.strResponse = HttpConnectionUtils.readStreamToString(entity.getContent());
+                                result.readStream(entity.getContent());
                             }
                         }
                         stop = true;
@@ -178,6 +185,8 @@ public class HttpConnectionApacheCommon {
                             result.onNoLocationHeaderOnMoved();
                         } else {
                             result.setUrl(location.replace("%3F", "?"));
+                            // Consuming the content releases the connection to the pool before following the redirect
+                            EntityUtils.consumeQuietly(httpResponse.getEntity());
                             String logMsg3 = "Following redirect to '" + result.getUrl() + "'";
                             if (MyLog.isVerboseEnabled()) {
                                 MyLog.v(this, method + logMsg3);
@@ -221,6 +230,11 @@ public class HttpConnectionApacheCommon {
         return httpGet;
     }
 
+    static String getHeaderValue(HttpResponse httpResponse, String name) {
+        Header header = httpResponse.getFirstHeader(name);
+        return header == null ? "" : header.getValue();
+    }
+
     public static String readHttpResponseToString(HttpResponse httpResponse) throws IOException {
         HttpEntity httpEntity = httpResponse.getEntity();
         if (httpEntity != null) {
@@ -104,6 +104,7 @@ public class HttpConnectionOAuth2JavaNet extends HttpConnectionOAuthJavaNet {
             signRequest(request, service, false);
             final Response response = service.execute(request);
             result.setStatusCode(response.getCode());
+            result.setRateLimitHeaders(response::getHeader);
             switch(result.getStatusCode()) {
                 case OK:
                     result.strResponse = HttpConnectionUtils.readStreamToString(response.getStream());
@@ -142,14 +143,20 @@ public class HttpConnectionOAuth2JavaNet extends HttpConnectionOAuthJavaNet {
                 if (result.authenticate) {
                     signRequest(request, service, redirected);
                 }
+                for (Map.Entry<String, String> header : result.conditionalHeaders.entrySet()) {
+                    request.addHeader(header.getKey(), header.getValue());
+                }
                 Response response = service.execute(request);
                 result.setStatusCode(response.getCode());
+                result.setRateLimitHeaders(response::getHeader);
                 switch(result.getStatusCode()) {
                     case OK:
+                        result.setValidators(response.getHeader(HttpValidators.ETAG),
+                                response.getHeader(HttpValidators.LAST_MODIFIED));
                         if (result.fileResult != null) {
                             FileUtils.readStreamToFile(response.getStream(), result.fileResult);
                         } else {
-                            result.strResponse = HttpConnectionUtils.readStreamToString(response.getStream());
+                            result.readStream(response.getStream());
                         }
                         stop = true;
                         break;
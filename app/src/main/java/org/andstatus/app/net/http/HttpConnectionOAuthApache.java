@@ -21,9 +21,9 @@ import org.andstatus.app.net.social.Connection.ApiRoutineEnum;
 import java.io.IOException;
 
 import cz.msebera.android.httpclient.HttpResponse;
+import cz.msebera.android.httpclient.StatusLine;
 import cz.msebera.android.httpclient.client.methods.HttpGet;
 import cz.msebera.android.httpclient.client.methods.HttpPost;
-import cz.msebera.android.httpclient.impl.client.BasicResponseHandler;
 import oauth.signpost.OAuthConsumer;
 import oauth.signpost.OAuthProvider;
 import oauth.signpost.commonshttp.CommonsHttpOAuthConsumer;
@@ -68,16 +68,21 @@ public class HttpConnectionOAuthApache extends HttpConnectionOAuth implements Ht
     @Override
     public void httpApachePostRequest(HttpPost post, HttpReadResult result) throws ConnectionException {
         try {
-            // TODO: Redo like for get request
             if (result.authenticate) {
                 signRequest(post);
             }
-            result.strResponse = HttpConnectionApacheCommon.getHttpClient(data.getSslMode()).execute(
-                    post, new BasicResponseHandler());
+            HttpResponse httpResponse = HttpConnectionApacheCommon.getHttpClient(data.getSslMode()).execute(post);
+            StatusLine statusLine = httpResponse.getStatusLine();
+            result.statusLine = statusLine.toString();
+            result.setStatusCode(statusLine.getStatusCode());
+            result.setRateLimitHeaders(name -> HttpConnectionApacheCommon.getHeaderValue(httpResponse, name));
+            result.strResponse = HttpConnectionApacheCommon.readHttpResponseToString(httpResponse);
         } catch (Exception e) {
             // We don't catch other exceptions because in fact it's vary difficult to tell
             // what was a real cause of it. So let's make code clearer.
             result.setException(e);
+        } finally {
+            post.abort();
         }
     }
 
@@ -20,6 +20,7 @@ import android.content.ContentResolver;
 import android.net.Uri;
 
 import org.andstatus.app.context.MyContextHolder;
+import org.andstatus.app.context.MyPreferences;
 import org.andstatus.app.data.DbUtils;
 import org.andstatus.app.data.MyContentType;
 import org.andstatus.app.net.http.ConnectionException.StatusCode;
@@ -67,7 +68,7 @@ public class HttpConnectionOAuthJavaNet extends HttpConnectionOAuth {
         Writer writer = null;
         try {
 			URL endpoint = new URL(pathToUrlString(path));
-            HttpURLConnection conn = (HttpURLConnection) endpoint.openConnection();
+            HttpURLConnection conn = openConnection(endpoint);
                     
             Map<String, String> params = new HashMap<String, String>();
             params.put("type", "client_associate");
@@ -121,7 +122,7 @@ public class HttpConnectionOAuthJavaNet extends HttpConnectionOAuth {
     @Override
     protected void postRequest(HttpReadResult result) throws ConnectionException {
         try {
-            HttpURLConnection conn = (HttpURLConnection) result.getUrlObj().openConnection();
+            HttpURLConnection conn = openConnection(result.getUrlObj());
             conn.setDoOutput(true);
             conn.setDoInput(true);
             conn.setRequestMethod("POST");
@@ -135,6 +136,7 @@ public class HttpConnectionOAuthJavaNet extends HttpConnectionOAuth {
             }
                         
             result.setStatusCode(conn.getResponseCode());
+            result.setRateLimitHeaders(conn::getHeaderField);
             switch(result.getStatusCode()) {
                 case OK:
                     result.strResponse = HttpConnectionUtils.readStreamToString(conn.getInputStream());
@@ -148,6 +150,14 @@ public class HttpConnectionOAuthJavaNet extends HttpConnectionOAuth {
         }
     }
 
+    /** Connections to the same host are kept alive and reused by the platform, if their streams are fully read */
+    private static HttpURLConnection openConnection(URL url) throws IOException {
+        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+        conn.setConnectTimeout(MyPreferences.getConnectionTimeoutMs());
+        conn.setReadTimeout(2 * MyPreferences.getConnectionTimeoutMs());
+        return conn;
+    }
+
     /** This method is not legacy HTTP */
     private void writeMedia(HttpURLConnection conn, JSONObject formParams)
             throws IOException, JSONException {
@@ -199,19 +209,25 @@ public class HttpConnectionOAuthJavaNet extends HttpConnectionOAuth {
             boolean redirected = false;
             boolean stop = false;
             do {
-                conn = (HttpURLConnection) result.getUrlObj().openConnection();
+                conn = openConnection(result.getUrlObj());
                 conn.setInstanceFollowRedirects(false);
                 if (result.authenticate) {
                     signConnection(conn, consumer, redirected);
                 }
+                for (Entry<String, String> header : result.conditionalHeaders.entrySet()) {
+                    conn.setRequestProperty(header.getKey(), header.getValue());
+                }
                 conn.connect();
                 result.setStatusCode(conn.getResponseCode());
+                result.setRateLimitHeaders(conn::getHeaderField);
                 switch(result.getStatusCode()) {
                     case OK:
+                        result.setValidators(conn.getHeaderField(HttpValidators.ETAG),
+                                conn.getHeaderField(HttpValidators.LAST_MODIFIED));
                         if (result.fileResult != null) {
                             FileUtils.readStreamToFile(conn.getInputStream(), result.fileResult);
                         } else {
-                            result.strResponse = HttpConnectionUtils.readStreamToString(conn.getInputStream());
+                            result.readStream(conn.getInputStream());
                         }
                         stop = true;
                         break;
@@ -19,9 +19,11 @@ import android.text.format.Formatter;
 
 import org.andstatus.app.context.MyContextHolder;
 import org.andstatus.app.context.MyPreferences;
+import org.andstatus.app.data.DbUtils;
 import org.andstatus.app.net.http.ConnectionException.StatusCode;
 import org.andstatus.app.util.I18n;
 import org.andstatus.app.util.MyLog;
+import org.andstatus.app.util.SharedPreferencesUtil;
 import org.andstatus.app.util.StringUtils;
 import org.json.JSONArray;
 import org.json.JSONException;
@@ -29,9 +31,17 @@ import org.json.JSONObject;
 import org.json.JSONTokener;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.Map;
+import java.util.function.Function;
 
 public class HttpReadResult {
     private final String urlInitial;
@@ -44,7 +54,17 @@ public class HttpReadResult {
     StringBuilder logBuilder =  new StringBuilder();
     private Exception exception = null;
     String strResponse = "";
+    private String itemsKey = "";
+    private JsonItemConsumer itemConsumer = null;
+    /** Number of items, passed to the {@link #itemConsumer}, or -1 if the items were not read yet */
+    private int itemsCount = -1;
     final File fileResult;
+    /** Headers to send in a conditional request, see {@link HttpValidators} */
+    final Map<String, String> conditionalHeaders = new HashMap<>();
+    /** Validators, received in the response */
+    final Map<String, String> validators = new HashMap<>();
+    /** Rate limit headers of the response, see {@link RateLimits} */
+    final Map<String, String> rateLimitHeaders = new HashMap<>();
     String statusLine = "";
     private int intStatusCode = 0;
     private StatusCode statusCode = StatusCode.UNKNOWN;
@@ -81,6 +101,27 @@ public class HttpReadResult {
     public StatusCode getStatusCode() {
         return statusCode;
     }
+
+    /** The response to a conditional request has no body, as the resource wasn't changed */
+    public boolean isNotModified() {
+        return intStatusCode == 304;
+    }
+
+    void setValidators(String eTag, String lastModified) {
+        if (StringUtils.nonEmpty(eTag)) validators.put(HttpValidators.ETAG, eTag);
+        if (StringUtils.nonEmpty(lastModified)) validators.put(HttpValidators.LAST_MODIFIED, lastModified);
+    }
+
+    void setRateLimitHeaders(Function<String, String> headerValue) {
+        for (String name : RateLimits.HEADERS) {
+            String value = headerValue.apply(name);
+            if (StringUtils.nonEmpty(value)) rateLimitHeaders.put(name, value);
+        }
+    }
+
+    String getUrlInitial() {
+        return urlInitial;
+    }
     
     public String getUrl() {
         return urlString;
@@ -116,10 +157,63 @@ public class HttpReadResult {
                 + (redirected ? "; redirected from:'" + urlInitial + "'" : "")
                 + ( hasFormParams() ? "; posted:'" + formParams.toString() + "'" : "")
                 + (StringUtils.isEmpty(strResponse) ? "" : "; response:'" + I18n.trimTextAt(strResponse, 40) + "'")
+                + (itemsCount < 0 ? "" : "; items:" + itemsCount)
+                + (isNotModified() ? "; not modified" : "")
                 + (exception == null ? "" : "; \nexception: " + exception.toString())
                 + (fileResult == null ? "" : "; saved to file");
     }
     
+    /** Items of the array in a response will be read one by one, see {@link #readStream(InputStream)} */
+    HttpReadResult setItemConsumer(String arrayKey, JsonItemConsumer consumer) {
+        itemsKey = arrayKey;
+        itemConsumer = consumer;
+        return this;
+    }
+
+    /**
+     * Reads the body of a successful response. If there is an {@link #itemConsumer}, items of the array
+     * are passed to it while the stream is being read, so neither the body nor its JSON document are kept in memory.
+     * The body is kept as a string, if network level messages are logged.
+     * "Not modified" response has no body
+     */
+    void readStream(InputStream in) throws IOException {
+        if (isNotModified()) {
+            DbUtils.closeSilently(in);
+            return;
+        }
+        if (itemConsumer == null
+                || SharedPreferencesUtil.getBoolean(MyPreferences.KEY_LOG_NETWORK_LEVEL_MESSAGES, false)) {
+            strResponse = HttpConnectionUtils.readStreamToString(in);
+            return;
+        }
+        try (Reader reader = new InputStreamReader(in, HttpConnectionUtils.UTF_8)) {
+            readItems(reader);
+        } finally {
+            DbUtils.closeSilently(in);
+        }
+    }
+
+    /** Reads items from the response, which was not streamed, e.g. for a logged or a mocked connection */
+    void readItemsOfStringResponse() throws ConnectionException {
+        if (itemConsumer == null || itemsCount >= 0 || StringUtils.isEmpty(strResponse)) return;
+
+        try {
+            readItems(new StringReader(strResponse));
+        } catch (ConnectionException e) {
+            throw e;
+        } catch (IOException e) {
+            throw ConnectionException.loggedJsonException(this, "readItems; " + toString(), e, strResponse);
+        }
+    }
+
+    private void readItems(Reader reader) throws IOException {
+        try {
+            itemsCount = new JsonItemsReader(itemsKey, itemConsumer).read(reader);
+        } catch (JSONException | IllegalStateException e) {
+            throw ConnectionException.loggedJsonException(this, "readItems; " + toString(), e, null);
+        }
+    }
+
     JSONObject getJsonObject() throws ConnectionException {
         return innerGetJsonObject(strResponse);
     }
@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2018 yvolk (Yuri Volkov), http://yurivolkov.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.andstatus.app.net.http;
+
+import android.content.SharedPreferences;
+import android.support.annotation.NonNull;
+
+import net.jcip.annotations.GuardedBy;
+
+import org.andstatus.app.util.MyLog;
+import org.andstatus.app.util.SharedPreferencesUtil;
+import org.andstatus.app.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Persistent store of validators ("ETag" and "Last-Modified" response headers) of the latest responses
+ * by account and URL, so that the next request to the same URL may be conditional
+ * and an unchanged resource is not transferred again (the server answers "304 Not Modified").
+ * The store is size-bounded, validators, stored long ago, are removed first.
+ * Validators of responses, received while executing a command, are stored only after the command succeeded,
+ * i.e. after the data of the responses was saved, see {@link #defer()}
+ * See <a href="https://tools.ietf.org/html/rfc7232">RFC 7232</a>
+ * @author yvolk@yurivolkov.com
+ */
+public class HttpValidators {
+    static final String ETAG = "ETag";
+    static final String LAST_MODIFIED = "Last-Modified";
+    static final String IF_NONE_MATCH = "If-None-Match";
+    static final String IF_MODIFIED_SINCE = "If-Modified-Since";
+
+    private static final String PREFS_FILE_NAME = "http_validators";
+    static final int MAX_SIZE = 300;
+    private static final String SEPARATOR = "\n";
+
+    private static final Object lock = new Object();
+    @GuardedBy("lock")
+    private static Map<String, Entry> entries = null;
+    /** Validators, received in this thread after {@link #defer()}, by their keys */
+    private static final ThreadLocal<Map<String, Entry>> deferredEntries = new ThreadLocal<>();
+
+    private HttpValidators() {
+        // Empty
+    }
+
+    private static class Entry {
+        final long storedAt;
+        final String eTag;
+        final String lastModified;
+
+        Entry(long storedAt, String eTag, String lastModified) {
+            this.storedAt = storedAt;
+            this.eTag = StringUtils.notNull(eTag);
+            this.lastModified = StringUtils.notNull(lastModified);
+        }
+
+        static Entry fromStored(String stored) {
+            String[] parts = StringUtils.notNull(stored).split(SEPARATOR, -1);
+            if (parts.length < 3) return null;
+            try {
+                return new Entry(Long.parseLong(parts[0]), parts[1], parts[2]);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        boolean isEmpty() {
+            return eTag.isEmpty() && lastModified.isEmpty();
+        }
+
+        String toStored() {
+            return storedAt + SEPARATOR + eTag + SEPARATOR + lastModified;
+        }
+    }
+
+    /** Adds validators of the previous response to the request, making it conditional */
+    static void addTo(@NonNull HttpReadResult result, String accountKey) {
+        String key = toKey(accountKey, result.getUrlInitial());
+        Entry entry;
+        synchronized (lock) {
+            entry = getEntries().get(key);
+        }
+        if (entry == null) return;
+
+        if (!entry.eTag.isEmpty()) result.conditionalHeaders.put(IF_NONE_MATCH, entry.eTag);
+        if (!entry.lastModified.isEmpty()) result.conditionalHeaders.put(IF_MODIFIED_SINCE, entry.lastModified);
+    }
+
+    /** Stores validators of a successful response. Should be called after the response was processed.
+     * If storing is deferred in this thread, the validators are kept until {@link Deferred#end(boolean)} */
+    static void onProcessed(@NonNull HttpReadResult result, String accountKey) {
+        if (result.isNotModified() || result.conditionalHeaders.isEmpty() && result.validators.isEmpty()) return;
+
+        String key = toKey(accountKey, result.getUrlInitial());
+        Entry entry = new Entry(System.currentTimeMillis(), result.validators.get(ETAG),
+                result.validators.get(LAST_MODIFIED));
+        Map<String, Entry> deferred = deferredEntries.get();
+        if (deferred == null) {
+            store(Collections.singletonMap(key, entry));
+        } else {
+            deferred.put(key, entry);
+        }
+    }
+
+    /**
+     * Defers storing of validators, received in the current thread, until {@link Deferred#end(boolean)},
+     * so a resource is requested unconditionally again, if the data, received previous time, was not saved
+     */
+    @NonNull
+    public static Deferred defer() {
+        Deferred deferred = new Deferred(deferredEntries.get());
+        deferredEntries.set(deferred.entries);
+        return deferred;
+    }
+
+    public static class Deferred {
+        private final Map<String, Entry> outer;
+        private final Map<String, Entry> entries = new HashMap<>();
+
+        private Deferred(Map<String, Entry> outer) {
+            this.outer = outer;
+        }
+
+        /** Stores the validators in one batch, if the data of their responses was saved, or drops them */
+        public void end(boolean dataSaved) {
+            if (outer == null) {
+                deferredEntries.remove();
+            } else {
+                deferredEntries.set(outer);
+            }
+            if (dataSaved && !entries.isEmpty()) store(entries);
+            entries.clear();
+        }
+    }
+
+    private static void store(Map<String, Entry> toStore) {
+        synchronized (lock) {
+            Map<String, Entry> map = getEntries();
+            SharedPreferences.Editor editor = edit();
+            for (Map.Entry<String, Entry> mapEntry : toStore.entrySet()) {
+                String key = mapEntry.getKey();
+                Entry entry = mapEntry.getValue();
+                if (entry.isEmpty()) {
+                    map.remove(key);
+                    if (editor != null) editor.remove(key);
+                } else {
+                    map.put(key, entry);
+                    if (editor != null) editor.putString(key, entry.toStored());
+                }
+            }
+            trim(map, editor);
+            if (editor != null) editor.apply();
+        }
+    }
+
+    @GuardedBy("lock")
+    private static void trim(Map<String, Entry> map, SharedPreferences.Editor editor) {
+        if (map.size() <= MAX_SIZE) return;
+
+        List<Map.Entry<String, Entry>> list = new ArrayList<>(map.entrySet());
+        list.sort(Comparator.comparingLong(mapEntry -> mapEntry.getValue().storedAt));
+        for (int i = 0; i < list.size() - MAX_SIZE * 3 / 4; i++) {
+            String key = list.get(i).getKey();
+            map.remove(key);
+            if (editor != null) editor.remove(key);
+        }
+    }
+
+    @GuardedBy("lock")
+    private static Map<String, Entry> getEntries() {
+        if (entries == null) {
+            entries = new HashMap<>();
+            SharedPreferences prefs = SharedPreferencesUtil.getSharedPreferences(PREFS_FILE_NAME);
+            if (prefs != null) {
+                for (Map.Entry<String, ?> stored : prefs.getAll().entrySet()) {
+                    Entry entry = Entry.fromStored(String.valueOf(stored.getValue()));
+                    if (entry != null) entries.put(stored.getKey(), entry);
+                }
+            }
+            MyLog.v(HttpValidators.class, () -> "Loaded " + entries.size() + " validators");
+        }
+        return entries;
+    }
+
+    private static SharedPreferences.Editor edit() {
+        SharedPreferences prefs = SharedPreferencesUtil.getSharedPreferences(PREFS_FILE_NAME);
+        return prefs == null ? null : prefs.edit();
+    }
+
+    private static String toKey(String accountKey, String url) {
+        return StringUtils.notNull(accountKey) + " " + url;
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2018 yvolk (Yuri Volkov), http://yurivolkov.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.andstatus.app.net.http;
+
+import android.util.JsonReader;
+import android.util.JsonToken;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads items of a JSON array token by token, so only one item at a time is kept in memory as a {@link JSONObject}.
+ * The array is found the same way as in {@link HttpReadResult#getJsonArray(String)}:
+ * it is either the root of the document or a value of the "arrayKey" or of the first key, which has an array value
+ * @author yvolk@yurivolkov.com
+ */
+class JsonItemsReader {
+    private final String arrayKey;
+    private final JsonItemConsumer consumer;
+    private int count = 0;
+
+    JsonItemsReader(String arrayKey, JsonItemConsumer consumer) {
+        this.arrayKey = arrayKey;
+        this.consumer = consumer;
+    }
+
+    /** @return number of items read */
+    int read(Reader in) throws IOException, JSONException {
+        try (JsonReader reader = new JsonReader(in)) {
+            switch (reader.peek()) {
+                case BEGIN_ARRAY:
+                    readItems(reader);
+                    break;
+                case BEGIN_OBJECT:
+                    readArrayInObject(reader);
+                    break;
+                default:
+                    throw new JSONException("No array or object at the root, but " + reader.peek());
+            }
+        }
+        return count;
+    }
+
+    private void readArrayInObject(JsonReader reader) throws IOException, JSONException {
+        JSONArray firstArray = null;
+        boolean found = false;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (!found && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                if (name.equals(arrayKey)) {
+                    readItems(reader);
+                    found = true;
+                } else if (firstArray == null) {
+                    firstArray = readArray(reader);
+                } else {
+                    reader.skipValue();
+                }
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        if (!found && firstArray != null) {
+            for (int index = 0; index < firstArray.length(); index++) {
+                accept(firstArray.get(index));
+            }
+        }
+    }
+
+    private void readItems(JsonReader reader) throws IOException, JSONException {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            accept(readValue(reader));
+        }
+        reader.endArray();
+    }
+
+    private void accept(Object item) throws ConnectionException, JSONException {
+        if (!(item instanceof JSONObject)) {
+            throw new JSONException("Item " + count + " is not an object: " + item);
+        }
+        count++;
+        consumer.accept((JSONObject) item);
+    }
+
+    private static Object readValue(JsonReader reader) throws IOException, JSONException {
+        switch (reader.peek()) {
+            case BEGIN_OBJECT:
+                return readObject(reader);
+            case BEGIN_ARRAY:
+                return readArray(reader);
+            case NUMBER:
+                // The same number types, as for a JSONObject, created from a String
+                return new JSONTokener(reader.nextString()).nextValue();
+            case BOOLEAN:
+                return reader.nextBoolean();
+            case NULL:
+                reader.nextNull();
+                return JSONObject.NULL;
+            default:
+                return reader.nextString();
+        }
+    }
+
+    private static JSONObject readObject(JsonReader reader) throws IOException, JSONException {
+        JSONObject jso = new JSONObject();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            jso.put(reader.nextName(), readValue(reader));
+        }
+        reader.endObject();
+        return jso;
+    }
+
+    private static JSONArray readArray(JsonReader reader) throws IOException, JSONException {
+        JSONArray jsa = new JSONArray();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            jsa.put(readValue(reader));
+        }
+        reader.endArray();
+        return jsa;
+    }
+}
@@ -20,6 +20,8 @@ import org.andstatus.app.context.MyPreferences;
 
 import cz.msebera.android.httpclient.HttpVersion;
 import cz.msebera.android.httpclient.client.HttpClient;
+import cz.msebera.android.httpclient.client.protocol.RequestAcceptEncoding;
+import cz.msebera.android.httpclient.client.protocol.ResponseContentEncoding;
 import cz.msebera.android.httpclient.conn.ClientConnectionManager;
 import cz.msebera.android.httpclient.conn.scheme.PlainSocketFactory;
 import cz.msebera.android.httpclient.conn.scheme.Scheme;
@@ -39,7 +41,7 @@ public class MisconfiguredSslHttpClientFactory {
         // Empty
     }
     
-    static HttpClient getHttpClient() {
+    static ClientConnectionManager newConnectionManager() {
         SchemeRegistry schemeRegistry = new SchemeRegistry();
         schemeRegistry.register(new Scheme("http", PlainSocketFactory.getSocketFactory(), 80));
         
@@ -49,9 +51,18 @@ public class MisconfiguredSslHttpClientFactory {
         socketFactory.setHostnameVerifier(SSLSocketFactory.ALLOW_ALL_HOSTNAME_VERIFIER);        
         schemeRegistry.register(new Scheme("https", socketFactory, 443));
 
-        HttpParams params = getHttpParams();        
-        ClientConnectionManager clientConnectionManager = new ThreadSafeClientConnManager(params, schemeRegistry);
-        HttpClient client = new DefaultHttpClient(clientConnectionManager, params);
+        ThreadSafeClientConnManager clientConnectionManager = new ThreadSafeClientConnManager(getHttpParams(),
+                schemeRegistry);
+        clientConnectionManager.setMaxTotal(MyHttpClientFactory.getMaxConnectionsTotal());
+        clientConnectionManager.setDefaultMaxPerRoute(MyPreferences.getMaxConnectionsPerHost());
+        return clientConnectionManager;
+    }
+
+    static HttpClient getHttpClient(ClientConnectionManager clientConnectionManager) {
+        DefaultHttpClient client = new DefaultHttpClient(clientConnectionManager, getHttpParams());
+        // Compressed transfer, as in clients, built by HttpClientBuilder
+        client.addRequestInterceptor(new RequestAcceptEncoding());
+        client.addResponseInterceptor(new ResponseContentEncoding());
         client.getParams()
                 .setIntParameter(CoreConnectionPNames.CONNECTION_TIMEOUT,
                         MyPreferences.getConnectionTimeoutMs())
@@ -18,10 +18,15 @@ package org.andstatus.app.net.http;
 
 import org.andstatus.app.context.MyPreferences;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
 import cz.msebera.android.httpclient.client.HttpClient;
 import cz.msebera.android.httpclient.client.config.RequestConfig;
 import cz.msebera.android.httpclient.config.Registry;
 import cz.msebera.android.httpclient.config.RegistryBuilder;
+import cz.msebera.android.httpclient.conn.ClientConnectionManager;
 import cz.msebera.android.httpclient.conn.socket.ConnectionSocketFactory;
 import cz.msebera.android.httpclient.conn.socket.PlainConnectionSocketFactory;
 import cz.msebera.android.httpclient.impl.client.HttpClientBuilder;
@@ -29,30 +34,58 @@ import cz.msebera.android.httpclient.impl.client.HttpClients;
 import cz.msebera.android.httpclient.impl.conn.PoolingHttpClientConnectionManager;
 
 public class MyHttpClientFactory {
+    private static final long IDLE_CONNECTION_TIMEOUT_SECONDS = 60;
+    private static final int VALIDATE_AFTER_INACTIVITY_MS = 2000;
+    private static final Map<SslModeEnum, PooledHttpClient> pooledClients = new ConcurrentHashMap<>();
 
     /** Based on: https://github.com/rfc2822/davdroid/blob/master/src/at/bitfire/davdroid/webdav/DavHttpClient.java */
 
     private MyHttpClientFactory() {
         // Empty
     }
-    
+
+    /**
+     * The client is shared by all connections with the same SSL mode. Its connection pool is partitioned
+     * by routes (hosts), so connections to a host of each origin are kept alive and reused,
+     * and we don't do TLS handshake for every request.
+     * The client is recreated after connection preferences were changed, and connections of the old one are closed
+     */
+    static HttpClient getPooledHttpClient(SslModeEnum sslMode) {
+        PooledHttpClient pooled = pooledClients.compute(sslMode, (mode, existing) -> {
+            if (existing != null) {
+                if (existing.isUpToDate()) return existing;
+                existing.shutdown();
+            }
+            return new PooledHttpClient(mode);
+        });
+        pooled.closeIdleConnections();
+        return pooled.client;
+    }
+
     public static HttpClient getHttpClient(SslModeEnum sslMode) {
+        return getHttpClient(newConnectionManager(sslMode));
+    }
+
+    private static PoolingHttpClientConnectionManager newConnectionManager(SslModeEnum sslMode) {
         Registry<ConnectionSocketFactory> registry = 
                 RegistryBuilder.<ConnectionSocketFactory> create()
                     .register("http", PlainConnectionSocketFactory.getSocketFactory())
                     .register("https", TlsSniSocketFactory.getInstance(sslMode))
                     .build();
         PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(registry);
-        // max.  3 connections in total
-        connectionManager.setMaxTotal(3);
-        // max.  2 connections per host
-        connectionManager.setDefaultMaxPerRoute(2);
+        connectionManager.setMaxTotal(getMaxConnectionsTotal());
+        connectionManager.setDefaultMaxPerRoute(MyPreferences.getMaxConnectionsPerHost());
+        // Kept alive connections may be closed by a server at any time
+        connectionManager.setValidateAfterInactivity(VALIDATE_AFTER_INACTIVITY_MS);
+        return connectionManager;
+    }
 
+    private static HttpClient getHttpClient(PoolingHttpClientConnectionManager connectionManager) {
         // use request defaults from AndroidHttpClient
         RequestConfig requestConfig = RequestConfig.copy(RequestConfig.DEFAULT)
                 .setConnectTimeout(MyPreferences.getConnectionTimeoutMs())
                 .setSocketTimeout(2*MyPreferences.getConnectionTimeoutMs())
-                .setStaleConnectionCheckEnabled(false)
+                .setConnectionRequestTimeout(MyPreferences.getConnectionTimeoutMs())
                 .build();
         
         HttpClientBuilder builder = HttpClients.custom()
@@ -69,5 +102,53 @@ public class MyHttpClientFactory {
 
         return builder.build();
     }
-    
+
+    /** One more host per each lane of syncing, for media downloads and requests from UI */
+    static int getMaxConnectionsTotal() {
+        return MyPreferences.getMaxConnectionsPerHost() * (MyPreferences.getMaxConcurrentOriginsToSync() + 1);
+    }
+
+    private static class PooledHttpClient {
+        final int connectionTimeoutMs = MyPreferences.getConnectionTimeoutMs();
+        final int maxConnectionsPerHost = MyPreferences.getMaxConnectionsPerHost();
+        final int maxConnectionsTotal = getMaxConnectionsTotal();
+        final HttpClient client;
+        private final Runnable idleConnectionsCloser;
+        private final Runnable connectionManagerShutdown;
+
+        PooledHttpClient(SslModeEnum sslMode) {
+            if (sslMode == SslModeEnum.MISCONFIGURED) {
+                ClientConnectionManager connectionManager = MisconfiguredSslHttpClientFactory.newConnectionManager();
+                client = MisconfiguredSslHttpClientFactory.getHttpClient(connectionManager);
+                idleConnectionsCloser = () -> {
+                    connectionManager.closeExpiredConnections();
+                    connectionManager.closeIdleConnections(IDLE_CONNECTION_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                };
+                connectionManagerShutdown = connectionManager::shutdown;
+            } else {
+                PoolingHttpClientConnectionManager connectionManager = newConnectionManager(sslMode);
+                client = getHttpClient(connectionManager);
+                idleConnectionsCloser = () -> {
+                    connectionManager.closeExpiredConnections();
+                    connectionManager.closeIdleConnections(IDLE_CONNECTION_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                };
+                connectionManagerShutdown = connectionManager::shutdown;
+            }
+        }
+
+        boolean isUpToDate() {
+            return connectionTimeoutMs == MyPreferences.getConnectionTimeoutMs()
+                    && maxConnectionsPerHost == MyPreferences.getMaxConnectionsPerHost()
+                    && maxConnectionsTotal == getMaxConnectionsTotal();
+        }
+
+        void closeIdleConnections() {
+            idleConnectionsCloser.run();
+        }
+
+        /** Closes all connections of the pool. Requests, still executed by the old client, fail */
+        void shutdown() {
+            connectionManagerShutdown.run();
+        }
+    }
 }
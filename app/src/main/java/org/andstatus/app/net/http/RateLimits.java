@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2018 yvolk (Yuri Volkov), http://yurivolkov.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.andstatus.app.net.http;
+
+import android.support.annotation.NonNull;
+
+import net.jcip.annotations.GuardedBy;
+
+import org.andstatus.app.net.http.ConnectionException.StatusCode;
+import org.andstatus.app.util.MyLog;
+import org.andstatus.app.util.StringUtils;
+
+import java.text.DateFormat;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps requests of each account within rate limits, announced by a server in response headers,
+ * instead of sending requests, which the server would refuse.
+ * Remaining quota of an endpoint (an URL path) is tracked in a token bucket, which is refilled
+ * so that the quota is spread evenly until the server resets it.
+ * After "Too many requests" response or a "Retry-After" header all requests of the account are postponed.
+ * A request waits for its turn, if the wait is short, otherwise it fails with a soft error,
+ * so the command is retried later, and commands of other accounts are executed meanwhile
+ * @author yvolk@yurivolkov.com
+ */
+public class RateLimits {
+    static final String LIMIT = "X-RateLimit-Limit";
+    static final String REMAINING = "X-RateLimit-Remaining";
+    static final String RESET = "X-RateLimit-Reset";
+    /** The same limits, as named by Twitter, see https://developer.twitter.com/en/docs/basics/rate-limiting */
+    static final String TWITTER_LIMIT = "x-rate-limit-limit";
+    static final String TWITTER_REMAINING = "x-rate-limit-remaining";
+    static final String TWITTER_RESET = "x-rate-limit-reset";
+    static final String RETRY_AFTER = "Retry-After";
+    static final List<String> HEADERS = Arrays.asList(LIMIT, REMAINING, RESET,
+            TWITTER_LIMIT, TWITTER_REMAINING, TWITTER_RESET, RETRY_AFTER);
+
+    /** Waiting for this time is better than retrying the command later */
+    static final long MAX_WAIT_MILLIS = TimeUnit.SECONDS.toMillis(10);
+    /** For "Too many requests" response without any hints of when to retry */
+    static final long DEFAULT_THROTTLE_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    /** Number of requests, which may be sent without pacing */
+    static final int BURST_SIZE = 5;
+    /** Values of {@link #RESET} below this are seconds till the reset, above - Unix time in seconds */
+    private static final long MAX_RESET_DELTA_SECONDS = TimeUnit.DAYS.toSeconds(365);
+
+    private static final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    /** Time till which all requests of the account are postponed, by the account key */
+    private static final Map<String, Long> throttledAccounts = new ConcurrentHashMap<>();
+
+    private RateLimits() {
+        // Empty
+    }
+
+    static class Bucket {
+        @GuardedBy("this")
+        private long resetAt = 0;
+        /** Tokens per millisecond */
+        @GuardedBy("this")
+        private double rate = 0;
+        @GuardedBy("this")
+        private double capacity = 0;
+        @GuardedBy("this")
+        private double tokens = 0;
+        @GuardedBy("this")
+        private long refilledAt = 0;
+
+        synchronized void onLimits(long remaining, long resetAt, long now) {
+            boolean newPeriod = this.resetAt <= now;
+            refill(now);
+            this.resetAt = resetAt;
+            rate = (double) remaining / (resetAt - now);
+            capacity = Math.min(BURST_SIZE, remaining);
+            tokens = newPeriod ? capacity : Math.min(tokens, capacity);
+        }
+
+        /** Takes a token
+         * @return milliseconds to wait till the token is available, 0 if it is available now */
+        synchronized long reserve(long now) {
+            if (resetAt <= now) return 0;
+
+            refill(now);
+            tokens -= 1;
+            if (tokens >= 0) return 0;
+            return rate > 0 ? Math.min((long) Math.ceil(-tokens / rate), resetAt - now) : resetAt - now;
+        }
+
+        synchronized void cancelReservation() {
+            tokens += 1;
+        }
+
+        @GuardedBy("this")
+        private void refill(long now) {
+            if (refilledAt > 0 && now > refilledAt) {
+                tokens = Math.min(capacity, tokens + (now - refilledAt) * rate);
+            }
+            refilledAt = now;
+        }
+    }
+
+    /** Waits for the turn of the request or throws {@link StatusCode#TOO_MANY_REQUESTS},
+     * if it cannot be sent soon */
+    static void beforeRequest(@NonNull HttpReadResult result, String accountKey) throws ConnectionException {
+        long now = System.currentTimeMillis();
+        long waitMillis = Math.max(0, getThrottledUntil(accountKey) - now);
+        Bucket bucket = buckets.get(toKey(accountKey, result.getUrlInitial()));
+        if (waitMillis <= MAX_WAIT_MILLIS && bucket != null) {
+            long bucketWait = bucket.reserve(now);
+            if (bucketWait > MAX_WAIT_MILLIS) bucket.cancelReservation();
+            waitMillis = Math.max(waitMillis, bucketWait);
+        }
+        if (waitMillis > MAX_WAIT_MILLIS) {
+            throw ConnectionException.fromStatusCode(StatusCode.TOO_MANY_REQUESTS,
+                    "Rate limited for " + TimeUnit.MILLISECONDS.toSeconds(waitMillis) + " seconds; "
+                            + result.toString());
+        }
+        if (waitMillis > 0) {
+            final long waitMillisLog = waitMillis;
+            MyLog.v(RateLimits.class, () -> "Waiting " + waitMillisLog + " ms for " + result.getUrl());
+            sleep(waitMillis);
+        }
+    }
+
+    /** Updates limits from headers of the response */
+    static void onResponse(@NonNull HttpReadResult result, String accountKey) {
+        long now = System.currentTimeMillis();
+        long retryAfter = parseTime(result.rateLimitHeaders.get(RETRY_AFTER), now);
+        if (retryAfter > now) {
+            throttleAccount(accountKey, retryAfter);
+        }
+        long remaining = parseLong(getHeader(result, REMAINING, TWITTER_REMAINING), -1);
+        long resetAt = parseTime(getHeader(result, RESET, TWITTER_RESET), now);
+        if (remaining >= 0 && resetAt > now) {
+            buckets.computeIfAbsent(toKey(accountKey, result.getUrlInitial()), key -> new Bucket())
+                    .onLimits(remaining, resetAt, now);
+        } else if (result.getStatusCode() == StatusCode.TOO_MANY_REQUESTS && retryAfter <= now) {
+            throttleAccount(accountKey, now + DEFAULT_THROTTLE_MILLIS);
+        }
+    }
+
+    private static String getHeader(@NonNull HttpReadResult result, String name, String twitterName) {
+        String value = result.rateLimitHeaders.get(name);
+        return StringUtils.isEmpty(value) ? result.rateLimitHeaders.get(twitterName) : value;
+    }
+
+    private static void throttleAccount(String accountKey, long until) {
+        throttledAccounts.merge(StringUtils.notNull(accountKey), until, Math::max);
+        MyLog.v(RateLimits.class, () -> "Account '" + accountKey + "' throttled for "
+                + TimeUnit.MILLISECONDS.toSeconds(until - System.currentTimeMillis()) + " seconds");
+    }
+
+    /** @return Unix time in milliseconds, till which requests of the account are postponed, 0 if not throttled */
+    public static long getThrottledUntil(String accountKey) {
+        Long until = throttledAccounts.get(StringUtils.notNull(accountKey));
+        if (until == null) return 0;
+        if (until > System.currentTimeMillis()) return until;
+        throttledAccounts.remove(StringUtils.notNull(accountKey), until);
+        return 0;
+    }
+
+    static void clear() {
+        buckets.clear();
+        throttledAccounts.clear();
+    }
+
+    /** @return Unix time in milliseconds or 0, if not parsed.
+     * Delta seconds, Unix time in seconds, ISO 8601 and HTTP date formats are supported */
+    static long parseTime(String value, long now) {
+        if (StringUtils.isEmpty(value)) return 0;
+        long seconds = parseLong(value, -1);
+        if (seconds >= 0) {
+            return seconds > MAX_RESET_DELTA_SECONDS
+                    ? TimeUnit.SECONDS.toMillis(seconds)
+                    : now + TimeUnit.SECONDS.toMillis(seconds);
+        }
+        for (String format : new String[]{"yyyy-MM-dd'T'HH:mm:ss.SSSX", "yyyy-MM-dd'T'HH:mm:ssX",
+                "EEE, dd MMM yyyy HH:mm:ss zzz"}) {
+            DateFormat dateFormat = new SimpleDateFormat(format, Locale.US);
+            try {
+                return dateFormat.parse(value.trim()).getTime();
+            } catch (ParseException e) {
+                // Try the next format
+            }
+        }
+        MyLog.d(RateLimits.class, "Failed to parse the time: '" + value + "'");
+        return 0;
+    }
+
+    private static long parseLong(String value, long defaultValue) {
+        if (StringUtils.isEmpty(value)) return defaultValue;
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    /** Limits are per endpoint, so query and numeric IDs are excluded from the key */
+    static String toKey(String accountKey, String url) {
+        String path = StringUtils.notNull(url);
+        int queryIndex = path.indexOf('?');
+        if (queryIndex >= 0) path = path.substring(0, queryIndex);
+        return StringUtils.notNull(accountKey) + " " + path.replaceAll("/\\d+(?=[/.]|$)", "/*");
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -70,6 +70,8 @@ public class AActivity extends AObject {
     private TriState notified = TriState.UNKNOWN;
     private Actor notifiedActor = Actor.EMPTY;
     private NotificationEventType newNotificationEventType = NotificationEventType.EMPTY;
+    /** The new notification event, as stored in the database before the current {@link #save(MyContext)} */
+    private NotificationEventType storedNotificationEventType = NotificationEventType.EMPTY;
 
     @NonNull
     public static AActivity fromInner(@NonNull Actor actor, @NonNull ActivityType type,
@@ -369,13 +371,21 @@ public class AActivity extends AObject {
     public long save(MyContext myContext) {
         if (wontSave(myContext)) return id;
         if (updatedDate > 0) calculateInteraction(myContext);
+        boolean saved;
         if (getId() == 0) {
             id = DbUtils.addRowWithRetry(myContext, ActivityTable.TABLE_NAME, toContentValues(), 3);
+            saved = id > 0;
+            myContext.oidToIdCache().put(OidEnum.ACTIVITY_OID, accountActor.origin.getId(),
+                    timelinePosition.getPosition(), id);
             MyLog.v(this, () -> "Added " + this);
         } else {
-            DbUtils.updateRowWithRetry(myContext, ActivityTable.TABLE_NAME, getId(), toContentValues(), 3);
+            saved = DbUtils.updateRowWithRetry(myContext, ActivityTable.TABLE_NAME, getId(), toContentValues(), 3) > 0;
             MyLog.v(this, () -> "Updated " + this);
         }
+        if (saved && notified.known) {
+            myContext.getNotifier().events.onActivitySaved(accountActor.actorId, storedNotificationEventType,
+                    newNotificationEventType, updatedDate);
+        }
         afterSave(myContext);
         return id;
     }
@@ -396,10 +406,17 @@ public class AActivity extends AObject {
         if (getId() == 0) {
             findExisting(myContext);
         }
+        storedNotificationEventType = NotificationEventType.EMPTY;
         if (getId() != 0) {
-            long storedUpdatedDate = MyQuery.idToLongColumnValue(
-                    myContext.getDatabase(), ActivityTable.TABLE_NAME, ActivityTable.UPDATED_DATE, id);
-            if (updatedDate <= storedUpdatedDate) {
+            final String sql = "SELECT " + ActivityTable.UPDATED_DATE + ", " + ActivityTable.NEW_NOTIFICATION_EVENT
+                    + " FROM " + ActivityTable.TABLE_NAME + " WHERE " + ActivityTable._ID + "=" + id;
+            final Pair<Long, NotificationEventType> stored = MyQuery.foldLeft(myContext, sql,
+                    new Pair<>(0L, NotificationEventType.EMPTY),
+                    pair -> cursor -> new Pair<>(DbUtils.getLong(cursor, ActivityTable.UPDATED_DATE),
+                            NotificationEventType.fromId(
+                                    DbUtils.getLong(cursor, ActivityTable.NEW_NOTIFICATION_EVENT))));
+            storedNotificationEventType = stored.second;
+            if (updatedDate <= stored.first) {
                 MyLog.v(this, () -> "Skipped as not younger " + this);
                 return true;
             }
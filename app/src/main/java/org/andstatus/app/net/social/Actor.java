@@ -25,6 +25,7 @@ import org.andstatus.app.context.MyContextHolder;
 import org.andstatus.app.context.MyPreferences;
 import org.andstatus.app.data.ActorSql;
 import org.andstatus.app.data.AvatarFile;
+import org.andstatus.app.data.ColumnIndexedCursor;
 import org.andstatus.app.data.DbUtils;
 import org.andstatus.app.data.MyQuery;
 import org.andstatus.app.data.OidEnum;
@@ -137,31 +138,73 @@ public class Actor implements Comparable<Actor>, IsEmpty {
         return MyQuery.get(myContext, sql, function).stream().findFirst().orElseGet(supplier);
     }
 
+    /** Indexes of columns, read by {@link #fromCursor(MyContext, Cursor)} */
+    private static class Columns {
+        final int updatedDate;
+        final int originId;
+        final int actorId;
+        final int actorOid;
+        final int realName;
+        final int username;
+        final int webFingerId;
+        final int description;
+        final int location;
+        final int profileUrl;
+        final int homepage;
+        final int avatarUrl;
+        final int notesCount;
+        final int favoritesCount;
+        final int followingCount;
+        final int followersCount;
+        final int createdDate;
+
+        Columns(Cursor cursor) {
+            updatedDate = cursor.getColumnIndex(ActorTable.UPDATED_DATE);
+            originId = cursor.getColumnIndex(ActorTable.ORIGIN_ID);
+            actorId = cursor.getColumnIndex(ActorTable.ACTOR_ID);
+            actorOid = cursor.getColumnIndex(ActorTable.ACTOR_OID);
+            realName = cursor.getColumnIndex(ActorTable.REAL_NAME);
+            username = cursor.getColumnIndex(ActorTable.USERNAME);
+            webFingerId = cursor.getColumnIndex(ActorTable.WEBFINGER_ID);
+            description = cursor.getColumnIndex(ActorTable.DESCRIPTION);
+            location = cursor.getColumnIndex(ActorTable.LOCATION);
+            profileUrl = cursor.getColumnIndex(ActorTable.PROFILE_URL);
+            homepage = cursor.getColumnIndex(ActorTable.HOMEPAGE);
+            avatarUrl = cursor.getColumnIndex(ActorTable.AVATAR_URL);
+            notesCount = cursor.getColumnIndex(ActorTable.NOTES_COUNT);
+            favoritesCount = cursor.getColumnIndex(ActorTable.FAVORITES_COUNT);
+            followingCount = cursor.getColumnIndex(ActorTable.FOLLOWING_COUNT);
+            followersCount = cursor.getColumnIndex(ActorTable.FOLLOWERS_COUNT);
+            createdDate = cursor.getColumnIndex(ActorTable.CREATED_DATE);
+        }
+    }
+
     /** Updates cache on load */
     @NonNull
     public static Actor fromCursor(MyContext myContext, Cursor cursor) {
-        final long updatedDate = DbUtils.getLong(cursor, ActorTable.UPDATED_DATE);
+        final Columns columns = ColumnIndexedCursor.columns(cursor, Columns.class, Columns::new);
+        final long updatedDate = DbUtils.getLong(cursor, columns.updatedDate);
         Actor actor = Actor.fromOriginAndActorId(
-                    myContext.origins().fromId(DbUtils.getLong(cursor, ActorTable.ORIGIN_ID)),
-                    DbUtils.getLong(cursor, ActorTable.ACTOR_ID),
-                    DbUtils.getString(cursor, ActorTable.ACTOR_OID));
-        actor.setRealName(DbUtils.getString(cursor, ActorTable.REAL_NAME));
-        actor.setUsername(DbUtils.getString(cursor, ActorTable.USERNAME));
-        actor.setWebFingerId(DbUtils.getString(cursor, ActorTable.WEBFINGER_ID));
-
-        actor.setDescription(DbUtils.getString(cursor, ActorTable.DESCRIPTION));
-        actor.location = DbUtils.getString(cursor, ActorTable.LOCATION);
-
-        actor.setProfileUrl(DbUtils.getString(cursor, ActorTable.PROFILE_URL));
-        actor.setHomepage(DbUtils.getString(cursor, ActorTable.HOMEPAGE));
-        actor.setAvatarUrl(DbUtils.getString(cursor, ActorTable.AVATAR_URL));
-
-        actor.notesCount = DbUtils.getLong(cursor, ActorTable.NOTES_COUNT);
-        actor.favoritesCount = DbUtils.getLong(cursor, ActorTable.FAVORITES_COUNT);
-        actor.followingCount = DbUtils.getLong(cursor, ActorTable.FOLLOWING_COUNT);
-        actor.followersCount = DbUtils.getLong(cursor, ActorTable.FOLLOWERS_COUNT);
-
-        actor.setCreatedDate(DbUtils.getLong(cursor, ActorTable.CREATED_DATE));
+                    myContext.origins().fromId(DbUtils.getLong(cursor, columns.originId)),
+                    DbUtils.getLong(cursor, columns.actorId),
+                    DbUtils.getString(cursor, columns.actorOid));
+        actor.setRealName(DbUtils.getString(cursor, columns.realName));
+        actor.setUsername(DbUtils.getString(cursor, columns.username));
+        actor.setWebFingerId(DbUtils.getString(cursor, columns.webFingerId));
+
+        actor.setDescription(DbUtils.getString(cursor, columns.description));
+        actor.location = DbUtils.getString(cursor, columns.location);
+
+        actor.setProfileUrl(DbUtils.getString(cursor, columns.profileUrl));
+        actor.setHomepage(DbUtils.getString(cursor, columns.homepage));
+        actor.setAvatarUrl(DbUtils.getString(cursor, columns.avatarUrl));
+
+        actor.notesCount = DbUtils.getLong(cursor, columns.notesCount);
+        actor.favoritesCount = DbUtils.getLong(cursor, columns.favoritesCount);
+        actor.followingCount = DbUtils.getLong(cursor, columns.followingCount);
+        actor.followersCount = DbUtils.getLong(cursor, columns.followersCount);
+
+        actor.setCreatedDate(DbUtils.getLong(cursor, columns.createdDate));
         actor.setUpdatedDate(updatedDate);
 
         actor.user = User.fromCursor(myContext, cursor);
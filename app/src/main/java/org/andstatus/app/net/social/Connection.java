@@ -75,6 +75,8 @@ public abstract class Connection {
         GET_FOLLOWERS_IDS,
         GET_OPEN_INSTANCES,
         GET_ACTOR,
+        /** Several actors by their IDs in one request */
+        GET_ACTORS,
         UPDATE_NOTE,
         UPDATE_NOTE_WITH_MEDIA,
         UPDATE_PRIVATE_NOTE,
@@ -353,6 +355,41 @@ public abstract class Connection {
     }
 
     protected abstract Actor getActor2(String actorOid, String username) throws ConnectionException;
+
+    /**
+     * Get information about several Actors at once, e.g. to resolve results of {@link #getFollowersIds(String)}.
+     * Actors, which were not returned by the server, are absent from the result.
+     * If {@link ApiRoutineEnum#GET_ACTORS} is not supported, the Actors are requested one by one
+     */
+    @NonNull
+    public List<Actor> getActorsByOids(@NonNull List<String> actorOids) throws ConnectionException {
+        long time = MyLog.uniqueCurrentTimeMS();
+        List<Actor> actors = isApiSupported(ApiRoutineEnum.GET_ACTORS)
+                ? getActorsByOids2(actorOids)
+                : getActorsOneByOne(actorOids);
+        for (Actor actor : actors) {
+            if (!actor.isPartiallyDefined() && actor.getUpdatedDate() <= SOME_TIME_AGO) actor.setUpdatedDate(time);
+        }
+        return actors;
+    }
+
+    @NonNull
+    protected List<Actor> getActorsByOids2(@NonNull List<String> actorOids) throws ConnectionException {
+        return getActorsOneByOne(actorOids);
+    }
+
+    @NonNull
+    protected final List<Actor> getActorsOneByOne(@NonNull List<String> actorOids) {
+        List<Actor> actors = new ArrayList<>();
+        for (String actorOid : actorOids) {
+            try {
+                actors.add(getActor2(actorOid, null));
+            } catch (ConnectionException e) {
+                MyLog.v(this, "Failed to get Actor oid=" + actorOid, e);
+            }
+        }
+        return actors;
+    }
     
     protected final String fixSinceId(String sinceId) {
         String out = "";
@@ -39,6 +39,7 @@ public class ConnectionMastodon extends ConnectionTwitterLike {
     private static final String NAME_PROPERTY = "spoiler_text";
     private static final String CONTENT_PROPERTY_UPDATE = "status";
     private static final String CONTENT_PROPERTY = "content";
+    private static final int MAX_ACCOUNTS_PER_LOOKUP = 40;
 
     @Override
     protected String getApiPath1(ApiRoutineEnum routine) {
@@ -108,6 +109,9 @@ public class ConnectionMastodon extends ConnectionTwitterLike {
             case GET_ACTOR:
                 url = "accounts/%actorId%";
                 break;
+            case GET_ACTORS:
+                url = "accounts";
+                break;
             case ANNOUNCE:
                 url = "statuses/%noteId%/reblog";
                 break;
@@ -198,8 +202,7 @@ public class ConnectionMastodon extends ConnectionTwitterLike {
         Uri.Builder builder = sUri.buildUpon();
         appendPositionParameters(builder, youngestPosition, oldestPosition);
         builder.appendQueryParameter("limit", strFixedDownloadLimit(limit, apiRoutine));
-        JSONArray jArr = http.getRequestAsArray(builder.build().toString());
-        return jArrToTimeline(jArr, apiRoutine, url);
+        return getActivities(apiRoutine, builder.build().toString());
     }
 
     @NonNull
@@ -411,7 +414,7 @@ public class ConnectionMastodon extends ConnectionTwitterLike {
 
     @Override
     public Actor getActor2(String actorOid, String username) throws ConnectionException {
-        JSONObject jso = http.getRequest(
+        JSONObject jso = http.getRequestIfModified(
                 getApiPathWithActorId(ApiRoutineEnum.GET_ACTOR, UriUtils.isRealOid(actorOid) ? actorOid : username)
         );
         Actor actor = actorFromJson(jso);
@@ -420,6 +423,30 @@ public class ConnectionMastodon extends ConnectionTwitterLike {
         return actor;
     }
 
+    /** Accounts by several "id[]" parameters. Servers, which don't support this,
+     * get the rest of the Actors one by one */
+    @NonNull
+    @Override
+    protected List<Actor> getActorsByOids2(@NonNull List<String> actorOids) throws ConnectionException {
+        List<Actor> actors = new ArrayList<>();
+        for (int from = 0; from < actorOids.size(); from += MAX_ACCOUNTS_PER_LOOKUP) {
+            List<String> oids = actorOids.subList(from, Math.min(from + MAX_ACCOUNTS_PER_LOOKUP, actorOids.size()));
+            Uri.Builder builder = Uri.parse(getApiPath(ApiRoutineEnum.GET_ACTORS)).buildUpon();
+            for (String oid : oids) {
+                builder.appendQueryParameter("id[]", oid);
+            }
+            String url = builder.build().toString();
+            try {
+                actors.addAll(jArrToActors(http.getRequestAsArray(url), ApiRoutineEnum.GET_ACTORS, url));
+            } catch (ConnectionException e) {
+                MyLog.d(this, "Lookup of accounts failed, getting them one by one", e);
+                actors.addAll(getActorsOneByOne(actorOids.subList(from, actorOids.size())));
+                break;
+            }
+        }
+        return actors;
+    }
+
     @Override
     public AActivity follow(String actorOid, Boolean follow) throws ConnectionException {
         JSONObject relationship = postRequest(getApiPathWithActorId(follow ? ApiRoutineEnum.FOLLOW :
@@ -71,6 +71,9 @@ public class ConnectionTwitterGnuSocial extends ConnectionTwitterLike {
             case SEARCH_NOTES:
                 url = "search.json";
                 break;
+            case GET_ACTORS:
+                // "users/lookup" is not implemented by GNU social
+                return "";
             default:
                 url = "";
                 break;
@@ -141,7 +144,7 @@ public class ConnectionTwitterGnuSocial extends ConnectionTwitterLike {
     
     @Override
     public OriginConfig getConfig() throws ConnectionException {
-        JSONObject result = http.getRequest(getApiPath(ApiRoutineEnum.GET_CONFIG));
+        JSONObject result = http.getRequestIfModified(getApiPath(ApiRoutineEnum.GET_CONFIG));
         OriginConfig config = OriginConfig.getEmpty();
         if (result != null) {
             JSONObject site = result.optJSONObject("site");
@@ -149,8 +152,8 @@ public class ConnectionTwitterGnuSocial extends ConnectionTwitterLike {
                 int textLimit = site.optInt("textlimit");
                 int uploadLimit = 0;
                 JSONObject attachments = site.optJSONObject("attachments");
-                if (attachments != null && site.optBoolean("uploads")) {
-                    uploadLimit = site.optInt("file_quota");
+                if (attachments != null && attachments.optBoolean("uploads")) {
+                    uploadLimit = attachments.optInt("file_quota");
                 }
                 config = OriginConfig.fromTextLimit(textLimit, uploadLimit);
                 // "shorturllength" is not used
@@ -31,6 +31,7 @@ import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -40,6 +41,7 @@ import java.util.List;
  */
 public abstract class ConnectionTwitterLike extends Connection {
     private static final String TAG = ConnectionTwitterLike.class.getSimpleName();
+    static final int MAX_ACTORS_PER_LOOKUP = 100;
 
     /**
      * URL of the API. Not logged
@@ -85,6 +87,9 @@ public abstract class ConnectionTwitterLike extends Connection {
             case GET_ACTOR:
                 url = "users/show.json";
                 break;
+            case GET_ACTORS:
+                url = "users/lookup.json";
+                break;
             case HOME_TIMELINE:
                 url = "statuses/home_timeline.json";
                 break;
@@ -218,8 +223,7 @@ public abstract class ConnectionTwitterLike extends Connection {
             throws ConnectionException {
         Uri.Builder builder = getTimelineUriBuilder(apiRoutine, limit, actorOid);
         appendPositionParameters(builder, youngestPosition, oldestPosition);
-        JSONArray jArr = http.getRequestAsArray(builder.build().toString());
-        return jArrToTimeline(jArr, apiRoutine, builder.build().toString());
+        return getActivities(apiRoutine, builder.build().toString());
     }
 
     @NonNull
@@ -434,8 +438,7 @@ public abstract class ConnectionTwitterLike extends Connection {
         }
         appendPositionParameters(builder, youngestPosition, oldestPosition);
         builder.appendQueryParameter("count", strFixedDownloadLimit(limit, apiRoutine));
-        JSONArray jArr = http.getRequestAsArray(builder.build().toString());
-        return jArrToTimeline(jArr, apiRoutine, url);
+        return getActivities(apiRoutine, builder.build().toString());
     }
 
     void appendPositionParameters(Uri.Builder builder, TimelinePosition youngest, TimelinePosition oldest) {
@@ -454,6 +457,19 @@ public abstract class ConnectionTwitterLike extends Connection {
         }
     }
 
+    /** Activities are parsed one by one, while the response is being read */
+    List<AActivity> getActivities(ApiRoutineEnum apiRoutine, String url) throws ConnectionException {
+        List<AActivity> timeline = new ArrayList<>();
+        http.getRequestAsArray(url, "items", item -> timeline.add(activityFromTwitterLikeJson(item)));
+        // Return the activities in chronological order
+        Collections.reverse(timeline);
+        if (apiRoutine.isNotePrivate()) {
+            setNotesPrivate(timeline);
+        }
+        MyLog.d(this, apiRoutine + " '" + url + "' " + timeline.size() + " items");
+        return timeline;
+    }
+
     List<AActivity> jArrToTimeline(JSONArray jArr, ApiRoutineEnum apiRoutine, String url) throws ConnectionException {
         List<AActivity> timeline = new ArrayList<>();
         if (jArr != null) {
@@ -511,13 +527,30 @@ public abstract class ConnectionTwitterLike extends Connection {
         } else {
             builder.appendQueryParameter("screen_name", username);
         }
-        JSONObject jso = http.getRequest(builder.build().toString());
+        JSONObject jso = http.getRequestIfModified(builder.build().toString());
         Actor actor = actorFromJson(jso);
         MyLog.v(this, () -> "getActor oid='" + actorOid
                 + "', username='" + username + "' -> " + actor.getRealName());
         return actor;
     }
     
+    /**
+     * @see <a href="https://developer.twitter.com/en/docs/accounts-and-users/follow-search-get-users/api-reference/get-users-lookup">GET users/lookup</a>
+     */
+    @NonNull
+    @Override
+    protected List<Actor> getActorsByOids2(@NonNull List<String> actorOids) throws ConnectionException {
+        List<Actor> actors = new ArrayList<>();
+        for (int from = 0; from < actorOids.size(); from += MAX_ACTORS_PER_LOOKUP) {
+            Uri.Builder builder = Uri.parse(getApiPath(ApiRoutineEnum.GET_ACTORS)).buildUpon();
+            builder.appendQueryParameter("user_id", String.join(",",
+                    actorOids.subList(from, Math.min(from + MAX_ACTORS_PER_LOOKUP, actorOids.size()))));
+            String url = builder.build().toString();
+            actors.addAll(jArrToActors(http.getRequestAsArray(url), ApiRoutineEnum.GET_ACTORS, url));
+        }
+        return actors;
+    }
+
     @Override
     public AActivity announce(String rebloggedNoteOid) throws ConnectionException {
         JSONObject jso = http.postRequest(getApiPathWithNoteId(ApiRoutineEnum.ANNOUNCE, rebloggedNoteOid));
@@ -49,6 +49,7 @@ import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -338,19 +339,11 @@ public class ConnectionPumpio extends Connection {
         }
         builder.appendQueryParameter("count", strFixedDownloadLimit(limit, apiRoutine));
         String url = builder.build().toString();
-        JSONArray jArr = conu.httpConnection.getRequestAsArray(url);
         List<AActivity> activities = new ArrayList<>();
-        if (jArr != null) {
-            // Read the activities in the chronological order
-            for (int index = jArr.length() - 1; index >= 0; index--) {
-                try {
-                    JSONObject jso = jArr.getJSONObject(index);
-                    activities.add(activityFromJson(jso));
-                } catch (JSONException e) {
-                    throw ConnectionException.loggedJsonException(this, "Parsing timeline", e, null);
-                }
-            }
-        }
+        // Activities are parsed one by one, while the response is being read
+        conu.httpConnection.getRequestAsArray(url, "items", item -> activities.add(activityFromJson(item)));
+        // Return the activities in the chronological order
+        Collections.reverse(activities);
         MyLog.d(TAG, "getTimeline '" + url + "' " + activities.size() + " notes");
         return activities;
     }
@@ -18,6 +18,7 @@ package org.andstatus.app.note;
 
 import android.content.Context;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
 import org.andstatus.app.R;
 import org.andstatus.app.account.MyAccount;
@@ -30,6 +31,7 @@ import org.andstatus.app.data.AttachedImageFile;
 import org.andstatus.app.data.DownloadStatus;
 import org.andstatus.app.net.social.Actor;
 import org.andstatus.app.origin.Origin;
+import org.andstatus.app.timeline.DownloadsUpdate;
 import org.andstatus.app.timeline.DuplicationLink;
 import org.andstatus.app.timeline.TimelineFilter;
 import org.andstatus.app.timeline.ViewItem;
@@ -39,8 +41,12 @@ import org.andstatus.app.util.RelativeTime;
 import org.andstatus.app.util.SharedPreferencesUtil;
 import org.andstatus.app.util.StringUtils;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 import static org.andstatus.app.timeline.DuplicationLink.DUPLICATES;
@@ -70,6 +76,8 @@ public abstract class BaseNoteViewItem<T extends BaseNoteViewItem<T>> extends Vi
     private String name = "";
     private String content = "";
     String contentToSearch = "";
+    private volatile boolean duplicatesKeysEvaluated = false;
+    private Set<Long> duplicatesKeys = null;
 
     boolean favorited = false;
     Map<Long, String> rebloggers = new HashMap<>();
@@ -175,6 +183,27 @@ public abstract class BaseNoteViewItem<T extends BaseNoteViewItem<T>> extends Vi
         return DuplicationLink.NONE;
     }
 
+    /** The note's ID and fingerprints of its content, see {@link #duplicatesByOther(Timeline, BaseNoteViewItem)} */
+    @Nullable
+    @Override
+    public Set<Long> getDuplicatesKeys() {
+        if (isEmpty()) return Collections.emptySet();
+
+        if (!duplicatesKeysEvaluated) {
+            Set<Long> keys = null;
+            Set<Long> fingerprints = isTooShortToCompare()
+                    ? Collections.emptySet()
+                    : ContentFingerprint.of(contentToSearch);
+            if (fingerprints != null) {
+                keys = new HashSet<>(fingerprints);
+                keys.add(getNoteId());
+            }
+            duplicatesKeys = keys;
+            duplicatesKeysEvaluated = true;
+        }
+        return duplicatesKeys;
+    }
+
     boolean isTooShortToCompare() {
         return contentToSearch.length() < MIN_LENGTH_TO_COMPARE;
     }
@@ -283,6 +312,31 @@ public abstract class BaseNoteViewItem<T extends BaseNoteViewItem<T>> extends Vi
         rebloggers.remove(actor.actorId);
     }
 
+    @Override
+    public void addRebloggersToLoad(Set<Long> noteIds) {
+        if (getNoteId() != 0) noteIds.add(getNoteId());
+    }
+
+    @Override
+    public void setLoadedRebloggers(Map<Long, List<Actor>> noteRebloggers) {
+        List<Actor> actors = noteRebloggers.get(getNoteId());
+        if (actors == null) return;
+        for (Actor actor : actors) {
+            rebloggers.put(actor.actorId, actor.getWebFingerId());
+        }
+    }
+
+    @Override
+    public boolean applyDownloads(DownloadsUpdate update) {
+        boolean changed = author.applyDownloads(update);
+        AttachedImageFile imageFile = update.applyToAttachment(attachedImageFile);
+        if (imageFile != attachedImageFile) {
+            attachedImageFile = imageFile;
+            changed = true;
+        }
+        return changed;
+    }
+
     @Override
     public void addActorsToLoad(ActorListLoader loader) {
         loader.addActorToList(author.getActor());
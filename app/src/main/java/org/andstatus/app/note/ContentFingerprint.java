@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2018 yvolk (Yuri Volkov), http://yurivolkov.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.andstatus.app.note;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Fingerprints of a content, selected by "winnowing" from hashes of all its substrings of {@link #K} chars.
+ * If one content contains another, not shorter than {@link #MIN_LENGTH}, they have at least one common fingerprint,
+ * so equal and containing contents may be looked up by fingerprints before comparing the strings.
+ * See <a href="https://theory.stanford.edu/~aiken/publications/papers/sigmod03.pdf">Winnowing:
+ * Local Algorithms for Document Fingerprinting</a>
+ * @author yvolk@yurivolkov.com
+ */
+class ContentFingerprint {
+    /** Length of hashed substrings */
+    static final int K = 8;
+    /** Number of consecutive hashes, from which the minimal one is selected */
+    static final int WINDOW = 8;
+    static final int MIN_LENGTH = K + WINDOW - 1;
+    private static final long BASE = 1_000_003;
+
+    private ContentFingerprint() {
+        // Empty
+    }
+
+    /** @return null if the content is too short to have guaranteed common fingerprints */
+    @Nullable
+    static Set<Long> of(@NonNull String content) {
+        if (content.length() < MIN_LENGTH) return null;
+
+        long[] hashes = hashesOfSubstrings(content);
+        Set<Long> fingerprints = new HashSet<>();
+        int selected = -1;
+        for (int start = 0; start + WINDOW <= hashes.length; start++) {
+            if (selected < start) {
+                selected = start;
+                for (int i = start + 1; i < start + WINDOW; i++) {
+                    if (hashes[i] <= hashes[selected]) selected = i;
+                }
+            } else if (hashes[start + WINDOW - 1] <= hashes[selected]) {
+                selected = start + WINDOW - 1;
+            }
+            fingerprints.add(hashes[selected]);
+        }
+        return fingerprints;
+    }
+
+    /** Rolling polynomial hashes of substrings of {@link #K} chars */
+    private static long[] hashesOfSubstrings(String content) {
+        long[] hashes = new long[content.length() - K + 1];
+        long power = 1;
+        for (int i = 1; i < K; i++) {
+            power *= BASE;
+        }
+        long hash = 0;
+        for (int i = 0; i < content.length(); i++) {
+            if (i >= K) {
+                hash -= content.charAt(i - K) * power;
+            }
+            hash = hash * BASE + content.charAt(i);
+            if (i >= K - 1) {
+                hashes[i - K + 1] = mix(hash);
+            }
+        }
+        return hashes;
+    }
+
+    /** Spreads the bits, so the minimal hashes are selected as if at random */
+    private static long mix(long hash) {
+        long h = hash;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
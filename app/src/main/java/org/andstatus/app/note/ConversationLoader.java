@@ -30,6 +30,7 @@ import org.andstatus.app.data.MyQuery;
 import org.andstatus.app.data.checker.CheckConversations;
 import org.andstatus.app.database.table.NoteTable;
 import org.andstatus.app.list.SyncLoader;
+import org.andstatus.app.net.social.Actor;
 import org.andstatus.app.net.social.Connection;
 import org.andstatus.app.service.CommandData;
 import org.andstatus.app.service.CommandEnum;
@@ -42,8 +43,12 @@ import org.andstatus.app.util.MyLog;
 import org.andstatus.app.util.StringUtils;
 
 import java.io.Serializable;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -66,9 +71,13 @@ public abstract class ConversationLoader<T extends ConversationItem<T>> extends
     private final T tFactory;
 
     final Map<Long, T> cachedItems = new ConcurrentHashMap<>();
+    /** Replies to a note from the {@link #cachedItems}, by id of the note */
+    final Map<Long, List<T>> repliesIndex = new HashMap<>();
     LoadableListActivity.ProgressPublisher mProgress;
 
-    final List<Long> idsOfItemsToFind = new ArrayList<>();
+    final Set<Long> idsOfItemsToFind = new HashSet<>();
+    /** Ids of notes in the {@link #items}, so we don't search the list */
+    private final Set<Long> idsOfItems = new HashSet<>();
 
     public ConversationLoader(T emptyItem, MyContext myContext, MyAccount ma, long selectedNoteId, boolean sync) {
         tFactory = emptyItem;
@@ -90,6 +99,7 @@ public abstract class ConversationLoader<T extends ConversationItem<T>> extends
             load1();
         }
         loadActors(items);
+        loadRebloggers(items);
         items.sort(replyLevelComparator);
         enumerateNotes();
     }
@@ -97,7 +107,9 @@ public abstract class ConversationLoader<T extends ConversationItem<T>> extends
     private void load1() {
         conversationIds.clear();
         cachedItems.clear();
+        repliesIndex.clear();
         idsOfItemsToFind.clear();
+        idsOfItems.clear();
         items.clear();
         if (sync) {
             requestConversationSync(selectedNoteId);
@@ -112,6 +124,12 @@ public abstract class ConversationLoader<T extends ConversationItem<T>> extends
 
     protected abstract void load2(T oMsg);
 
+    void cacheItem(T item) {
+        if (cachedItems.put(item.getNoteId(), item) == null && item.inReplyToNoteId != 0) {
+            repliesIndex.computeIfAbsent(item.inReplyToNoteId, id -> new ArrayList<>()).add(item);
+        }
+    }
+
     void cacheConversation(T oMsg) {
         // Empty
     }
@@ -138,15 +156,22 @@ public abstract class ConversationLoader<T extends ConversationItem<T>> extends
         items.forEach(item -> item.setLoadedActors(loader));
     }
 
+    private void loadRebloggers(List<T> items) {
+        Set<Long> noteIds = new HashSet<>();
+        items.forEach(item -> item.addRebloggersToLoad(noteIds));
+        if (noteIds.isEmpty()) return;
+        Map<Long, List<Actor>> rebloggers = MyQuery.getRebloggers(myContext, noteIds);
+        items.forEach(item -> item.setLoadedRebloggers(rebloggers));
+    }
+
     /** Returns true if note was added false in a case the note existed already */
     protected boolean addNoteIdToFind(long noteId) {
         if (noteId == 0) {
             return false;
-        } else if (idsOfItemsToFind.contains(noteId)) {
+        } else if (!idsOfItemsToFind.add(noteId)) {
             MyLog.v(this, () -> "find cycled on the id=" + noteId);
             return false;
         }
-        idsOfItemsToFind.add(noteId);
         return true;
     }
 
@@ -195,7 +220,7 @@ public abstract class ConversationLoader<T extends ConversationItem<T>> extends
 
     protected boolean addNoteToList(T oMsg) {
         boolean added = false;
-        if (items.contains(oMsg)) {
+        if (!idsOfItems.add(oMsg.getNoteId())) {
             MyLog.v(this, () -> "Note id=" + oMsg.getNoteId() + " is in the list already");
         } else {
             items.add(oMsg);
@@ -266,12 +291,26 @@ public abstract class ConversationLoader<T extends ConversationItem<T>> extends
         int list = -1;
         int history = 1;
     }
-    
+
+    private static class BranchItem {
+        final ConversationItem item;
+        final int indent;
+
+        BranchItem(ConversationItem item, int indent) {
+            this.item = item;
+            this.indent = indent;
+        }
+    }
+
     private void enumerateNotes() {
         idsOfItemsToFind.clear();
+        Map<Long, List<ConversationItem>> replies = new HashMap<>();
         for (ConversationItem item : items) {
             item.mListOrder = 0;
             item.historyOrder = 0;
+            if (item.inReplyToNoteId != 0) {
+                replies.computeIfAbsent(item.inReplyToNoteId, id -> new ArrayList<>()).add(item);
+            }
         }
         OrderCounters order = new OrderCounters();
         for (int ind = items.size()-1; ind >= 0; ind--) {
@@ -279,28 +318,34 @@ public abstract class ConversationLoader<T extends ConversationItem<T>> extends
             if (oMsg.mListOrder < 0 ) {
                 continue;
             }
-            enumerateBranch(oMsg, order, 0);
+            enumerateBranch(oMsg, order, replies);
         }
     }
 
-    private void enumerateBranch(ConversationItem oMsg, OrderCounters order, int indent) {
-        if (!addNoteIdToFind(oMsg.getNoteId())) {
-            return;
-        }
-        int indentNext = indent;
-        oMsg.historyOrder = order.history++;
-        oMsg.mListOrder = order.list--;
-        oMsg.indentLevel = indent;
-        if ((oMsg.mNReplies > 1 || oMsg.mNParentReplies > 1)
-                && indentNext < MAX_INDENT_LEVEL) {
-            indentNext++;
-        }
-        for (int ind = items.size() - 1; ind >= 0; ind--) {
-           ConversationItem reply = items.get(ind);
-           if (reply.inReplyToNoteId == oMsg.getNoteId()) {
-               reply.mNParentReplies = oMsg.mNReplies;
-               enumerateBranch(reply, order, indentNext);
-           }
+    /** Walks the branch depth-first without recursion, so long threads don't overflow the stack */
+    private void enumerateBranch(ConversationItem root, OrderCounters order,
+                                 Map<Long, List<ConversationItem>> replies) {
+        Deque<BranchItem> stack = new ArrayDeque<>();
+        stack.push(new BranchItem(root, 0));
+        while (!stack.isEmpty()) {
+            BranchItem branchItem = stack.pop();
+            ConversationItem oMsg = branchItem.item;
+            if (!addNoteIdToFind(oMsg.getNoteId())) {
+                continue;
+            }
+            int indentNext = branchItem.indent;
+            oMsg.historyOrder = order.history++;
+            oMsg.mListOrder = order.list--;
+            oMsg.indentLevel = branchItem.indent;
+            if ((oMsg.mNReplies > 1 || oMsg.mNParentReplies > 1)
+                    && indentNext < MAX_INDENT_LEVEL) {
+                indentNext++;
+            }
+            // Replies later in the list are visited first
+            for (ConversationItem reply : replies.getOrDefault(oMsg.getNoteId(), Collections.emptyList())) {
+                reply.mNParentReplies = oMsg.mNReplies;
+                stack.push(new BranchItem(reply, indentNext));
+            }
         }
     }
 
@@ -22,16 +22,13 @@ import android.support.annotation.NonNull;
 import android.text.Html;
 
 import org.andstatus.app.actor.ActorViewItem;
-import org.andstatus.app.context.MyContextHolder;
 import org.andstatus.app.context.MyPreferences;
 import org.andstatus.app.data.AttachedImageFile;
 import org.andstatus.app.data.DbUtils;
 import org.andstatus.app.data.DownloadStatus;
-import org.andstatus.app.data.MyQuery;
 import org.andstatus.app.data.TimelineSql;
 import org.andstatus.app.database.table.ActivityTable;
 import org.andstatus.app.database.table.NoteTable;
-import org.andstatus.app.net.social.Actor;
 import org.andstatus.app.util.MyStringBuilder;
 import org.andstatus.app.util.StringUtils;
 import org.andstatus.app.util.TriState;
@@ -100,9 +97,5 @@ public class ConversationViewItem extends ConversationItem<ConversationViewItem>
 
             ind++;
         } while (cursor.moveToNext());
-
-        for (Actor actor : MyQuery.getRebloggers(MyContextHolder.get().getDatabase(), getOrigin(), getNoteId())) {
-            rebloggers.put(actor.actorId, actor.getWebFingerId());
-        }
     }
 }
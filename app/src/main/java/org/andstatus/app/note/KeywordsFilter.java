@@ -18,14 +18,22 @@ package org.andstatus.app.note;
 
 import android.support.annotation.NonNull;
 
+import org.andstatus.app.context.MyPreferences;
 import org.andstatus.app.util.IsEmpty;
+import org.andstatus.app.util.LazyVal;
 import org.andstatus.app.util.MyHtml;
+import org.andstatus.app.util.SharedPreferencesUtil;
 import org.andstatus.app.util.StringUtils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
+/** Immutable, so it may be shared between threads */
 public class KeywordsFilter implements IsEmpty {
     static final String CONTAINS_PREFIX = "contains:";
 
@@ -63,13 +71,34 @@ public class KeywordsFilter implements IsEmpty {
         }
     }
 
+    private final String keywordsIn;
     final List<Keyword> keywordsToFilter;
     private final List<String> keywordsRaw;
+    private final LazyVal<KeywordsMatcher> matcher = LazyVal.of(() -> new KeywordsMatcher(
+            keywordsToFilter.stream().map(keyword -> keyword.value).collect(Collectors.toList())));
+    private static volatile KeywordsFilter hideNotesFilter = new KeywordsFilter("");
     private static final char DOUBLE_QUOTE = '"';
+    /** Characters, which the "simple" tokenizer of SQLite full text search treats as separators:
+     * all ASCII characters except letters and digits */
+    private static final Pattern FTS_SEPARATORS_PATTERN = Pattern.compile("[\\x00-\\x2F\\x3A-\\x40\\x5B-\\x60\\x7B-\\x7F]+");
 
     public KeywordsFilter(String keywordsIn) {
-        keywordsRaw = parseFilterString(keywordsIn);
-        keywordsToFilter = rawToActual(keywordsRaw);
+        this.keywordsIn = StringUtils.notNull(keywordsIn);
+        keywordsRaw = Collections.unmodifiableList(parseFilterString(keywordsIn));
+        keywordsToFilter = Collections.unmodifiableList(rawToActual(keywordsRaw));
+    }
+
+    /** The filter of {@link MyPreferences#KEY_FILTER_HIDE_NOTES_BASED_ON_KEYWORDS},
+     * shared by all callers and rebuilt only when the preference changes */
+    @NonNull
+    public static KeywordsFilter getHideNotesFilter() {
+        String keywords = SharedPreferencesUtil.getString(MyPreferences.KEY_FILTER_HIDE_NOTES_BASED_ON_KEYWORDS, "");
+        KeywordsFilter filter = hideNotesFilter;
+        if (!filter.keywordsIn.equals(keywords)) {
+            filter = new KeywordsFilter(keywords);
+            hideNotesFilter = filter;
+        }
+        return filter;
     }
 
     @NonNull
@@ -138,24 +167,14 @@ public class KeywordsFilter implements IsEmpty {
         if (keywordsToFilter.isEmpty() || StringUtils.isEmpty(s)) {
             return false;
         }
-        for (Keyword keyword : keywordsToFilter) {
-            if (s.contains(keyword.value)) {
-                return true;
-            }
-        }
-        return false;
+        return matcher.get().matchedAny(s);
     }
 
     public boolean matchedAll(String s) {
         if (keywordsToFilter.isEmpty() || StringUtils.isEmpty(s)) {
             return false;
         }
-        for (Keyword keyword : keywordsToFilter) {
-            if (!s.contains(keyword.value)) {
-                return false;
-            }
-        }
-        return true;
+        return matcher.get().matchedAll(s);
     }
 
     @NonNull
@@ -182,6 +201,31 @@ public class KeywordsFilter implements IsEmpty {
         return selectionArgsOut;
     }
 
+    /**
+     * Query for the full text search index, see {@link org.andstatus.app.database.table.NoteFtsTable}.
+     * Each keyword becomes a phrase of its words, so the query selects a superset of notes,
+     * matched by {@link #getSqlSelection(String)}. "contains:" keywords are not whole words and are skipped
+     * @return empty if there is nothing to search in the index
+     */
+    @NonNull
+    public String getFtsMatchQuery() {
+        StringBuilder query = new StringBuilder();
+        for (Keyword keyword : keywordsToFilter) {
+            if (keyword.contains) continue;
+
+            // The keyword value contains both a word and its prefixed form, e.g. ",tag,#tag,"
+            String words = Arrays.stream(FTS_SEPARATORS_PATTERN.matcher(keyword.value).replaceAll(" ").trim()
+                    .split(" +")).filter(StringUtils::nonEmpty).distinct().collect(Collectors.joining(" "));
+            if (words.isEmpty()) continue;
+
+            if (query.length() > 0) {
+                query.append(" ");
+            }
+            query.append(DOUBLE_QUOTE).append(words).append(DOUBLE_QUOTE);
+        }
+        return query.toString();
+    }
+
     @NonNull
     public String getFirstTagOrFirstKeyword() {
         for (String keyword : keywordsRaw) {
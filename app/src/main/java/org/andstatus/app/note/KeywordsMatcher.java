@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2018 yvolk (Yuri Volkov), http://yurivolkov.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.andstatus.app.note;
+
+import android.support.annotation.NonNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+
+/**
+ * Immutable automaton, which finds occurrences of all keywords in one pass over a text,
+ * so the time of matching doesn't grow with the number of keywords.
+ * See <a href="https://en.wikipedia.org/wiki/Aho%E2%80%93Corasick_algorithm">Aho-Corasick algorithm</a>
+ * @author yvolk@yurivolkov.com
+ */
+class KeywordsMatcher {
+    private final int keywordsCount;
+    private final Node root;
+
+    private static class Node {
+        /** Sorted chars of transitions to the children */
+        char[] chars = new char[0];
+        Node[] children = new Node[0];
+        Node fail = null;
+        /** Indexes of the keywords, which end at this node, including keywords, which are suffixes of them */
+        int[] keywords = new int[0];
+
+        Node next(char c) {
+            int index = Arrays.binarySearch(chars, c);
+            return index < 0 ? null : children[index];
+        }
+    }
+
+    /** Temporary structure, from which the {@link Node}s are built */
+    private static class Builder {
+        final Map<Character, Builder> children = new TreeMap<>();
+        final List<Integer> keywords = new ArrayList<>();
+        final Node node = new Node();
+    }
+
+    KeywordsMatcher(@NonNull List<String> keywords) {
+        keywordsCount = keywords.size();
+        Builder rootBuilder = new Builder();
+        for (int index = 0; index < keywords.size(); index++) {
+            Builder builder = rootBuilder;
+            for (char c : keywords.get(index).toCharArray()) {
+                builder = builder.children.computeIfAbsent(c, k -> new Builder());
+            }
+            builder.keywords.add(index);
+        }
+        root = rootBuilder.node;
+        root.fail = root;
+
+        Queue<Builder> queue = new ArrayDeque<>();
+        queue.add(rootBuilder);
+        while (!queue.isEmpty()) {
+            Builder builder = queue.poll();
+            Node node = builder.node;
+            node.chars = new char[builder.children.size()];
+            node.children = new Node[builder.children.size()];
+            int i = 0;
+            for (Map.Entry<Character, Builder> entry : builder.children.entrySet()) {
+                char c = entry.getKey();
+                Node child = entry.getValue().node;
+                node.chars[i] = c;
+                node.children[i] = child;
+                i++;
+                child.fail = node == root ? root : step(node.fail, c);
+                queue.add(entry.getValue());
+            }
+            // Fail links lead to shorter prefixes, processed already
+            List<Integer> keywordsOfNode = new ArrayList<>(builder.keywords);
+            if (node != root) {
+                for (int index : node.fail.keywords) {
+                    if (!keywordsOfNode.contains(index)) keywordsOfNode.add(index);
+                }
+            }
+            node.keywords = keywordsOfNode.stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    /** Transition of the automaton: the longest keyword's prefix, which is a suffix of the text read */
+    private Node step(Node from, char c) {
+        Node node = from;
+        while (true) {
+            Node next = node.next(c);
+            if (next != null) return next;
+            if (node == root) return root;
+            node = node.fail;
+        }
+    }
+
+    boolean matchedAny(@NonNull String text) {
+        if (keywordsCount == 0) return false;
+
+        Node node = root;
+        for (int i = 0; i < text.length(); i++) {
+            node = step(node, text.charAt(i));
+            if (node.keywords.length > 0) return true;
+        }
+        return false;
+    }
+
+    boolean matchedAll(@NonNull String text) {
+        if (keywordsCount == 0) return false;
+
+        BitSet found = new BitSet(keywordsCount);
+        int foundCount = 0;
+        Node node = root;
+        for (int i = 0; i < text.length(); i++) {
+            node = step(node, text.charAt(i));
+            for (int index : node.keywords) {
+                if (!found.get(index)) {
+                    found.set(index);
+                    foundCount++;
+                }
+            }
+            if (foundCount == keywordsCount) return true;
+        }
+        return false;
+    }
+}
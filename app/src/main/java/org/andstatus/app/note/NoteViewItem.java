@@ -21,16 +21,14 @@ import android.text.Html;
 
 import org.andstatus.app.actor.ActorViewItem;
 import org.andstatus.app.context.MyContext;
-import org.andstatus.app.context.MyContextHolder;
 import org.andstatus.app.context.MyPreferences;
 import org.andstatus.app.data.AttachedImageFile;
+import org.andstatus.app.data.ColumnIndexedCursor;
 import org.andstatus.app.data.DbUtils;
 import org.andstatus.app.data.DownloadStatus;
-import org.andstatus.app.data.MyQuery;
 import org.andstatus.app.database.table.ActivityTable;
 import org.andstatus.app.database.table.ActorTable;
 import org.andstatus.app.database.table.NoteTable;
-import org.andstatus.app.net.social.Actor;
 import org.andstatus.app.util.I18n;
 import org.andstatus.app.util.MyHtml;
 import org.andstatus.app.util.MyLog;
@@ -59,26 +57,66 @@ public class NoteViewItem extends BaseNoteViewItem<NoteViewItem> {
         return new NoteViewItem(false);
     }
 
+    /** Indexes of columns, read by {@link #fromCursorRow(MyContext, Cursor)} */
+    private static class Columns {
+        final int noteId;
+        final int originId;
+        final int accountId;
+        final int name;
+        final int content;
+        final int contentToSearch;
+        final int inReplyToNoteId;
+        final int inReplyToActorId;
+        final int recipientName;
+        final int activityUpdatedDate;
+        final int updatedDate;
+        final int noteStatus;
+        final int authorId;
+        final int favorited;
+        final int reblogged;
+        final int via;
+
+        Columns(Cursor cursor) {
+            noteId = cursor.getColumnIndex(ActivityTable.NOTE_ID);
+            originId = cursor.getColumnIndex(ActivityTable.ORIGIN_ID);
+            accountId = cursor.getColumnIndex(ActivityTable.ACCOUNT_ID);
+            name = cursor.getColumnIndex(NoteTable.NAME);
+            content = cursor.getColumnIndex(NoteTable.CONTENT);
+            contentToSearch = cursor.getColumnIndex(NoteTable.CONTENT_TO_SEARCH);
+            inReplyToNoteId = cursor.getColumnIndex(NoteTable.IN_REPLY_TO_NOTE_ID);
+            inReplyToActorId = cursor.getColumnIndex(NoteTable.IN_REPLY_TO_ACTOR_ID);
+            recipientName = cursor.getColumnIndex(ActorTable.RECIPIENT_NAME);
+            activityUpdatedDate = cursor.getColumnIndex(ActivityTable.UPDATED_DATE);
+            updatedDate = cursor.getColumnIndex(NoteTable.UPDATED_DATE);
+            noteStatus = cursor.getColumnIndex(NoteTable.NOTE_STATUS);
+            authorId = cursor.getColumnIndex(NoteTable.AUTHOR_ID);
+            favorited = cursor.getColumnIndex(NoteTable.FAVORITED);
+            reblogged = cursor.getColumnIndex(NoteTable.REBLOGGED);
+            via = cursor.getColumnIndex(NoteTable.VIA);
+        }
+    }
+
     public NoteViewItem fromCursorRow(MyContext myContext, Cursor cursor) {
+        final Columns columns = ColumnIndexedCursor.columns(cursor, Columns.class, Columns::new);
         setMyContext(myContext);
-        setNoteId(DbUtils.getLong(cursor, ActivityTable.NOTE_ID));
-        setOrigin(myContext.origins().fromId(DbUtils.getLong(cursor, ActivityTable.ORIGIN_ID)));
-        setLinkedAccount(DbUtils.getLong(cursor, ActivityTable.ACCOUNT_ID));
+        setNoteId(DbUtils.getLong(cursor, columns.noteId));
+        setOrigin(myContext.origins().fromId(DbUtils.getLong(cursor, columns.originId)));
+        setLinkedAccount(DbUtils.getLong(cursor, columns.accountId));
 
-        setName(MyHtml.prepareForView(DbUtils.getString(cursor, NoteTable.NAME)));
-        setContent(MyHtml.prepareForView(DbUtils.getString(cursor, NoteTable.CONTENT)));
-        contentToSearch = DbUtils.getString(cursor, NoteTable.CONTENT_TO_SEARCH);
-        inReplyToNoteId = DbUtils.getLong(cursor, NoteTable.IN_REPLY_TO_NOTE_ID);
-        inReplyToActor = ActorViewItem.fromActorId(getOrigin(), DbUtils.getLong(cursor, NoteTable.IN_REPLY_TO_ACTOR_ID));
-        recipientName = DbUtils.getString(cursor, ActorTable.RECIPIENT_NAME);
-        activityUpdatedDate = DbUtils.getLong(cursor, ActivityTable.UPDATED_DATE);
-        updatedDate = DbUtils.getLong(cursor, NoteTable.UPDATED_DATE);
-        noteStatus = DownloadStatus.load(DbUtils.getLong(cursor, NoteTable.NOTE_STATUS));
-        author = ActorViewItem.fromActorId(getOrigin(), DbUtils.getLong(cursor, NoteTable.AUTHOR_ID));
-        favorited = DbUtils.getTriState(cursor, NoteTable.FAVORITED) == TriState.TRUE;
-        reblogged = DbUtils.getTriState(cursor, NoteTable.REBLOGGED) == TriState.TRUE;
+        setName(MyHtml.prepareForView(DbUtils.getString(cursor, columns.name)));
+        setContent(MyHtml.prepareForView(DbUtils.getString(cursor, columns.content)));
+        contentToSearch = DbUtils.getString(cursor, columns.contentToSearch);
+        inReplyToNoteId = DbUtils.getLong(cursor, columns.inReplyToNoteId);
+        inReplyToActor = ActorViewItem.fromActorId(getOrigin(), DbUtils.getLong(cursor, columns.inReplyToActorId));
+        recipientName = DbUtils.getString(cursor, columns.recipientName);
+        activityUpdatedDate = DbUtils.getLong(cursor, columns.activityUpdatedDate);
+        updatedDate = DbUtils.getLong(cursor, columns.updatedDate);
+        noteStatus = DownloadStatus.load(DbUtils.getLong(cursor, columns.noteStatus));
+        author = ActorViewItem.fromActorId(getOrigin(), DbUtils.getLong(cursor, columns.authorId));
+        favorited = DbUtils.getTriState(cursor, columns.favorited) == TriState.TRUE;
+        reblogged = DbUtils.getTriState(cursor, columns.reblogged) == TriState.TRUE;
 
-        String via = DbUtils.getString(cursor, NoteTable.VIA);
+        String via = DbUtils.getString(cursor, columns.via);
         if (!StringUtils.isEmpty(via)) {
             noteSource = Html.fromHtml(via).toString().trim();
         }
@@ -86,10 +124,6 @@ public class NoteViewItem extends BaseNoteViewItem<NoteViewItem> {
         if (MyPreferences.getDownloadAndDisplayAttachedImages()) {
             attachedImageFile = AttachedImageFile.fromCursor(cursor);
         }
-
-        for (Actor actor : MyQuery.getRebloggers(MyContextHolder.get().getDatabase(), getOrigin(), getNoteId())) {
-            rebloggers.put(actor.actorId, actor.getWebFingerId());
-        }
         return this;
     }
 
@@ -29,6 +29,10 @@ import org.andstatus.app.timeline.meta.Timeline;
 import org.andstatus.app.timeline.meta.TimelineType;
 import org.andstatus.app.util.MyLog;
 
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+
 /**
  * @author yvolk@yurivolkov.com
  */
@@ -40,7 +44,7 @@ public class RecursiveConversationLoader<T extends ConversationItem<T>> extends
 
     @Override
     protected void load2(T oMsg) {
-        findPreviousNotesRecursively(getItem(oMsg.getNoteId(), 0));
+        findPreviousNotes(getItem(oMsg.getNoteId(), 0));
     }
 
     @Override
@@ -57,39 +61,42 @@ public class RecursiveConversationLoader<T extends ConversationItem<T>> extends
                 while (cursor.moveToNext()) {
                     T oMsg2 = newONote(DbUtils.getLong(cursor, ActivityTable.NOTE_ID));
                     oMsg2.load(cursor);
-                    cachedItems.put(oMsg2.getNoteId(), oMsg2);
+                    cacheItem(oMsg2);
                 }
             }
         }
     }
 
-    private void findPreviousNotesRecursively(T oMsg) {
-        if (!addNoteIdToFind(oMsg.getNoteId())) {
-            return;
-        }
-        findRepliesRecursively(oMsg);
-        MyLog.v(this, () -> "findPreviousNotesRecursively id=" + oMsg.getNoteId() + " replies:" + oMsg.mNReplies);
-        loadItemFromDatabase(oMsg);
-        if (oMsg.isLoaded()) {
-            if (addNoteToList(oMsg)) {
-                if (oMsg.inReplyToNoteId != 0) {
-                    findPreviousNotesRecursively(getItem(oMsg.inReplyToNoteId,
-                            oMsg.replyLevel - 1));
+    /**
+     * Finds replies to the note and notes, to which it replies, walking the conversation
+     * without recursion, so that long threads don't overflow the stack
+     */
+    private void findPreviousNotes(T selected) {
+        Deque<T> stack = new ArrayDeque<>();
+        stack.push(selected);
+        while (!stack.isEmpty()) {
+            T oMsg = stack.pop();
+            if (!addNoteIdToFind(oMsg.getNoteId())) {
+                continue;
+            }
+            findReplies(oMsg, stack);
+            MyLog.v(this, () -> "findPreviousNotes id=" + oMsg.getNoteId() + " replies:" + oMsg.mNReplies);
+            loadItemFromDatabase(oMsg);
+            if (oMsg.isLoaded()) {
+                if (addNoteToList(oMsg) && oMsg.inReplyToNoteId != 0) {
+                    stack.push(getItem(oMsg.inReplyToNoteId, oMsg.replyLevel - 1));
                 }
+            } else if (mAllowLoadingFromInternet) {
+                loadFromInternet(oMsg.getNoteId());
             }
-        } else if (mAllowLoadingFromInternet) {
-            loadFromInternet(oMsg.getNoteId());
         }
     }
 
-    public void findRepliesRecursively(T oMsg) {
-        MyLog.v(this, () -> "findReplies for id=" + oMsg.getNoteId());
-        for (T oMsgReply : cachedItems.values()) {
-            if (oMsgReply.inReplyToNoteId == oMsg.getNoteId()) {
-                oMsg.mNReplies++;
-                oMsgReply.replyLevel = oMsg.replyLevel + 1;
-                findPreviousNotesRecursively(oMsgReply);
-            }
+    private void findReplies(T oMsg, Deque<T> stack) {
+        for (T oMsgReply : repliesIndex.getOrDefault(oMsg.getNoteId(), Collections.emptyList())) {
+            oMsg.mNReplies++;
+            oMsgReply.replyLevel = oMsg.replyLevel + 1;
+            stack.push(oMsgReply);
         }
     }
 }
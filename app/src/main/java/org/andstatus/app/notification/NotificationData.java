@@ -55,6 +55,11 @@ public class NotificationData {
         return this;
     }
 
+    NotificationData onEventsRemoved(long numberOfEvents) {
+        count = Math.max(0, count - numberOfEvents);
+        return this;
+    }
+
     PendingIntent getPendingIntent(MyContext myContext) {
         TimelineType timeLineType;
         switch (event) {
@@ -21,6 +21,8 @@ import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.support.annotation.NonNull;
 
+import net.jcip.annotations.GuardedBy;
+
 import org.andstatus.app.account.MyAccount;
 import org.andstatus.app.context.MyContext;
 import org.andstatus.app.data.DbUtils;
@@ -30,6 +32,7 @@ import org.andstatus.app.timeline.meta.Timeline;
 import org.andstatus.app.util.MyLog;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -39,10 +42,17 @@ import java.util.stream.Collectors;
  *
  */
 public class NotificationEvents {
+    private static final String COUNT_COLUMN = "cnt";
     public final MyContext myContext;
     public final Map<NotificationEventType, NotificationData> map = new ConcurrentHashMap<>();
     private volatile List<NotificationEventType> enabledEvents = Collections.emptyList();
 
+    /** Counts of new events by event type and by actorId of an account. Maintained incrementally,
+     * the database is re-read only when the counts became {@link #stale} */
+    @GuardedBy("this")
+    private final Map<NotificationEventType, Map<Long, NotificationData>> counters = new HashMap<>();
+    private volatile boolean stale = true;
+
     public NotificationEvents(MyContext myContext) {
         this.myContext = myContext;
     }
@@ -50,8 +60,7 @@ public class NotificationEvents {
     public void load() {
         enabledEvents = NotificationEventType.validValues.stream().filter(NotificationEventType::isEnabled)
                 .collect(Collectors.toList());
-        map.clear();
-        update();
+        reconcile();
     }
 
     public boolean isEnabled(@NonNull NotificationEventType eventType) {
@@ -63,14 +72,21 @@ public class NotificationEvents {
         return map.getOrDefault(eventType, NotificationData.EMPTY).count;
     }
 
-    void clearAll() {
+    synchronized void clearAll() {
+        counters.clear();
         map.clear();
         MyProvider.clearNotification(myContext, Timeline.EMPTY);
     }
 
-    public void clear(@NonNull Timeline timeline) {
+    public synchronized void clear(@NonNull Timeline timeline) {
         MyProvider.clearNotification(myContext, timeline);
-        update();
+        if (timeline.isEmpty()) {
+            counters.clear();
+        } else {
+            NotificationEventType.idsOfShownOn(timeline.getTimelineType())
+                    .forEach(id -> counters.remove(NotificationEventType.fromId(id)));
+        }
+        updateMap();
     }
 
     public boolean isEmpty() {
@@ -96,9 +112,20 @@ public class NotificationEvents {
         }
     }
 
+    /** The counts will be re-read from the database on the next {@link #update()},
+     * e.g. after activities were changed or deleted bypassing {@link #onActivitySaved} */
+    public void invalidate() {
+        stale = true;
+    }
+
+    /** Reads counts from the database only if they are stale */
     public void update() {
-        final String method = "update";
-        map.clear();
+        if (stale) reconcile();
+    }
+
+    /** Re-reads counts of new events from the database: one row per event type and account */
+    public void reconcile() {
+        final String method = "reconcile";
         SQLiteDatabase db = myContext.getDatabase();
         if (db == null) {
             MyLog.v(this, () -> method + "; Database is null");
@@ -106,36 +133,80 @@ public class NotificationEvents {
         }
         String sql = "SELECT " + ActivityTable.NEW_NOTIFICATION_EVENT + ", " +
                 ActivityTable.ACCOUNT_ID + ", " +
-                ActivityTable.UPDATED_DATE +
+                "COUNT(*) AS " + COUNT_COLUMN + ", " +
+                "MAX(" + ActivityTable.UPDATED_DATE + ") AS " + ActivityTable.UPDATED_DATE +
                 " FROM " + ActivityTable.TABLE_NAME +
-                " WHERE " + ActivityTable.NEW_NOTIFICATION_EVENT + "!=0";
-        try (Cursor cursor = db.rawQuery(sql, null)) {
-            while (cursor.moveToNext()) {
-                NotificationEventType eventType = NotificationEventType
-                        .fromId(DbUtils.getLong(cursor, ActivityTable.NEW_NOTIFICATION_EVENT));
-                MyAccount myAccount = myContext.accounts()
-                        .fromActorId(DbUtils.getLong(cursor, ActivityTable.ACCOUNT_ID));
-                long updatedDate = DbUtils.getLong(cursor, ActivityTable.UPDATED_DATE);
-                onNewEvent(eventType, myAccount, updatedDate);
+                " WHERE " + ActivityTable.NEW_NOTIFICATION_EVENT + "!=0" +
+                " GROUP BY " + ActivityTable.NEW_NOTIFICATION_EVENT + ", " + ActivityTable.ACCOUNT_ID;
+        synchronized (this) {
+            stale = false;
+            counters.clear();
+            try (Cursor cursor = db.rawQuery(sql, null)) {
+                while (cursor.moveToNext()) {
+                    NotificationEventType eventType = NotificationEventType
+                            .fromId(DbUtils.getLong(cursor, ActivityTable.NEW_NOTIFICATION_EVENT));
+                    getCounter(eventType, DbUtils.getLong(cursor, ActivityTable.ACCOUNT_ID))
+                            .onEventsAt(DbUtils.getLong(cursor, ActivityTable.UPDATED_DATE),
+                                    DbUtils.getLong(cursor, COUNT_COLUMN));
+                }
+            } catch (Exception e) {
+                stale = true;
+                MyLog.i(this, method + "; SQL:'" + sql + "'", e);
+            }
+            updateMap();
+        }
+    }
+
+    /** Keeps counts in sync with the new notification event of the saved activity */
+    public synchronized void onActivitySaved(long accountActorId, @NonNull NotificationEventType storedEventType,
+                                             @NonNull NotificationEventType eventType, long updatedDate) {
+        if (storedEventType.isEmpty() && eventType.isEmpty()) return;
+
+        if (!storedEventType.isEmpty()) {
+            Map<Long, NotificationData> accountCounters = counters.get(storedEventType);
+            NotificationData data = accountCounters == null ? null : accountCounters.get(accountActorId);
+            if (data != null && data.onEventsRemoved(1).count == 0) {
+                accountCounters.remove(accountActorId);
             }
-        } catch (Exception e) {
-            MyLog.i(this, method + "; SQL:'" + sql + "'", e);
         }
+        if (!eventType.isEmpty()) {
+            getCounter(eventType, accountActorId).onEventAt(updatedDate);
+        }
+        updateMap();
     }
 
     // TODO: event for an Actor, not for an Account
-    public void onNewEvent(NotificationEventType eventType, MyAccount myAccount, long updatedDate) {
-        NotificationData data = map.get(eventType);
-        if (data == null) {
-            if (isEnabled(eventType)) {
-                map.put(eventType, new NotificationData(eventType, myAccount).onEventAt(updatedDate));
+    public synchronized void onNewEvent(NotificationEventType eventType, MyAccount myAccount, long updatedDate) {
+        getCounter(eventType, myAccount.getActorId()).onEventAt(updatedDate);
+        updateMap();
+    }
+
+    @GuardedBy("this")
+    private NotificationData getCounter(NotificationEventType eventType, long accountActorId) {
+        return counters.computeIfAbsent(eventType, key -> new HashMap<>())
+                .computeIfAbsent(accountActorId, key -> new NotificationData(eventType,
+                        myContext.accounts().fromActorId(accountActorId)));
+    }
+
+    /** Events of different accounts are shown together */
+    @GuardedBy("this")
+    private void updateMap() {
+        for (NotificationEventType eventType : NotificationEventType.validValues) {
+            Map<Long, NotificationData> accountCounters = counters.get(eventType);
+            if (accountCounters == null || accountCounters.isEmpty() || !isEnabled(eventType)) {
+                map.remove(eventType);
+                continue;
             }
-        } else if( data.myAccount.equals(myAccount)) {
-            data.onEventAt(updatedDate);
-        } else {
-            NotificationData data2 = new NotificationData(eventType, MyAccount.EMPTY).onEventAt(updatedDate);
-            data2.onEventsAt(data.updatedDate, data.count);
-            map.put(eventType, data2);
+            NotificationData data = null;
+            for (NotificationData accountData : accountCounters.values()) {
+                if (data == null) {
+                    data = new NotificationData(eventType, accountData.myAccount);
+                } else if (!data.myAccount.equals(accountData.myAccount)) {
+                    data = new NotificationData(eventType, MyAccount.EMPTY).onEventsAt(data.updatedDate, data.count);
+                }
+                data.onEventsAt(accountData.updatedDate, accountData.count);
+            }
+            map.put(eventType, data);
         }
     }
 }
@@ -176,6 +176,7 @@ public class Notifier {
     public void onUnsentActivity(long activityId) {
         if (activityId == 0 || !events.isEnabled(NotificationEventType.OUTBOX)) return;
         MyProvider.setUnsentActivityNotification(events.myContext, activityId);
+        events.invalidate();
         update();
     }
 }
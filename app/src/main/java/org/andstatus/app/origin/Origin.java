@@ -86,6 +86,11 @@ public class Origin implements Comparable<Origin>, IsEmpty {
      */
     private int textLimit = OriginType.TEXT_LIMIT_MAXIMUM;
 
+    /**
+     * Maximum size of an uploaded file in bytes, 0 if unknown
+     */
+    private long uploadLimit = 0;
+
     
     /** Include this system in Global Search while in Combined Timeline */
     private boolean inCombinedGlobalSearch = false;
@@ -371,6 +376,10 @@ public class Origin implements Comparable<Origin>, IsEmpty {
         return textLimit;
     }
 
+    public long getUploadLimit() {
+        return uploadLimit;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -436,6 +445,7 @@ public class Origin implements Comparable<Origin>, IsEmpty {
             if (originType1.textLimitDefault == 0) {
                 setTextLimit(DbUtils.getInt(cursor, OriginTable.TEXT_LIMIT));
             }
+            setUploadLimit(DbUtils.getLong(cursor, OriginTable.UPLOAD_LIMIT));
             origin.setInCombinedGlobalSearch(DbUtils.getBoolean(cursor,
                     OriginTable.IN_COMBINED_GLOBAL_SEARCH));
             origin.setInCombinedPublicReload(DbUtils.getBoolean(cursor,
@@ -444,6 +454,10 @@ public class Origin implements Comparable<Origin>, IsEmpty {
             setUseLegacyHttpProtocol(DbUtils.getTriState(cursor, OriginTable.USE_LEGACY_HTTP));
         }
 
+        protected void setUploadLimit(long uploadLimit) {
+            origin.uploadLimit = Math.max(uploadLimit, 0);
+        }
+
         protected void setTextLimit(int textLimit) {
             if (textLimit <= 0) {
                 origin.textLimit = OriginType.TEXT_LIMIT_MAXIMUM;
@@ -462,6 +476,7 @@ public class Origin implements Comparable<Origin>, IsEmpty {
             setHtmlContentAllowed(original.allowHtml);
             origin.shortUrlLength = original.shortUrlLength;
             setTextLimit(original.getTextLimit());
+            setUploadLimit(original.uploadLimit);
             setInCombinedGlobalSearch(original.inCombinedGlobalSearch);
             setInCombinedPublicReload(original.inCombinedPublicReload);
             setMentionAsWebFingerId(original.mMentionAsWebFingerId);
@@ -555,6 +570,7 @@ public class Origin implements Comparable<Origin>, IsEmpty {
         public Builder save(OriginConfig config) {
             origin.shortUrlLength = config.shortUrlLength;
             setTextLimit(config.textLimit);
+            setUploadLimit(config.uploadLimit);
             save();
             return this;
         }
@@ -585,6 +601,7 @@ public class Origin implements Comparable<Origin>, IsEmpty {
             values.put(OriginTable.ALLOW_HTML, origin.allowHtml);
             values.put(OriginTable.SHORT_URL_LENGTH, origin.shortUrlLength);
             values.put(OriginTable.TEXT_LIMIT, origin.getTextLimit());
+            values.put(OriginTable.UPLOAD_LIMIT, origin.uploadLimit);
             values.put(OriginTable.IN_COMBINED_GLOBAL_SEARCH, origin.inCombinedGlobalSearch);
             values.put(OriginTable.IN_COMBINED_PUBLIC_RELOAD, origin.inCombinedPublicReload);
             values.put(OriginTable.MENTION_AS_WEBFINGER_ID, origin.mMentionAsWebFingerId.id);
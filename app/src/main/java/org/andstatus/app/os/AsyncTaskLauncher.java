@@ -70,15 +70,30 @@ public class AsyncTaskLauncher<Params> {
             }
             executor = null;
         }
+        final int corePoolSize = pool.getCorePoolSize();
         if (executor == null) {
             MyLog.v(TAG, () -> "Creating pool " + pool.name());
-            executor = new ThreadPoolExecutor(pool.corePoolSize, pool.corePoolSize + 1,
+            executor = new ThreadPoolExecutor(corePoolSize, corePoolSize + 1,
                     1, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(128));
             setExecutor(pool, executor);
+        } else if (executor.getCorePoolSize() != corePoolSize) {
+            resizeExecutor(pool, executor, corePoolSize);
         }
         return executor;
     }
 
+    private static void resizeExecutor(MyAsyncTask.PoolEnum pool, ThreadPoolExecutor executor, int corePoolSize) {
+        MyLog.v(TAG, () -> "Resizing pool " + pool.name() + " from " + executor.getCorePoolSize()
+                + " to " + corePoolSize + " threads");
+        if (corePoolSize > executor.getCorePoolSize()) {
+            executor.setMaximumPoolSize(corePoolSize + 1);
+            executor.setCorePoolSize(corePoolSize);
+        } else {
+            executor.setCorePoolSize(corePoolSize);
+            executor.setMaximumPoolSize(corePoolSize + 1);
+        }
+    }
+
     private static void setExecutor(MyAsyncTask.PoolEnum pool, ThreadPoolExecutor executor) {
         onExecutorRemoval(pool);
         switch (pool) {
@@ -24,6 +24,7 @@ import android.support.annotation.NonNull;
 
 import org.acra.ACRA;
 import org.andstatus.app.context.MyContextHolder;
+import org.andstatus.app.context.MyPreferences;
 import org.andstatus.app.util.IdentifiableInstance;
 import org.andstatus.app.util.InstanceId;
 import org.andstatus.app.util.MyLog;
@@ -60,7 +61,7 @@ public abstract class MyAsyncTask<Params, Progress, Result> extends AsyncTask<Pa
 
     public enum PoolEnum {
         SYNC(2, MAX_COMMAND_EXECUTION_SECONDS, true),
-        FILE_DOWNLOAD(1, MAX_COMMAND_EXECUTION_SECONDS, true),
+        FILE_DOWNLOAD(4, MAX_COMMAND_EXECUTION_SECONDS, true),
         QUICK_UI(0, 20, false),
         LONG_UI(1, MAX_COMMAND_EXECUTION_SECONDS, true);
 
@@ -73,6 +74,11 @@ public abstract class MyAsyncTask<Params, Progress, Result> extends AsyncTask<Pa
             this.maxCommandExecutionSeconds = maxCommandExecutionSeconds;
             this.mayBeShutDown = mayBeShutDown;
         }
+
+        /** The SYNC pool has one thread for each origin, synced in parallel, plus one for the HeartBeat */
+        public int getCorePoolSize() {
+            return this == SYNC ? MyPreferences.getMaxConcurrentOriginsToSync() + 1 : corePoolSize;
+        }
     }
 
     public final PoolEnum pool;
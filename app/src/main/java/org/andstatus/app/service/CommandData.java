@@ -30,6 +30,7 @@ import org.andstatus.app.account.MyAccount;
 import org.andstatus.app.context.MyContext;
 import org.andstatus.app.context.MyContextHolder;
 import org.andstatus.app.data.ContentValuesUtils;
+import org.andstatus.app.data.ColumnIndexedCursor;
 import org.andstatus.app.data.DbUtils;
 import org.andstatus.app.data.MyQuery;
 import org.andstatus.app.database.table.CommandTable;
@@ -248,21 +249,47 @@ public class CommandData implements Comparable<CommandData> {
         commandResult.toContentValues(values);
     }
 
+    /** Indexes of columns, read by {@link #fromCursor(MyContext, Cursor)} */
+    private static class Columns {
+        final int commandCode;
+        final int id;
+        final int accountId;
+        final int createdDate;
+        final int description;
+        final int inForeground;
+        final int manuallyLaunched;
+        final int itemId;
+        final int username;
+
+        Columns(Cursor cursor) {
+            commandCode = cursor.getColumnIndex(CommandTable.COMMAND_CODE);
+            id = cursor.getColumnIndex(CommandTable._ID);
+            accountId = cursor.getColumnIndex(CommandTable.ACCOUNT_ID);
+            createdDate = cursor.getColumnIndex(CommandTable.CREATED_DATE);
+            description = cursor.getColumnIndex(CommandTable.DESCRIPTION);
+            inForeground = cursor.getColumnIndex(CommandTable.IN_FOREGROUND);
+            manuallyLaunched = cursor.getColumnIndex(CommandTable.MANUALLY_LAUNCHED);
+            itemId = cursor.getColumnIndex(CommandTable.ITEM_ID);
+            username = cursor.getColumnIndex(CommandTable.USERNAME);
+        }
+    }
+
     public static CommandData fromCursor(MyContext myContext, Cursor cursor) {
-        CommandEnum command = CommandEnum.load(DbUtils.getString(cursor, CommandTable.COMMAND_CODE));
+        final Columns columns = ColumnIndexedCursor.columns(cursor, Columns.class, Columns::new);
+        CommandEnum command = CommandEnum.load(DbUtils.getString(cursor, columns.commandCode));
         if (CommandEnum.UNKNOWN.equals(command)) return CommandData.EMPTY;
 
         CommandData commandData = new CommandData(
-                DbUtils.getLong(cursor, CommandTable._ID),
+                DbUtils.getLong(cursor, columns.id),
                 command,
-                myContext.accounts().fromActorId(DbUtils.getLong(cursor, CommandTable.ACCOUNT_ID)),
+                myContext.accounts().fromActorId(DbUtils.getLong(cursor, columns.accountId)),
                 Timeline.fromCommandCursor(myContext, cursor),
-                DbUtils.getLong(cursor, CommandTable.CREATED_DATE));
-        commandData.description = DbUtils.getString(cursor, CommandTable.DESCRIPTION);
-        commandData.mInForeground = DbUtils.getBoolean(cursor, CommandTable.IN_FOREGROUND);
-        commandData.mManuallyLaunched = DbUtils.getBoolean(cursor, CommandTable.MANUALLY_LAUNCHED);
-        commandData.itemId = DbUtils.getLong(cursor, CommandTable.ITEM_ID);
-        commandData.setUsername(DbUtils.getString(cursor, CommandTable.USERNAME));
+                DbUtils.getLong(cursor, columns.createdDate));
+        commandData.description = DbUtils.getString(cursor, columns.description);
+        commandData.mInForeground = DbUtils.getBoolean(cursor, columns.inForeground);
+        commandData.mManuallyLaunched = DbUtils.getBoolean(cursor, columns.manuallyLaunched);
+        commandData.itemId = DbUtils.getLong(cursor, columns.itemId);
+        commandData.setUsername(DbUtils.getString(cursor, columns.username));
         commandData.commandResult = CommandResult.fromCursor(cursor);
         return commandData;
     }
@@ -355,6 +382,12 @@ public class CommandData implements Comparable<CommandData> {
         return timeline.getTimelineType();
     }
 
+    /** Commands of the same lane (i.e. of the same origin) are executed sequentially,
+     * commands of different lanes may be executed in parallel */
+    public long getLaneId() {
+        return myAccount.isValid() ? myAccount.getOriginId() : timeline.getOrigin().getId();
+    }
+
     public boolean isManuallyLaunched() {
         return mManuallyLaunched;
     }
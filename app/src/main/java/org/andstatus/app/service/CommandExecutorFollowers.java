@@ -34,16 +34,20 @@ import org.andstatus.app.timeline.meta.TimelineType;
 import org.andstatus.app.util.MyLog;
 import org.andstatus.app.util.RelativeTime;
 import org.andstatus.app.util.StringUtils;
-import org.andstatus.app.util.TriState;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * @author yvolk@yurivolkov.com
  */
 public class CommandExecutorFollowers extends CommandExecutorStrategy {
+    private static final int ACTORS_PER_LOOKUP = 100;
     List<Actor> actorsNew = new ArrayList<>();
     String commandSummary = "";
 
@@ -124,13 +128,7 @@ public class CommandExecutorFollowers extends CommandExecutorStrategy {
 
         if (updateNewActorsAndTheirLatestActions(actorsNew)) return;
 
-        for (Actor actor : actorsNew) {
-            actorIdsOld.remove(actor.actorId);
-            Friendship.setFollowed(execContext.myContext, actor, TriState.TRUE, getActor());
-        }
-        for (long actorIdOld : actorIdsOld) {
-            Friendship.setFollowed(execContext.myContext, Actor.load(execContext.myContext, actorIdOld), TriState.FALSE, getActor());
-        }
+        Friendship.setFollowers(execContext.myContext, getActor(), actorsNew, actorIdsOld);
         execContext.myContext.users().reload(getActor());
     }
 
@@ -153,42 +151,49 @@ public class CommandExecutorFollowers extends CommandExecutorStrategy {
 
         if (updateNewActorsAndTheirLatestActions(actorsNew)) return;
 
-        for (Actor actor : actorsNew) {
-            actorIdsOld.remove(actor.actorId);
-            Friendship.setFollowed(execContext.myContext, getActor(), TriState.TRUE, actor);
-        }
-        for (long actorIdOld : actorIdsOld) {
-            Friendship.setFollowed(execContext.myContext, getActor(), TriState.FALSE,
-                    Actor.load(execContext.myContext, actorIdOld));
-        }
+        Friendship.setFriends(execContext.myContext, getActor(), actorsNew, actorIdsOld);
         execContext.myContext.users().reload(getActor());
     }
 
+    /** Actors are requested in chunks, see {@link Connection#getActorsByOids(List)}.
+     * Actors, not returned by the server, but known already, are taken from the database
+     * @return true if we need to interrupt process */
     private boolean getActorsForOids(List<String> actorOidsNew, List<Actor> actorsNew) {
-        long count = 0;
-        for (String actorOidNew : actorOidsNew) {
-            Actor actor = null;
+        final long originId = execContext.getMyAccount().getOriginId();
+        for (int from = 0; from < actorOidsNew.size(); from += ACTORS_PER_LOOKUP) {
+            List<String> oids = actorOidsNew.subList(from, Math.min(from + ACTORS_PER_LOOKUP, actorOidsNew.size()));
+            Map<String, Actor> found = new HashMap<>();
             try {
-                count++;
-                actor = getConnection().getActor(actorOidNew, null);
-                execContext.getResult().incrementDownloadedCount();
+                for (Actor actor : getConnection().getActorsByOids(oids)) {
+                    found.put(actor.oid, actor);
+                    execContext.getResult().incrementDownloadedCount();
+                }
             } catch (ConnectionException e) {
-                long actorId = MyQuery.oidToId(OidEnum.ACTOR_OID,
-                        execContext.getMyAccount().getOriginId(), actorOidNew);
-                if (actorId == 0) {
-                    MyLog.i(this, "Failed to identify an Actor for oid=" + actorOidNew, e);
-                } else {
-                    actor = Actor.fromOriginAndActorOid(execContext.getMyAccount().getOrigin(), actorOidNew);
+                MyLog.i(this, "Failed to get Actors " + from + "-" + (from + oids.size()), e);
+            }
+            List<String> notFound = oids.stream().filter(oid -> !found.containsKey(oid)).collect(Collectors.toList());
+            Map<String, Long> knownIds = notFound.isEmpty()
+                    ? Collections.emptyMap()
+                    : MyQuery.oidsToIds(execContext.myContext, OidEnum.ACTOR_OID, originId, notFound);
+            for (String oid : oids) {
+                Actor actor = found.get(oid);
+                if (actor == null) {
+                    long actorId = knownIds.getOrDefault(oid, 0L);
+                    if (actorId == 0) {
+                        MyLog.i(this, "Failed to identify an Actor for oid=" + oid);
+                        continue;
+                    }
+                    actor = Actor.fromOriginAndActorOid(execContext.getMyAccount().getOrigin(), oid);
                     actor.actorId = actorId;
                     actor.setWebFingerId(MyQuery.actorIdToWebfingerId(actorId));
-                    MyLog.v(this, "Server doesn't return Actor object for " + actor , e);
+                    MyLog.v(this, "Server doesn't return Actor object for " + actor);
                 }
+                actorsNew.add(actor);
             }
-            if (actor != null) {
-                broadcastProgress(String.valueOf(count) + ". "
+            if (!actorsNew.isEmpty()) {
+                broadcastProgress(String.valueOf(actorsNew.size()) + ". "
                         + execContext.getContext().getText(R.string.get_user)
-                        + ": " + actor.getNamePreferablyWebFingerId(), true);
-                actorsNew.add(actor);
+                        + ": " + actorsNew.get(actorsNew.size() - 1).getNamePreferablyWebFingerId(), true);
             }
             if (logSoftErrorIfStopping()) {
                 return true;
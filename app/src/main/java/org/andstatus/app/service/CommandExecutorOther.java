@@ -24,6 +24,7 @@ import org.andstatus.app.context.DemoData;
 import org.andstatus.app.data.DataUpdater;
 import org.andstatus.app.data.DownloadData;
 import org.andstatus.app.data.DownloadStatus;
+import org.andstatus.app.data.MediaToUpload;
 import org.andstatus.app.data.MyProvider;
 import org.andstatus.app.data.MyQuery;
 import org.andstatus.app.data.OidEnum;
@@ -181,7 +182,11 @@ class CommandExecutorOther extends CommandExecutorStrategy{
                 actor = getConnection().getActor(actorIn.oid, username);
                 logIfActorIsEmpty(msgLog, actorIn.actorId, actor);
             } catch (ConnectionException e) {
-                logConnectionException(e, msgLog + actorInfoLogged(actorIn.actorId));
+                if (e.getStatusCode() == StatusCode.NOT_MODIFIED) {
+                    msgLog += ", not modified";
+                } else {
+                    logConnectionException(e, msgLog + actorInfoLogged(actorIn.actorId));
+                }
             }
         } else {
             msgLog += ", invalid actor IDs";
@@ -401,11 +406,12 @@ class CommandExecutorOther extends CommandExecutorStrategy{
         DemoData.crashTest(() -> content.startsWith("Crash me on sending 2015-04-10"));
         String oid = getNoteOid(method, noteId, false);
         Audience recipients = Audience.fromNoteId(execContext.getMyAccount().getOrigin(), noteId);
-        Uri mediaUri = DownloadData.getSingleAttachment(noteId).
-                mediaUriToBePosted();
+        MediaToUpload media = MediaToUpload.of(DownloadData.getSingleAttachment(noteId),
+                execContext.getMyAccount().getOrigin());
+        Uri mediaUri = media.uri;
         String msgLog = (StringUtils.nonEmpty(name) ? "name:'" + name + "'" : "")
                 + (StringUtils.nonEmpty(content) ? "content:'" + MyLog.trimmedString(content, 40) + "'" : "")
-                + (mediaUri.equals(Uri.EMPTY) ? "" : "; mediaUri:'" + mediaUri + "'");
+                + (media.isEmpty() ? "" : "; " + media);
         try {
             if (MyLog.isVerboseEnabled()) {
                 MyLog.v(this, () -> method + ";" + msgLog);
@@ -419,6 +425,10 @@ class CommandExecutorOther extends CommandExecutorStrategy{
             long inReplyToNoteId = MyQuery.noteIdToLongColumnValue(
                     NoteTable.IN_REPLY_TO_NOTE_ID, noteId);
             String inReplyToNoteOid = getNoteOid(method, inReplyToNoteId, false);
+            if (media.isTooLargeFor(execContext.getMyAccount().getOrigin())) {
+                throw ConnectionException.hardConnectionException("Media file is too large: " + media
+                        + ", upload limit: " + execContext.getMyAccount().getOrigin().getUploadLimit() + " bytes", null);
+            }
             activity = getConnection().updateNote(name, content.trim(), oid, recipients, inReplyToNoteOid, mediaUri);
             logIfEmptyNote(method, noteId, activity.getNote());
         } catch (ConnectionException e) {
@@ -427,6 +437,7 @@ class CommandExecutorOther extends CommandExecutorStrategy{
         if (noErrors() && activity.nonEmpty()) {
             // The note was sent successfully, so now update unsent message
             // New Actor's note should be put into the Account's Home timeline.
+            media.onUploaded();
             activity.setId(activityId);
             activity.getNote().noteId = noteId;
             new DataUpdater(execContext).onActivity(activity);
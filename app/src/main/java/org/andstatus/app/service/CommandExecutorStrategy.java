@@ -18,12 +18,16 @@ package org.andstatus.app.service;
 
 import org.andstatus.app.context.MyContextHolder;
 import org.andstatus.app.net.http.ConnectionException;
+import org.andstatus.app.net.http.HttpValidators;
+import org.andstatus.app.net.http.RateLimits;
 import org.andstatus.app.net.social.Actor;
 import org.andstatus.app.net.social.Connection;
 import org.andstatus.app.util.MyLog;
 import org.andstatus.app.util.MyStringBuilder;
 import org.andstatus.app.util.RelativeTime;
 
+import java.util.concurrent.TimeUnit;
+
 class CommandExecutorStrategy implements CommandExecutorParent {
     final protected CommandExecutionContext execContext;
     private CommandExecutorParent parent = null;
@@ -34,8 +38,15 @@ class CommandExecutorStrategy implements CommandExecutorParent {
         CommandExecutorStrategy strategy = getStrategy(new CommandExecutionContext(commandData)).setParent(parent);
         commandData.getResult().prepareForLaunch();
         logLaunch(strategy);
-        // This may cause recursive calls to executors...
-        strategy.execute();
+        HttpValidators.Deferred validators = HttpValidators.defer();
+        try {
+            // This may cause recursive calls to executors...
+            if (!strategy.logSoftErrorIfRateLimited()) {
+                strategy.execute();
+            }
+        } finally {
+            validators.end(!commandData.getResult().hasError());
+        }
         commandData.getResult().afterExecutionEnded();
         logEnd(strategy);
     }
@@ -58,6 +69,27 @@ class CommandExecutorStrategy implements CommandExecutorParent {
         return false;
     }
 
+    /** Requests of the rate limited account would fail, so the command is retried later,
+     * and commands of other accounts are executed meanwhile. See {@link RateLimits} */
+    private boolean logSoftErrorIfRateLimited() {
+        switch (execContext.getCommandData().getCommand()) {
+            case GET_ATTACHMENT:
+            case GET_AVATAR:
+            case GET_OPEN_INSTANCES:
+                return false;
+            default:
+                break;
+        }
+        if (!execContext.getMyAccount().isValid()) return false;
+
+        long throttledUntil = RateLimits.getThrottledUntil(execContext.getMyAccount().getOAccountName().toString());
+        if (throttledUntil == 0) return false;
+
+        logExecutionError(false, "Rate limited for "
+                + TimeUnit.MILLISECONDS.toSeconds(throttledUntil - System.currentTimeMillis()) + " seconds");
+        return true;
+    }
+
     private static void logEnd(CommandExecutorStrategy strategy) {
         MyLog.d(strategy, "Executed " + strategy.execContext);
         if (strategy.execContext.getCommandData().getCommand() == CommandEnum.UPDATE_NOTE) {
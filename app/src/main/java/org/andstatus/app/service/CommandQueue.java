@@ -23,9 +23,12 @@ import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteDiskIOException;
 import android.support.annotation.NonNull;
 
+import net.jcip.annotations.GuardedBy;
+
 import org.andstatus.app.context.MyContext;
 import org.andstatus.app.context.MyContextHolder;
 import org.andstatus.app.context.MyPreferences;
+import org.andstatus.app.data.ColumnIndexedCursor;
 import org.andstatus.app.data.DbUtils;
 import org.andstatus.app.database.table.CommandTable;
 import org.andstatus.app.util.MyLog;
@@ -33,22 +36,23 @@ import org.andstatus.app.util.RelativeTime;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
-import java.util.concurrent.PriorityBlockingQueue;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
 /**
  * @author yvolk@yurivolkov.com
  */
 public class CommandQueue {
-    private static final int INITIAL_CAPACITY = 100;
     private static final long RETRY_QUEUE_PROCESSING_PERIOD_SECONDS = 900;
     private static final long MIN_RETRY_PERIOD_SECONDS = 900;
     private static final long MAX_DAYS_IN_ERROR_QUEUE = 10;
-    private final static Queue<CommandData> preQueue = new PriorityBlockingQueue<>(INITIAL_CAPACITY);
+    private final static IndexedCommandQueue preQueue = new IndexedCommandQueue();
 
     private volatile MyContext myContext = MyContextHolder.get();
     private final Context context;
@@ -56,6 +60,15 @@ public class CommandQueue {
     private final Map<QueueType, OneQueue> queues = new HashMap<>();
     private volatile boolean loaded = false;
     private volatile boolean saved = false;
+    /** Lanes (see {@link CommandData#getLaneId()}), commands of which are being executed now */
+    @GuardedBy("busyLanes")
+    private final Set<Long> busyLanes = new HashSet<>();
+    /** Executors, which use the queues now. The queues are saved, when the last of them ends */
+    @GuardedBy("this")
+    private final Set<Long> executors = new HashSet<>();
+    /** Commands as they are stored in the database now: commandId to the stored values */
+    @GuardedBy("this")
+    private final Map<Long, ContentValues> persisted = new HashMap<>();
 
     static void addToPreQueue(CommandData commandData) {
         switch (commandData.getCommand()) {
@@ -78,7 +91,7 @@ public class CommandQueue {
     }
 
     private static class OneQueue {
-        Queue<CommandData> queue = new PriorityBlockingQueue<>(INITIAL_CAPACITY);
+        final IndexedCommandQueue queue = new IndexedCommandQueue();
         volatile int savedCount = 0;
         volatile boolean savedForegroundTasks = false;
 
@@ -93,17 +106,7 @@ public class CommandQueue {
         }
 
         private boolean hasForegroundTasks() {
-            if (savedForegroundTasks) {
-                return true;
-            }
-            boolean has = false;
-            for (CommandData commandData : queue) {
-                if (commandData.isInForeground()) {
-                    has = true;
-                    break;
-                }
-            }
-            return has;
+            return savedForegroundTasks || queue.hasForegroundTasks();
         }
 
         public int size() {
@@ -141,6 +144,7 @@ public class CommandQueue {
         if (loaded) {
             MyLog.v(this, "Already loaded");
         } else {
+            persisted.clear();
             int count = load(QueueType.CURRENT) + load(QueueType.RETRY);
             int countError = load(QueueType.ERROR);
             MyLog.d(this, "State restored, " + (count > 0 ? Integer.toString(count) : "no ")
@@ -156,7 +160,7 @@ public class CommandQueue {
     private int load(@NonNull QueueType queueType) {
         final String method = "loadQueue-" + queueType.save();
         OneQueue oneQueue = queues.get(queueType);
-        Queue<CommandData> queue = oneQueue.queue;
+        IndexedCommandQueue queue = oneQueue.queue;
         int count = 0;
         SQLiteDatabase db = myContext.getDatabase();
         if (db == null) {
@@ -167,9 +171,10 @@ public class CommandQueue {
                 + queueType.save() + "'";
         Cursor c = null;
         try {
-            c = db.rawQuery(sql, null);
+            c = ColumnIndexedCursor.of(db.rawQuery(sql, null));
             while (c.moveToNext()) {
                 CommandData cd = CommandData.fromCursor(myContext, c);
+                persisted.put(cd.getCommandId(), toContentValues(cd, queueType));
                 if (CommandEnum.EMPTY.equals(cd.getCommand())) {
                     MyLog.e(context, method + "; empty skipped " + cd);
                 } else if (queue.contains(cd)) {
@@ -194,76 +199,133 @@ public class CommandQueue {
         return count;
     }
 
+    synchronized void onExecutorStarted(long executorId) {
+        executors.add(executorId);
+        load();
+    }
+
+    /** Saves the queues, if this was the last executor working with them */
+    synchronized void onExecutorEnded(long executorId) {
+        if (executors.remove(executorId) && executors.isEmpty()) {
+            save();
+        }
+    }
+
+    /** Saves the queues now, unless executors work with them: the last of them will save the queues */
+    synchronized void saveIfNoExecutors() {
+        if (executors.isEmpty()) {
+            save();
+        }
+    }
+
+    /**
+     * Saves the queues and clears them in memory. Only commands, which were added or changed since they were
+     * loaded or saved last time, are written, all in one transaction. Commands, which left the queues,
+     * are deleted from the database, if the queues were loaded
+     */
     synchronized void save() {
         SQLiteDatabase db = myContext.getDatabase();
         if (db == null) {
             MyLog.d(context, "save; Database is unavailable");
             return;
         }
-        if (loaded) clearQueuesInDatabase(db);
         moveCommandsFromPreToMainQueue();
-        int countCurrentRetry = save(db, QueueType.CURRENT) + save(db, QueueType.RETRY);
-        int countError = save(db, QueueType.ERROR);
+        int countCurrentRetry;
+        int countError;
+        int countDeleted = 0;
+        int countWritten;
+        db.beginTransaction();
+        try {
+            Map<Long, ContentValues> toPersist = new HashMap<>();
+            countCurrentRetry = collect(QueueType.CURRENT, toPersist) + collect(QueueType.RETRY, toPersist);
+            countError = collect(QueueType.ERROR, toPersist);
+            if (loaded) countDeleted = deleteLeftCommands(db, toPersist.keySet());
+            countWritten = write(db, toPersist);
+            db.setTransactionSuccessful();
+        } catch (Exception e) {
+            String msgLog = "save; " + persisted.size() + " commands in the database";
+            MyLog.e(context, msgLog, e);
+            persisted.clear();
+            if (SQLiteDiskIOException.class.isAssignableFrom(e.getClass())) {
+                throw e;
+            } else {
+                throw new IllegalStateException(msgLog, e);
+            }
+        } finally {
+            db.endTransaction();
+        }
+        for (OneQueue oneQueue : queues.values()) {
+            oneQueue.queue.clear();
+        }
         MyLog.d(this, (loaded ? "Queues saved" : "Saved new queued commands only") + ", "
                 + (countCurrentRetry > 0 ? Integer.toString(countCurrentRetry) : "no") + " commands"
                 + (countError > 0 ? ", plus " + Integer.toString(countError) + " in Error queue" : "")
+                + "; written:" + countWritten + ", deleted:" + countDeleted
         );
         saved |= loaded;
         loaded = false;
     }
 
-    /** @return Number of items persisted */
-    private int save(@NonNull SQLiteDatabase db, @NonNull QueueType queueType) {
-        final String method = "saveQueue-" + queueType.save();
+    /** @return Number of commands in the queue */
+    private int collect(@NonNull QueueType queueType, Map<Long, ContentValues> toPersist) {
         OneQueue oneQueue = queues.get(queueType);
-        Queue<CommandData> queue = oneQueue.queue;
+        if (loaded) {
+            oneQueue.savedCount = 0;
+            oneQueue.savedForegroundTasks = false;
+        }
         int count = 0;
-        try {
-            if (loaded) {
-                oneQueue.savedCount = 0;
-                oneQueue.savedForegroundTasks = false;
-            }
-            if (!queue.isEmpty()) {
-                while (!queue.isEmpty() && count < 300) {
-                    CommandData cd = queue.poll();
-                    oneQueue.savedForegroundTasks |= cd.isInForeground();
-                    ContentValues values = new ContentValues();
-                    cd.toContentValues(values);
-                    values.put(CommandTable.QUEUE_TYPE, queueType.save());
-                    db.insert(CommandTable.TABLE_NAME, null, values);
-                    count++;
-                    if (MyLog.isVerboseEnabled() && (count < 6 || cd.getCommand() == CommandEnum.UPDATE_NOTE)) {
-                        MyLog.v(context, method + "; " + count + ": " + cd.toString());
-                    }
-                    if (myContext.isTestRun() && queue.contains(cd)) {
-                        MyLog.e(context, method + "; Duplicated command in a queue:" + count + " " + cd.toString());
-                    }
-                }
-                if (queue.isEmpty()) {
-                    MyLog.d(context, method + "; " + count + " saved");
-                } else {
-                    MyLog.e(context, method + "; " + count + " saved" +
-                            (queue.isEmpty() ? "" : ", " + queue.size() + " left"));
-                }
-            }
-        } catch (Exception e) {
-            String msgLog = method + "; " + count + " saved, " + queue.size() + " left.";
-            MyLog.e(context, msgLog, e);
-            if (SQLiteDiskIOException.class.isAssignableFrom(e.getClass())) {
-                throw e;
-            } else {
-                throw new IllegalStateException(msgLog, e);
+        for (CommandData cd : oneQueue.queue) {
+            oneQueue.savedForegroundTasks |= cd.isInForeground();
+            toPersist.put(cd.getCommandId(), toContentValues(cd, queueType));
+            count++;
+            if (MyLog.isVerboseEnabled() && (count < 6 || cd.getCommand() == CommandEnum.UPDATE_NOTE)) {
+                MyLog.v(context, "saveQueue-" + queueType.save() + "; " + count + ": " + cd.toString());
             }
         }
         oneQueue.savedCount += count;
         return count;
     }
 
+    private static ContentValues toContentValues(CommandData cd, QueueType queueType) {
+        ContentValues values = new ContentValues();
+        cd.toContentValues(values);
+        values.put(CommandTable.QUEUE_TYPE, queueType.save());
+        return values;
+    }
+
+    /** @return Number of commands deleted, because they are not in any queue now */
+    private int deleteLeftCommands(@NonNull SQLiteDatabase db, Set<Long> commandIds) {
+        List<Long> toDelete = new ArrayList<>();
+        for (Long commandId : persisted.keySet()) {
+            if (!commandIds.contains(commandId)) toDelete.add(commandId);
+        }
+        if (toDelete.isEmpty()) return 0;
+
+        db.delete(CommandTable.TABLE_NAME, CommandTable._ID + " IN ("
+                + toDelete.stream().map(String::valueOf).collect(Collectors.joining(",")) + ")", null);
+        persisted.keySet().removeAll(toDelete);
+        return toDelete.size();
+    }
+
+    /** @return Number of new or changed commands written */
+    private int write(@NonNull SQLiteDatabase db, Map<Long, ContentValues> toPersist) {
+        int count = 0;
+        for (Map.Entry<Long, ContentValues> entry : toPersist.entrySet()) {
+            if (entry.getValue().equals(persisted.get(entry.getKey()))) continue;
+
+            db.insertWithOnConflict(CommandTable.TABLE_NAME, null, entry.getValue(), SQLiteDatabase.CONFLICT_REPLACE);
+            persisted.put(entry.getKey(), entry.getValue());
+            count++;
+        }
+        return count;
+    }
+
     private synchronized void clearQueuesInDatabase(@NonNull SQLiteDatabase db) {
         final String method = "clearQueuesInDatabase";
         try {
             String sql = "DELETE FROM " + CommandTable.TABLE_NAME;
             DbUtils.execSQL(db, sql);
+            persisted.clear();
         } catch (Exception e) {
             MyLog.e(context, method, e);
             if (SQLiteDiskIOException.class.isAssignableFrom(e.getClass())) {
@@ -274,13 +336,15 @@ public class CommandQueue {
         }
     }
 
-    void clear() {
+    synchronized void clear() {
         loaded = true;
         // MyLog.v(this, MyLog.getStackTrace(new IllegalStateException("CommandQueue#clear called")));
         for ( Map.Entry<QueueType, OneQueue> entry : queues.entrySet()) {
             entry.getValue().clear();
         }
         preQueue.clear();
+        SQLiteDatabase db = myContext.getDatabase();
+        if (db != null) clearQueuesInDatabase(db);
         save();
         MyLog.v(this, "Queues cleared");
     }
@@ -308,9 +372,6 @@ public class CommandQueue {
     }
 
     void addToQueue(QueueType queueType, CommandData commandData) {
-        if (get(queueType).contains(commandData)) {
-            get(queueType).remove(commandData);
-        }
         if (!get(queueType).offer(commandData)) {
             MyLog.e(this, queueType.name() + " is full?");
         }
@@ -339,14 +400,51 @@ public class CommandQueue {
         return true;
     }
 
-    CommandData pollQueue() {
+    /** @return Number of lanes, which are not busy and which have commands to execute.
+     *  1 if the queues were not loaded yet */
+    int countFreeLanesToExecute() {
+        if (!loaded && !saved) {
+            return 1;
+        }
+        Set<Long> lanes = new HashSet<>();
+        for (CommandData commandData : preQueue) {
+            lanes.add(commandData.getLaneId());
+        }
+        for (CommandData commandData : get(QueueType.CURRENT)) {
+            lanes.add(commandData.getLaneId());
+        }
+        if (isAnythingToRetryNow()) {
+            for (CommandData commandData : get(QueueType.RETRY)) {
+                lanes.add(commandData.getLaneId());
+            }
+        }
+        synchronized (busyLanes) {
+            lanes.removeAll(busyLanes);
+        }
+        return lanes.size();
+    }
+
+    /** The lane of the polled command becomes busy until this method is called */
+    void releaseLane(CommandData commandData) {
+        if (commandData == null) return;
+
+        synchronized (busyLanes) {
+            busyLanes.remove(commandData.getLaneId());
+        }
+    }
+
+    /**
+     * Polls a command with the highest priority from the lanes, which are not busy now,
+     * and makes lane of the command busy. See {@link #releaseLane(CommandData)}
+     */
+    synchronized CommandData pollQueue() {
         moveCommandsFromPreToMainQueue();
         CommandData commandData;
         do {
-            commandData = get(QueueType.CURRENT).poll();
+            commandData = pollFromFreeLane(queues.get(QueueType.CURRENT).queue);
             if (commandData == null && isAnythingToRetryNow()) {
                 moveCommandsFromRetryToMainQueue();
-                commandData = get(QueueType.CURRENT).poll();
+                commandData = pollFromFreeLane(queues.get(QueueType.CURRENT).queue);
             }
             if (commandData == null) {
                 break;
@@ -368,10 +466,19 @@ public class CommandQueue {
                 + (commandData == null ? "" : " " + commandData));
         if (commandData != null) {
             commandData.setManuallyLaunched(false);
+            synchronized (busyLanes) {
+                busyLanes.add(commandData.getLaneId());
+            }
         }
         return commandData;
     }
 
+    private CommandData pollFromFreeLane(IndexedCommandQueue queue) {
+        synchronized (busyLanes) {
+            return queue.poll(commandData -> !busyLanes.contains(commandData.getLaneId()));
+        }
+    }
+
     private void moveCommandsFromPreToMainQueue() {
         for (CommandData cd : preQueue) {
             if (addToMainQueue(cd)) preQueue.remove(cd);
@@ -402,49 +509,48 @@ public class CommandQueue {
         mRetryQueueProcessedAt.set(System.currentTimeMillis());
     }
 
+    /** @return the command to execute now, or null, if its retry is delayed in the Retry or Error queue.
+     * The queues, which are not loaded, are not searched: removal from them wouldn't be persisted */
+    synchronized CommandData findToExecuteNow(CommandData commandData) {
+        if (!loaded) return commandData;
+
+        CommandData cd = findInRetryQueue(commandData);
+        return cd == null ? null : findInErrorQueue(cd);
+    }
+
     private CommandData findInRetryQueue(CommandData cdIn) {
-        CommandData cdOut = cdIn;
-        if (get(QueueType.RETRY).contains(cdIn)) {
-            for (CommandData cd : get(QueueType.RETRY)) {
-                if (cd.equals(cdIn)) {
-                    cd.resetRetries();
-                    if (cdIn.isManuallyLaunched() || cd.executedMoreSecondsAgoThan(MIN_RETRY_PERIOD_SECONDS)) {
-                        cdOut = cd;
-                        get(QueueType.RETRY).remove(cd);
-                        MyLog.v(this, () -> "Returned from Retry queue: " + cd);
-                    } else {
-                        cdOut = null;
-                        MyLog.v(this, () -> "Found in Retry queue: " + cd);
-                    }
-                    break;
-                }
-            }
+        IndexedCommandQueue retryQueue = queues.get(QueueType.RETRY).queue;
+        CommandData cd = retryQueue.get(cdIn);
+        if (cd == null) return cdIn;
+
+        cd.resetRetries();
+        if (cdIn.isManuallyLaunched() || cd.executedMoreSecondsAgoThan(MIN_RETRY_PERIOD_SECONDS)) {
+            retryQueue.remove(cd);
+            MyLog.v(this, () -> "Returned from Retry queue: " + cd);
+            return cd;
         }
-        return cdOut;
+        MyLog.v(this, () -> "Found in Retry queue: " + cd);
+        return null;
     }
 
     private CommandData findInErrorQueue(CommandData cdIn) {
-        CommandData cdOut = cdIn;
-        if (get(QueueType.ERROR).contains(cdIn)) {
-            for (CommandData cd : get(QueueType.ERROR)) {
-                if (cd.equals(cdIn)) {
-                    if (cdIn.isManuallyLaunched() || cd.executedMoreSecondsAgoThan(MIN_RETRY_PERIOD_SECONDS)) {
-                        cdOut = cd;
-                        get(QueueType.ERROR).remove(cd);
-                        MyLog.v(this, () -> "Returned from Error queue: " + cd);
-                        cd.resetRetries();
-                    } else {
-                        cdOut = null;
-                        MyLog.v(this, () -> "Found in Error queue: " + cd);
-                    }
-                } else {
-                    if (cd.executedMoreSecondsAgoThan(TimeUnit.DAYS.toSeconds(MAX_DAYS_IN_ERROR_QUEUE))) {
-                        get(QueueType.ERROR).remove(cd);
-                        MyLog.i(this, "Removed old from Error queue: " + cd);
-                    }
-                }
+        IndexedCommandQueue errorQueue = queues.get(QueueType.ERROR).queue;
+        CommandData cd = errorQueue.get(cdIn);
+        if (cd == null) return cdIn;
+
+        for (CommandData cdOld : errorQueue) {
+            if (cdOld != cd && cdOld.executedMoreSecondsAgoThan(TimeUnit.DAYS.toSeconds(MAX_DAYS_IN_ERROR_QUEUE))) {
+                errorQueue.remove(cdOld);
+                MyLog.i(this, "Removed old from Error queue: " + cdOld);
             }
         }
-        return cdOut;
+        if (cdIn.isManuallyLaunched() || cd.executedMoreSecondsAgoThan(MIN_RETRY_PERIOD_SECONDS)) {
+            errorQueue.remove(cd);
+            MyLog.v(this, () -> "Returned from Error queue: " + cd);
+            cd.resetRetries();
+            return cd;
+        }
+        MyLog.v(this, () -> "Found in Error queue: " + cd);
+        return null;
     }
 }
@@ -30,8 +30,11 @@ import org.andstatus.app.util.MyLog;
 import org.andstatus.app.util.RelativeTime;
 import org.andstatus.app.util.StringUtils;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
@@ -64,6 +67,10 @@ public final class CommandResult implements Parcelable {
     private long newCount = 0;
     public final Map<NotificationEventType, AtomicLong> notificationEventCounts = new HashMap<>();
 
+    // Changed entities, so the shown lists may be updated in place. Not persisted
+    private final Set<Long> avatarActorIds = new HashSet<>();
+    private final Set<Long> attachmentIds = new HashSet<>();
+
     public CommandResult() {
     }
 
@@ -93,6 +100,12 @@ public final class CommandResult implements Parcelable {
         dest.writeInt(remainingHits);
         dest.writeLong(downloadedCount);
         dest.writeString(progress);
+        dest.writeLongArray(toArray(avatarActorIds));
+        dest.writeLongArray(toArray(attachmentIds));
+    }
+
+    private static long[] toArray(Set<Long> ids) {
+        return ids.stream().mapToLong(Long::longValue).toArray();
     }
     
     public CommandResult(Parcel parcel) {
@@ -108,6 +121,12 @@ public final class CommandResult implements Parcelable {
         remainingHits = parcel.readInt();
         downloadedCount = parcel.readLong();
         progress = parcel.readString();
+        for (long id : parcel.createLongArray()) {
+            avatarActorIds.add(id);
+        }
+        for (long id : parcel.createLongArray()) {
+            attachmentIds.add(id);
+        }
     }
 
     public void toContentValues(ContentValues values) {
@@ -268,6 +287,27 @@ public final class CommandResult implements Parcelable {
     public long getDownloadedCount() {
         return downloadedCount;
     }
+
+    void onAvatarDownloaded(long actorId) {
+        if (actorId != 0) avatarActorIds.add(actorId);
+    }
+
+    void onAttachmentDownloaded(long downloadId) {
+        if (downloadId != 0) attachmentIds.add(downloadId);
+    }
+
+    /** @return true if some avatars or attachments were downloaded, and their ids are known */
+    public boolean hasDownloads() {
+        return !avatarActorIds.isEmpty() || !attachmentIds.isEmpty();
+    }
+
+    public Set<Long> getAvatarActorIds() {
+        return Collections.unmodifiableSet(avatarActorIds);
+    }
+
+    public Set<Long> getAttachmentIds() {
+        return Collections.unmodifiableSet(attachmentIds);
+    }
     
     public long getNewCount() {
         return newCount;
@@ -307,6 +347,8 @@ public final class CommandResult implements Parcelable {
         newCount = 0;
         notificationEventCounts.values().forEach(c -> c.set(0));
         downloadedCount = 0;
+        avatarActorIds.clear();
+        attachmentIds.clear();
 
         progress = "";
     }
@@ -0,0 +1,299 @@
+/*
+ * Copyright (c) 2018 yvolk (Yuri Volkov), http://yurivolkov.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.andstatus.app.service;
+
+import android.net.Uri;
+import android.support.annotation.NonNull;
+
+import net.jcip.annotations.GuardedBy;
+
+import org.andstatus.app.context.MyContextHolder;
+import org.andstatus.app.data.AvatarData;
+import org.andstatus.app.data.DownloadData;
+import org.andstatus.app.os.AsyncTaskLauncher;
+import org.andstatus.app.os.MyAsyncTask;
+import org.andstatus.app.util.MyLog;
+import org.andstatus.app.util.StringUtils;
+import org.andstatus.app.util.UriUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Downloads avatars and attachments ({@link CommandEnum#GET_AVATAR} and {@link CommandEnum#GET_ATTACHMENT})
+ * in parallel on the {@link MyAsyncTask.PoolEnum#FILE_DOWNLOAD} pool, so they don't wait behind timeline commands
+ * in the {@link CommandQueue}.
+ * Equal commands are queued once, downloads of the same URI are not executed concurrently,
+ * and not more than {@link #MAX_DOWNLOADS_PER_HOST} downloads go to one host at a time.
+ * Commands "in foreground" (for images, visible now) are executed first.
+ * @author yvolk@yurivolkov.com
+ */
+class DownloadEngine {
+    static final int MAX_DOWNLOADS_PER_HOST = 2;
+
+    interface Parent extends CommandExecutorParent {
+        void onBeforeExecuting(CommandData commandData);
+        void onAfterExecuting(CommandData commandData);
+        void onWorkerEnded();
+    }
+
+    private final Parent parent;
+    private final IndexedCommandQueue pending = new IndexedCommandQueue();
+    /** Resolved downloads, which wait for a free slot at their hosts */
+    @GuardedBy("this")
+    private final List<Download> deferred = new ArrayList<>();
+    /** Downloads in progress by their URIs */
+    @GuardedBy("this")
+    private final Map<String, Download> inFlight = new HashMap<>();
+    /** Commands, which wait for a download of the same URI to finish */
+    @GuardedBy("this")
+    private final Map<String, List<CommandData>> waiting = new HashMap<>();
+    @GuardedBy("this")
+    private final Map<String, Integer> hostLoads = new HashMap<>();
+    @GuardedBy("this")
+    private final List<Worker> workers = new ArrayList<>();
+
+    DownloadEngine(Parent parent) {
+        this.parent = parent;
+    }
+
+    static boolean isDownload(@NonNull CommandData commandData) {
+        switch (commandData.getCommand()) {
+            case GET_AVATAR:
+            case GET_ATTACHMENT:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /** Queues the command, unless an equal one is queued or is being executed already */
+    void add(@NonNull CommandData commandData) {
+        synchronized (this) {
+            for (Download download : inFlight.values()) {
+                if (download.commandData.equals(commandData)) {
+                    MyLog.v(this, () -> "Already downloading " + commandData);
+                    return;
+                }
+            }
+        }
+        CommandData queued = pending.get(commandData);
+        if (queued != null && (queued.isInForeground() || !commandData.isInForeground())) {
+            MyLog.v(this, () -> "Already queued " + commandData);
+            return;
+        }
+        commandData.getResult().prepareForLaunch();
+        pending.offer(commandData);
+    }
+
+    /** Starts new workers for queued downloads, up to the size of the pool */
+    synchronized void ensureWorkersStarted() {
+        Iterator<Worker> iterator = workers.iterator();
+        while (iterator.hasNext()) {
+            Worker worker = iterator.next();
+            if (worker.completedBackgroundWork()) {
+                iterator.remove();
+            } else if (!worker.isReallyWorking()) {
+                MyLog.v(this, () -> "Cancelling stalled " + worker);
+                worker.cancelLogged(true);
+                iterator.remove();
+            }
+        }
+        int toAdd = Math.min(MyAsyncTask.PoolEnum.FILE_DOWNLOAD.getCorePoolSize() - workers.size(),
+                pending.size() + deferred.size());
+        for (int i = 0; i < toAdd; i++) {
+            Worker worker = new Worker();
+            if (!AsyncTaskLauncher.execute(this, false, worker)) break;
+            workers.add(worker);
+        }
+    }
+
+    /** @return true if there are queued downloads or some are being executed now */
+    synchronized boolean isBusy() {
+        return !pending.isEmpty() || !deferred.isEmpty() || isWorking();
+    }
+
+    synchronized boolean isWorking() {
+        for (Worker worker : workers) {
+            if (worker.isReallyWorking()) return true;
+        }
+        return false;
+    }
+
+    /** Cancels the workers
+     * @return commands, which were not executed yet */
+    synchronized List<CommandData> stop() {
+        for (Worker worker : workers) {
+            worker.cancelLogged(true);
+        }
+        workers.clear();
+        List<CommandData> left = new ArrayList<>(pending);
+        pending.clear();
+        for (Download download : deferred) {
+            left.add(download.commandData);
+        }
+        deferred.clear();
+        for (List<CommandData> list : waiting.values()) {
+            left.addAll(list);
+        }
+        waiting.clear();
+        inFlight.clear();
+        hostLoads.clear();
+        return left;
+    }
+
+    private Download nextDownload() {
+        Download download = pollDeferred();
+        while (download == null) {
+            CommandData commandData = pending.poll();
+            if (commandData == null) return null;
+
+            download = Download.of(commandData);
+            if (!tryToStart(download)) download = null;
+        }
+        return download;
+    }
+
+    /** A deferred download, which host is free now, unless there are downloads in foreground */
+    synchronized Download pollDeferred() {
+        if (pending.hasForegroundTasks()) return null;
+
+        Iterator<Download> iterator = deferred.iterator();
+        while (iterator.hasNext()) {
+            Download download = iterator.next();
+            if (!inFlight.containsKey(download.uriKey)
+                    && hostLoads.getOrDefault(download.host, 0) < MAX_DOWNLOADS_PER_HOST) {
+                iterator.remove();
+                onStarted(download);
+                return download;
+            }
+        }
+        return null;
+    }
+
+    /** @return true if the download may be executed now, otherwise it is left to wait */
+    synchronized boolean tryToStart(Download download) {
+        if (download.uriKey.isEmpty()) return true;
+
+        if (inFlight.containsKey(download.uriKey)) {
+            waiting.computeIfAbsent(download.uriKey, key -> new ArrayList<>()).add(download.commandData);
+            return false;
+        }
+        if (hostLoads.getOrDefault(download.host, 0) >= MAX_DOWNLOADS_PER_HOST) {
+            deferred.add(download);
+            return false;
+        }
+        onStarted(download);
+        return true;
+    }
+
+    @GuardedBy("this")
+    private void onStarted(Download download) {
+        inFlight.put(download.uriKey, download);
+        hostLoads.merge(download.host, 1, Integer::sum);
+    }
+
+    /** Commands, which waited for this URI, are queued again: most probably their files are loaded already */
+    synchronized void onEnded(Download download) {
+        if (download.uriKey.isEmpty()) return;
+
+        inFlight.remove(download.uriKey);
+        hostLoads.computeIfPresent(download.host, (host, load) -> load > 1 ? load - 1 : null);
+        List<CommandData> list = waiting.remove(download.uriKey);
+        if (list != null) {
+            for (CommandData commandData : list) {
+                pending.offer(commandData);
+            }
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "DownloadEngine{pending:" + pending.size() + ", deferred:" + deferred.size()
+                + ", inFlight:" + inFlight.size() + ", workers:" + workers.size() + "}";
+    }
+
+    static class Download {
+        final CommandData commandData;
+        final String uriKey;
+        final String host;
+
+        /** Reads the database, so it is called in background */
+        static Download of(CommandData commandData) {
+            return new Download(commandData, commandData.getCommand() == CommandEnum.GET_AVATAR
+                    ? AvatarData.getCurrentForActor(commandData.getTimeline().actor).getUri()
+                    : DownloadData.fromId(commandData.itemId).getUri());
+        }
+
+        Download(CommandData commandData, Uri uri) {
+            this.commandData = commandData;
+            uriKey = UriUtils.isEmpty(uri) ? "" : uri.toString();
+            host = UriUtils.isEmpty(uri) ? "" : StringUtils.notNull(uri.getHost());
+        }
+    }
+
+    private class Worker extends MyAsyncTask<Void, Void, Void> {
+
+        Worker() {
+            super(DownloadEngine.class, PoolEnum.FILE_DOWNLOAD);
+            setSingleInstance(false);
+        }
+
+        @Override
+        protected Void doInBackground2(Void... voids) {
+            while (!isCancelled() && !parent.isStopping()) {
+                Download download = nextDownload();
+                if (download == null) break;
+
+                currentlyExecutingSince = System.currentTimeMillis();
+                try {
+                    execute(download.commandData);
+                } finally {
+                    onEnded(download);
+                }
+            }
+            return null;
+        }
+
+        private void execute(CommandData commandData) {
+            ConnectionState connectionState = MyContextHolder.get().getConnectionState();
+            if (commandData.getCommand().getConnectionRequired().isConnectionStateOk(connectionState)) {
+                parent.onBeforeExecuting(commandData);
+                CommandExecutorStrategy.executeCommand(commandData, parent);
+            } else {
+                commandData.getResult().incrementNumIoExceptions();
+                commandData.getResult().setMessage("Expected '"
+                        + commandData.getCommand().getConnectionRequired()
+                        + "', but was '" + connectionState + "' connection");
+            }
+            parent.onAfterExecuting(commandData);
+        }
+
+        @Override
+        protected void onPostExecute2(Void aVoid) {
+            parent.onWorkerEnded();
+        }
+
+        @Override
+        protected void onCancelled2(Void aVoid) {
+            parent.onWorkerEnded();
+        }
+    }
+}
@@ -49,9 +49,13 @@ public abstract class FileDownloader {
     void load(CommandData commandData) {
         switch (data.getStatus()) {
             case LOADED:
+                onLoaded(commandData.getResult());
                 break;
             default:
                 loadUrl();
+                if (data.getStatus() == DownloadStatus.LOADED) {
+                    onLoaded(commandData.getResult());
+                }
                 break;
         }
         if (data.isError() && StringUtils.nonEmpty(data.getMessage())) {
@@ -65,6 +69,15 @@ public abstract class FileDownloader {
         }
     }
 
+    /** Lets the shown lists update the changed entity only */
+    private void onLoaded(CommandResult result) {
+        if (data.actorId == 0) {
+            result.onAttachmentDownloaded(data.getDownloadId());
+        } else {
+            result.onAvatarDownloaded(data.actorId);
+        }
+    }
+
     private void loadUrl() {
         data.beforeDownload();
         downloadFile();
@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2018 yvolk (Yuri Volkov), http://yurivolkov.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.andstatus.app.service;
+
+import android.support.annotation.NonNull;
+
+import net.jcip.annotations.GuardedBy;
+
+import org.andstatus.app.util.MyLog;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+/**
+ * Priority queue of commands, ordered as in {@link CommandData#compareTo(CommandData)},
+ * with a hash index on the command's identity (see {@link CommandData#equals(Object)}).
+ * So checking, if a command is queued, and removing it don't need a scan of the whole queue.
+ * Equal commands are not duplicated: a newly offered command replaces the queued one.
+ * A hash code of a queued command may change (e.g. when its timeline is saved and gets an id),
+ * so the index uses its own hash code, built only of the parts of a command, which don't change.
+ * Iterators work on a snapshot, like iterators of {@link java.util.concurrent.PriorityBlockingQueue}
+ * @author yvolk@yurivolkov.com
+ */
+class IndexedCommandQueue extends AbstractQueue<CommandData> {
+    @GuardedBy("this")
+    private final NavigableMap<Key, CommandData> ordered = new TreeMap<>();
+    @GuardedBy("this")
+    private final Map<IndexKey, Key> index = new HashMap<>();
+    @GuardedBy("this")
+    private long sequence = 0;
+
+    /** Priority of a command at the moment it was queued, so later changes of the command don't break the order */
+    private static class Key implements Comparable<Key> {
+        final boolean inForeground;
+        final int priority;
+        final long commandId;
+        final long sequence;
+
+        Key(CommandData commandData, long sequence) {
+            inForeground = commandData.isInForeground();
+            priority = commandData.getCommand().getPriority();
+            commandId = commandData.getCommandId();
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(@NonNull Key other) {
+            if (inForeground != other.inForeground) {
+                return inForeground ? -1 : 1;
+            }
+            if (commandId != other.commandId && priority != other.priority) {
+                return priority > other.priority ? 1 : -1;
+            }
+            if (commandId != other.commandId) {
+                return commandId > other.commandId ? 1 : -1;
+            }
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+
+    /** Identity of a command (see {@link CommandData#equals(Object)}) with a hash code, which doesn't change
+     * while the command is queued. Equal commands have equal hash codes, because they have equal parts */
+    private static class IndexKey {
+        final CommandData commandData;
+        final int hashCode;
+
+        IndexKey(@NonNull CommandData commandData) {
+            this.commandData = commandData;
+            int result = commandData.getCommand().hashCode();
+            result = 31 * result + commandData.myAccount.getAccountName().hashCode();
+            result = 31 * result + commandData.getTimelineType().hashCode();
+            result = 31 * result + Long.hashCode(commandData.itemId);
+            hashCode = result;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || !(o instanceof IndexKey)) return false;
+
+            return commandData.equals(((IndexKey) o).commandData);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    @Override
+    public synchronized boolean offer(CommandData commandData) {
+        if (commandData == null) throw new NullPointerException();
+
+        IndexKey indexKey = new IndexKey(commandData);
+        Key oldKey = index.remove(indexKey);
+        if (oldKey != null) {
+            ordered.remove(oldKey);
+        }
+        Key key = new Key(commandData, sequence++);
+        index.put(indexKey, key);
+        ordered.put(key, commandData);
+        return true;
+    }
+
+    @Override
+    public synchronized CommandData poll() {
+        Map.Entry<Key, CommandData> entry = ordered.pollFirstEntry();
+        if (entry == null) return null;
+
+        removeFromIndex(entry.getKey(), entry.getValue());
+        return entry.getValue();
+    }
+
+    /** Removes and returns the command with the highest priority, which satisfies the predicate */
+    synchronized CommandData poll(Predicate<CommandData> predicate) {
+        Iterator<Map.Entry<Key, CommandData>> iterator = ordered.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Key, CommandData> entry = iterator.next();
+            if (predicate.test(entry.getValue())) {
+                iterator.remove();
+                removeFromIndex(entry.getKey(), entry.getValue());
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    @GuardedBy("this")
+    private void removeFromIndex(Key key, CommandData commandData) {
+        if (!index.remove(new IndexKey(commandData), key)) {
+            MyLog.e(this, "Command was not indexed: " + commandData);
+        }
+    }
+
+    @Override
+    public synchronized CommandData peek() {
+        Map.Entry<Key, CommandData> entry = ordered.firstEntry();
+        return entry == null ? null : entry.getValue();
+    }
+
+    /** Foreground commands are always at the head of the queue */
+    synchronized boolean hasForegroundTasks() {
+        Map.Entry<Key, CommandData> entry = ordered.firstEntry();
+        return entry != null && entry.getKey().inForeground;
+    }
+
+    @Override
+    public synchronized boolean contains(Object o) {
+        return o instanceof CommandData && index.containsKey(new IndexKey((CommandData) o));
+    }
+
+    /** @return the queued command, which is equal to the one provided, or null */
+    synchronized CommandData get(CommandData commandData) {
+        Key key = index.get(new IndexKey(commandData));
+        return key == null ? null : ordered.get(key);
+    }
+
+    @Override
+    public synchronized boolean remove(Object o) {
+        if (!(o instanceof CommandData)) return false;
+
+        Key key = index.remove(new IndexKey((CommandData) o));
+        if (key == null) return false;
+
+        if (ordered.remove(key) == null) {
+            MyLog.e(this, "Indexed command was not found in the queue: " + o);
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized void clear() {
+        ordered.clear();
+        index.clear();
+    }
+
+    @Override
+    public synchronized int size() {
+        return ordered.size();
+    }
+
+    @NonNull
+    @Override
+    public Iterator<CommandData> iterator() {
+        final Iterator<CommandData> snapshot;
+        synchronized (this) {
+            snapshot = new ArrayList<>(ordered.values()).iterator();
+        }
+        return new Iterator<CommandData>() {
+            private CommandData last = null;
+
+            @Override
+            public boolean hasNext() {
+                return snapshot.hasNext();
+            }
+
+            @Override
+            public CommandData next() {
+                last = snapshot.next();
+                return last;
+            }
+
+            @Override
+            public void remove() {
+                if (last == null) throw new IllegalStateException();
+                IndexedCommandQueue.this.remove(last);
+                last = null;
+            }
+        };
+    }
+}
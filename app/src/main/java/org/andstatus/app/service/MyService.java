@@ -44,6 +44,8 @@ import org.andstatus.app.util.RelativeTime;
 import org.andstatus.app.util.SharedPreferencesUtil;
 import org.andstatus.app.util.TriState;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.andstatus.app.service.CommandEnum.DELETE_COMMAND;
@@ -73,8 +75,9 @@ public class MyService extends Service {
     private int mLatestProcessedStartId = 0;
     
     private final Object executorLock = new Object();
+    /** Each executor executes commands of one lane at a time, see {@link CommandData#getLaneId()} */
     @GuardedBy("executorLock")
-    private QueueExecutor mExecutor = null;
+    private final List<QueueExecutor> executors = new ArrayList<>();
 
     private final Object heartBeatLock = new Object();
     @GuardedBy("heartBeatLock")
@@ -88,6 +91,7 @@ public class MyService extends Service {
     @GuardedBy("wakeLockLock")
     private PowerManager.WakeLock mWakeLock = null;
     private final CommandQueue commandQueue = new CommandQueue(this);
+    private final DownloadEngine downloads = new DownloadEngine(new DownloadsParent());
 
     private static final AtomicBoolean widgetsInitialized = new AtomicBoolean(false);
 
@@ -170,7 +174,12 @@ public class MyService extends Service {
     }
 
     private void receiveOtherCommand(CommandData commandData) {
-        CommandQueue.addToPreQueue(commandData);
+        if (DownloadEngine.isDownload(commandData)) {
+            CommandData toExecute = commandQueue.findToExecuteNow(commandData);
+            if (toExecute != null) downloads.add(toExecute);
+        } else {
+            CommandQueue.addToPreQueue(commandData);
+        }
         if (isForcedToStop()) {
             stopDelayed(false);
         } else {
@@ -237,7 +246,7 @@ public class MyService extends Service {
                 startExecution();
                 break;
             default:
-                MyLog.v(this, () -> "Didn't change execution " + mExecutor);
+                MyLog.v(this, () -> "Didn't change execution " + executorsToString());
                 break;
         }
     }
@@ -319,7 +328,8 @@ public class MyService extends Service {
     private void startExecution() {
         acquireWakeLock();
         try {
-            ensureExecutorStarted();
+            ensureExecutorsStarted();
+            downloads.ensureWorkersStarted();
         } catch (Exception e) {
             MyLog.i(this, "Couldn't start executor", e);
             couldStopExecutor(true);
@@ -327,29 +337,38 @@ public class MyService extends Service {
         }
     }
     
-    private void ensureExecutorStarted() {
-        final String method = "ensureExecutorStarted";
+    /** One executor per lane, which has commands to execute, but not more than the configured limit */
+    private void ensureExecutorsStarted() {
+        final String method = "ensureExecutorsStarted";
         StringBuilder logMessageBuilder = new StringBuilder();
         synchronized(executorLock) {
-            if ( mExecutor != null && mExecutor.completedBackgroundWork()) {
-                logMessageBuilder.append(" Removing completed Executor " + mExecutor);
-                removeExecutor(logMessageBuilder);
-            }
-            if ( mExecutor != null && !isExecutorReallyWorkingNow()) {
-                logMessageBuilder.append(" Cancelling stalled Executor " + mExecutor);
-                removeExecutor(logMessageBuilder);
-            }
-            if (mExecutor != null) {
-                logMessageBuilder.append(" There is an Executor already " + mExecutor);
-            } else {
-                // For now let's have only ONE working thread 
-                // (it seems there is some problem in parallel execution...)
+            for (QueueExecutor executor : new ArrayList<>(executors)) {
+                if (executor.completedBackgroundWork()) {
+                    logMessageBuilder.append(" Removing completed Executor " + executor);
+                    removeExecutor(executor, logMessageBuilder);
+                } else if (!executor.isReallyWorking()) {
+                    logMessageBuilder.append(" Cancelling stalled Executor " + executor);
+                    removeExecutor(executor, logMessageBuilder);
+                }
+            }
+            int idleExecutors = 0;
+            for (QueueExecutor executor : executors) {
+                if (executor.currentlyExecuting == null) idleExecutors++;
+            }
+            int toAdd = Math.min(MyPreferences.getMaxConcurrentOriginsToSync() - executors.size(),
+                    commandQueue.countFreeLanesToExecute() - idleExecutors);
+            if (executors.isEmpty() && toAdd < 1 && commandQueue.isAnythingToExecuteNow()) toAdd = 1;
+            if (toAdd < 1) {
+                logMessageBuilder.append(" There are Executors already: " + executorsToString());
+            }
+            for (int i = 0; i < toAdd; i++) {
                 QueueExecutor newExecutor = new QueueExecutor();
                 logMessageBuilder.append(" Adding and starting new Executor " + newExecutor);
                 if (AsyncTaskLauncher.execute(this, false, newExecutor)) {
-                    mExecutor = newExecutor;
+                    executors.add(newExecutor);
                 } else {
                     logMessageBuilder.append(" New executor was not added");
+                    break;
                 }
             }
         }
@@ -357,18 +376,23 @@ public class MyService extends Service {
             MyLog.v(this, () -> method + "; " + logMessageBuilder);
         }
     }
-    
-    private void removeExecutor(StringBuilder logMessageBuilder) {
+
+    private void removeExecutor(QueueExecutor executor, StringBuilder logMessageBuilder) {
         synchronized(executorLock) {
-            if (mExecutor == null) {
+            if (!executors.remove(executor)) {
                 return;
             }
-            if (mExecutor.needsBackgroundWork()) {
+            if (executor.needsBackgroundWork()) {
                 logMessageBuilder.append(" Cancelling and");
-                mExecutor.cancelLogged(true);
+                executor.cancelLogged(true);
             }
-            logMessageBuilder.append(" Removing Executor " + mExecutor);
-            mExecutor = null;
+            logMessageBuilder.append(" Removing Executor " + executor);
+        }
+    }
+
+    private String executorsToString() {
+        synchronized(executorLock) {
+            return executors.isEmpty() ? "no executors" : executors.toString();
         }
     }
 
@@ -384,13 +408,16 @@ public class MyService extends Service {
     }
 
     private boolean isAnythingToExecuteNow() {
-        return commandQueue.isAnythingToExecuteNow() || isExecutorReallyWorkingNow();
+        return commandQueue.isAnythingToExecuteNow() || isExecutorReallyWorkingNow() || downloads.isBusy();
     }
     
     private boolean isExecutorReallyWorkingNow() {
         synchronized(executorLock) {
-          return mExecutor != null && mExecutor.isReallyWorking();
-        }        
+            for (QueueExecutor executor : executors) {
+                if (executor.isReallyWorking()) return true;
+            }
+            return false;
+        }
     }
     
     @Override
@@ -448,7 +475,10 @@ public class MyService extends Service {
                 mHeartBeat = null;
             }
         }
+        List<CommandData> leftDownloads = downloads.stop();
+        leftDownloads.forEach(CommandQueue::addToPreQueue);
         AsyncTaskLauncher.cancelPoolTasks(MyAsyncTask.PoolEnum.SYNC);
+        if (!leftDownloads.isEmpty()) commandQueue.saveIfNoExecutors();
         releaseWakeLock();
         stopSelfResult(latestProcessedStartId);
         myContext.getNotifier().clearAndroidNotification(NotificationEventType.SERVICE_RUNNING);
@@ -458,17 +488,26 @@ public class MyService extends Service {
         final String method = "couldStopExecutor";
         StringBuilder logMessageBuilder = new StringBuilder();
         boolean could = true;
+        if (downloads.isWorking() && !forceNow) {
+            MyLog.v(this, () -> method + "; Cannot stop now " + downloads);
+            return false;
+        }
         synchronized(executorLock) {
-            if (mExecutor != null && mExecutor.needsBackgroundWork() && mExecutor.isReallyWorking() ) {
-                if (forceNow) {
-                    logMessageBuilder.append(" Cancelling working Executor;");
-                } else {
-                    logMessageBuilder.append(" Cannot stop now Executor " + mExecutor);
-                    could = false;
+            for (QueueExecutor executor : executors) {
+                if (executor.needsBackgroundWork() && executor.isReallyWorking() ) {
+                    if (forceNow) {
+                        logMessageBuilder.append(" Cancelling working Executor;");
+                    } else {
+                        logMessageBuilder.append(" Cannot stop now Executor " + executor);
+                        could = false;
+                        break;
+                    }
                 }
             }
             if (could) {
-                removeExecutor(logMessageBuilder);
+                for (QueueExecutor executor : new ArrayList<>(executors)) {
+                    removeExecutor(executor, logMessageBuilder);
+                }
             }
         }
         if (logMessageBuilder.length() > 0) {
@@ -493,13 +532,29 @@ public class MyService extends Service {
 
         QueueExecutor() {
             super(PoolEnum.SYNC);
+            setSingleInstance(false);
         }
 
         @Override
         protected Boolean doInBackground2(Void... arg0) {
-            commandQueue.load();
+            commandQueue.onExecutorStarted(instanceId);
             MyLog.d(this, "Started, " + commandQueue.totalSizeToExecute() + " commands to process");
+            // Other lanes may have commands to execute, and they may be started now
+            publishProgress();
             String breakReason = "";
+            try {
+                breakReason = executeQueue();
+            } finally {
+                commandQueue.releaseLane(currentlyExecuting);
+                currentlyExecuting = null;
+                MyLog.d(this, "Ended, " + breakReason + ", " + commandQueue.totalSizeToExecute() + " commands left");
+                commandQueue.onExecutorEnded(instanceId);
+            }
+            return true;
+        }
+
+        private String executeQueue() {
+            String breakReason;
             do {
                 if (isStopping()) {
                     breakReason = "isStopping";
@@ -514,11 +569,12 @@ public class MyService extends Service {
                     break;
                 }
                 synchronized (executorLock) {
-                    if (mExecutor != this) {
-                        breakReason = "Other executor";
+                    if (!executors.contains(this)) {
+                        breakReason = "Removed executor";
                         break;
                     }
                 }
+                commandQueue.releaseLane(currentlyExecuting);
                 CommandData commandData = commandQueue.pollQueue();
                 currentlyExecuting = commandData;
                 currentlyExecutingSince = System.currentTimeMillis();
@@ -550,9 +606,12 @@ public class MyService extends Service {
                 broadcastAfterExecutingCommand(commandData);
                 addSyncOfThisToQueue(commandData);
             } while (true);
-            MyLog.d(this, "Ended, " + breakReason + ", " + commandQueue.totalSizeToExecute() + " commands left");
-            commandQueue.save();
-            return true;
+            return breakReason;
+        }
+
+        @Override
+        protected void onProgressUpdate(Void... values) {
+            startStopExecution();
         }
 
         private void addSyncOfThisToQueue(CommandData commandDataExecuted) {
@@ -606,6 +665,36 @@ public class MyService extends Service {
 
     }
     
+    private class DownloadsParent implements DownloadEngine.Parent {
+
+        @Override
+        public void onBeforeExecuting(CommandData commandData) {
+            MyServiceEventsBroadcaster.newInstance(myContext, getServiceState())
+                    .setCommandData(commandData)
+                    .setEvent(MyServiceEvent.BEFORE_EXECUTING_COMMAND).broadcast();
+        }
+
+        @Override
+        public void onAfterExecuting(CommandData commandData) {
+            if (commandData.getResult().shouldWeRetry()) {
+                commandQueue.addToQueue(QueueType.RETRY, commandData);
+            } else if (commandData.getResult().hasError()) {
+                commandQueue.addToQueue(QueueType.ERROR, commandData);
+            }
+            broadcastAfterExecutingCommand(commandData);
+        }
+
+        @Override
+        public void onWorkerEnded() {
+            startStopExecution();
+        }
+
+        @Override
+        public boolean isStopping() {
+            return MyService.this.isStopping();
+        }
+    }
+
     private class HeartBeat extends MyAsyncTask<Void, Long, Void> {
         private static final long HEARTBEAT_PERIOD_SECONDS = 11;
         private volatile long previousBeat = createdAt;
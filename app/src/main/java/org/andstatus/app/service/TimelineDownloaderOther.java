@@ -108,8 +108,8 @@ class TimelineDownloaderOther extends TimelineDownloader {
                             ) {
                         activity.setSubscribedByMe(TriState.TRUE);
                     }
-                    di.onActivity(activity, false);
                 }
+                di.onActivities(activities);
                 if (toDownload <= 0 || activities.isEmpty() || previousPosition.equals(syncTracker.getPreviousPosition())) {
                     break;
                 }
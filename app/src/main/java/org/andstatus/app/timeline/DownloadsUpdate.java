@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2018 yvolk (Yuri Volkov), http://yurivolkov.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.andstatus.app.timeline;
+
+import android.support.annotation.NonNull;
+
+import org.andstatus.app.data.AttachedImageFile;
+import org.andstatus.app.data.AvatarData;
+import org.andstatus.app.data.AvatarFile;
+import org.andstatus.app.data.DownloadData;
+import org.andstatus.app.data.DownloadStatus;
+import org.andstatus.app.net.social.Actor;
+import org.andstatus.app.service.CommandResult;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Avatars and attachments, downloaded by a command, to be applied to the already shown items
+ * instead of reloading the whole list, see {@link ViewItem#applyDownloads(DownloadsUpdate)}
+ * @author yvolk@yurivolkov.com
+ */
+public class DownloadsUpdate {
+    private final Map<Long, DownloadData> avatars = new HashMap<>();
+    private final Map<Long, DownloadData> attachments = new HashMap<>();
+
+    /** Reads the database, so should be called in background */
+    public static DownloadsUpdate load(@NonNull CommandResult result) {
+        DownloadsUpdate update = new DownloadsUpdate();
+        for (long actorId : result.getAvatarActorIds()) {
+            DownloadData data = AvatarData.getDisplayedForActorId(actorId);
+            if (data.getStatus() == DownloadStatus.LOADED) update.avatars.put(actorId, data);
+        }
+        for (long downloadId : result.getAttachmentIds()) {
+            DownloadData data = DownloadData.fromId(downloadId);
+            if (data.getStatus() == DownloadStatus.LOADED) update.attachments.put(downloadId, data);
+        }
+        return update;
+    }
+
+    public boolean isEmpty() {
+        return avatars.isEmpty() && attachments.isEmpty();
+    }
+
+    /** @return true if the avatar of the actor was changed */
+    public boolean applyToActor(@NonNull Actor actor) {
+        DownloadData data = avatars.get(actor.actorId);
+        if (data == null || actor.isEmpty()) return false;
+
+        AvatarFile avatarFile = actor.avatarFile;
+        if (avatarFile.downloadStatus == DownloadStatus.LOADED
+                && avatarFile.downloadedDate == data.getDownloadedDate()) return false;
+
+        actor.avatarFile = AvatarFile.fromDownloadData(actor, data);
+        return true;
+    }
+
+    /** @return updated image file or the same object, if nothing changed */
+    @NonNull
+    public AttachedImageFile applyToAttachment(@NonNull AttachedImageFile imageFile) {
+        DownloadData data = attachments.get(imageFile.getId());
+        if (data == null || imageFile.getId() == 0) return imageFile;
+        if (imageFile.downloadStatus == DownloadStatus.LOADED
+                && imageFile.downloadedDate == data.getDownloadedDate()) return imageFile;
+
+        return AttachedImageFile.fromDownloadData(data);
+    }
+
+    @Override
+    public String toString() {
+        return "DownloadsUpdate{avatars:" + avatars.keySet() + ", attachments:" + attachments.keySet() + "}";
+    }
+}
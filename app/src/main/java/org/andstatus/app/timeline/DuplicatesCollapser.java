@@ -24,15 +24,22 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 
 import static java.util.stream.Collectors.toList;
 
 /**
+ * Collapses duplicated items of a timeline into groups.
+ * Candidates for duplicates are looked up by {@link ViewItem#getDuplicatesKeys()},
+ * so most pairs of items are not compared at all.
  * @author yvolk@yurivolkov.com
  */
 public class DuplicatesCollapser<T extends ViewItem<T>> {
@@ -44,12 +51,16 @@ public class DuplicatesCollapser<T extends ViewItem<T>> {
     final TimelineData<T> data;
 
     private static class GroupToCollapse<T extends ViewItem<T>> {
+        final long sequence;
         @NonNull
         ItemWithPage<T> parent;
         Set<ItemWithPage<T>> children = new HashSet<>();
+        /** Keys of parents of the group, under which it is indexed */
+        final Set<Long> keys = new HashSet<>();
 
-        GroupToCollapse(@NonNull ItemWithPage<T> parent) {
+        GroupToCollapse(@NonNull ItemWithPage<T> parent, long sequence) {
             this.parent = parent;
+            this.sequence = sequence;
         }
 
         boolean contains(long itemId) {
@@ -60,6 +71,65 @@ public class DuplicatesCollapser<T extends ViewItem<T>> {
 
     }
 
+    /** Groups, which may get more duplicates, oldest first, indexed by keys of their parents */
+    private static class OpenGroups<T extends ViewItem<T>> {
+        final List<GroupToCollapse<T>> list = new ArrayList<>();
+        final Map<Long, List<GroupToCollapse<T>>> byKey = new HashMap<>();
+        /** Groups, which parents may be duplicated by any item */
+        final List<GroupToCollapse<T>> withoutKeys = new ArrayList<>();
+        long sequence = 0;
+
+        void add(ItemWithPage<T> parent) {
+            GroupToCollapse<T> group = new GroupToCollapse<>(parent, sequence++);
+            list.add(group);
+            index(group, parent.item);
+        }
+
+        void setParent(GroupToCollapse<T> group, ItemWithPage<T> parent) {
+            group.children.add(group.parent);
+            group.parent = parent;
+            index(group, parent.item);
+        }
+
+        private void index(GroupToCollapse<T> group, T parentItem) {
+            Set<Long> keys = parentItem.getDuplicatesKeys();
+            if (keys == null) {
+                if (!withoutKeys.contains(group)) withoutKeys.add(group);
+                return;
+            }
+            for (Long key : keys) {
+                if (group.keys.add(key)) byKey.computeIfAbsent(key, k -> new ArrayList<>()).add(group);
+            }
+        }
+
+        GroupToCollapse<T> removeOldest() {
+            GroupToCollapse<T> group = list.remove(0);
+            withoutKeys.remove(group);
+            for (Long key : group.keys) {
+                List<GroupToCollapse<T>> groups = byKey.get(key);
+                if (groups != null) {
+                    groups.remove(group);
+                    if (groups.isEmpty()) byKey.remove(key);
+                }
+            }
+            return group;
+        }
+
+        /** @return groups, which parents the item may duplicate, oldest first */
+        Collection<GroupToCollapse<T>> candidatesFor(T item) {
+            Set<Long> keys = item.getDuplicatesKeys();
+            if (keys == null) return list;
+
+            SortedSet<GroupToCollapse<T>> candidates = new TreeSet<>(Comparator.comparingLong(group -> group.sequence));
+            candidates.addAll(withoutKeys);
+            for (Long key : keys) {
+                List<GroupToCollapse<T>> groups = byKey.get(key);
+                if (groups != null) candidates.addAll(groups);
+            }
+            return candidates;
+        }
+    }
+
     private static class ItemWithPage<T extends ViewItem<T>> {
         TimelinePage<T> page;
         T item;
@@ -86,7 +156,23 @@ public class DuplicatesCollapser<T extends ViewItem<T>> {
         if (maxDistanceBetweenDuplicates < 1) return false;
         T item = data.getItem(position);
         for (int i = Math.max(position - maxDistanceBetweenDuplicates, 0); i <= position + maxDistanceBetweenDuplicates; i++) {
-            if (i != position && item.duplicates(data.params.timeline, data.getItem(i)) != DuplicationLink.NONE) return true;
+            if (i == position) continue;
+            T other = data.getItem(i);
+            if (haveCommonKey(item, other)
+                    && item.duplicates(data.params.timeline, other) != DuplicationLink.NONE) return true;
+        }
+        return false;
+    }
+
+    private static <T extends ViewItem<T>> boolean haveCommonKey(T item, T other) {
+        Set<Long> keys = item.getDuplicatesKeys();
+        Set<Long> otherKeys = other.getDuplicatesKeys();
+        if (keys == null || otherKeys == null) return true;
+
+        Set<Long> smaller = keys.size() <= otherKeys.size() ? keys : otherKeys;
+        Set<Long> larger = smaller == keys ? otherKeys : keys;
+        for (Long key : smaller) {
+            if (larger.contains(key)) return true;
         }
         return false;
     }
@@ -122,12 +208,12 @@ public class DuplicatesCollapser<T extends ViewItem<T>> {
     }
 
     private void innerCollapseDuplicates(long itemId, Set<ItemWithPage<T>> toCollapse) {
-        List<GroupToCollapse<T>> groups = new ArrayList<>();
+        OpenGroups<T> groups = new OpenGroups<>();
         for (TimelinePage<T> page : data.pages) {
             for (T item : page.items) {
                 ItemWithPage<T> itemPair = new ItemWithPage<>(page, item);
                 boolean found = false;
-                for (GroupToCollapse<T> group : groups) {
+                for (GroupToCollapse<T> group : groups.candidatesFor(item)) {
                     switch (item.duplicates(data.params.timeline, group.parent.item)) {
                         case DUPLICATES:
                             found = true;
@@ -135,8 +221,7 @@ public class DuplicatesCollapser<T extends ViewItem<T>> {
                             break;
                         case IS_DUPLICATED:
                             found = true;
-                            group.children.add(group.parent);
-                            group.parent = itemPair;
+                            groups.setParent(group, itemPair);
                             break;
                         default:
                             break;
@@ -146,25 +231,25 @@ public class DuplicatesCollapser<T extends ViewItem<T>> {
                 if (!found) {
                     if (itemId != 0) {
                         Optional<GroupToCollapse<T>> selectedGroupOpt =
-                                groups.stream().filter(group -> group.contains(itemId)).findAny();
+                                groups.list.stream().filter(group -> group.contains(itemId)).findAny();
                         if (selectedGroupOpt.isPresent()) {
                             collapseThisGroup(itemId, selectedGroupOpt.get(), toCollapse);
                             return;
                         }
                     }
-                    if (groups.size() > maxDistanceBetweenDuplicates) {
-                        GroupToCollapse<T> group = groups.remove(0);
+                    if (groups.list.size() > maxDistanceBetweenDuplicates) {
+                        GroupToCollapse<T> group = groups.removeOldest();
                         if (itemId == 0 || group.contains(itemId)) {
                             collapseThisGroup(itemId, group, toCollapse);
                             if (itemId != 0) return;
                         }
                     }
-                    groups.add(new GroupToCollapse<>(itemPair));
+                    groups.add(itemPair);
                 }
 
             }
         }
-        for (GroupToCollapse<T> group : groups) {
+        for (GroupToCollapse<T> group : groups.list) {
             if (itemId == 0 || group.contains(itemId)) {
                 collapseThisGroup(itemId, group, toCollapse);
             }
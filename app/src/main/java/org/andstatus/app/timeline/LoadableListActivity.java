@@ -486,9 +486,39 @@ public abstract class LoadableListActivity<T extends ViewItem<T>> extends MyBase
         if (isRefreshNeededAfterExecuting(commandData)) {
             refreshNeededSince.compareAndSet(0, System.currentTimeMillis());
             refreshNeededAfterForegroundCommand.compareAndSet(false, commandData.isInForeground());
+        } else if (commandData.getResult().hasDownloads()) {
+            applyDownloads(commandData);
         }
     }
 
+    /** Shows downloaded avatars and attachments without reloading the list */
+    private void applyDownloads(CommandData commandData) {
+        new AsyncTaskLauncher<CommandData>().execute(this, true,
+                new MyAsyncTask<CommandData, Void, DownloadsUpdate>("ApplyDownloads" + getInstanceId(),
+                        MyAsyncTask.PoolEnum.QUICK_UI) {
+                    @Override
+                    protected DownloadsUpdate doInBackground2(CommandData... commandData) {
+                        return DownloadsUpdate.load(commandData[0].getResult());
+                    }
+
+                    @Override
+                    protected void onPostExecute2(DownloadsUpdate update) {
+                        if (isFinishing() || getListAdapter() == null) return;
+
+                        if (getListData().applyDownloads(update)) {
+                            MyLog.v(LoadableListActivity.this, () -> "Applied " + update);
+                            getListAdapter().notifyDataSetChanged();
+                        }
+                    }
+
+                    @Override
+                    public String toString() {
+                        return "ApplyDownloads " + super.toString();
+                    }
+                }
+                , commandData);
+    }
+
     /**
      * @return true if needed, false means "don't know"
      */
@@ -512,9 +542,13 @@ public abstract class LoadableListActivity<T extends ViewItem<T>> extends MyBase
             case ANNOUNCE:
             case UNDO_ANNOUNCE:
             case DELETE_NOTE:
+                if (!commandData.getResult().hasError()) {
+                    needed = true;
+                }
+                break;
             case GET_ATTACHMENT:
             case GET_AVATAR:
-                if (!commandData.getResult().hasError()) {
+                if (!commandData.getResult().hasError() && !commandData.getResult().hasDownloads()) {
                     needed = true;
                 }
                 break;
@@ -172,6 +172,23 @@ public class TimelineData<T extends ViewItem<T>> {
         return getEmptyItem();
     }
 
+    /** Updates shown items in place, including collapsed duplicates
+     * @return true if any item was changed */
+    public boolean applyDownloads(@NonNull DownloadsUpdate update) {
+        boolean changed = false;
+        if (update.isEmpty()) return changed;
+
+        for (TimelinePage<T> page : pages) {
+            for (T item : page.items) {
+                changed |= item.applyDownloads(update);
+                for (T child : item.getChildren()) {
+                    changed |= child.applyDownloads(update);
+                }
+            }
+        }
+        return changed;
+    }
+
     @NonNull
     public T getEmptyItem() {
         return pages.get(0).getEmptyItem();
@@ -21,14 +21,20 @@ import android.support.annotation.NonNull;
 
 import org.andstatus.app.actor.ActorListLoader;
 import org.andstatus.app.actor.ActorListType;
+import org.andstatus.app.data.ColumnIndexedCursor;
 import org.andstatus.app.data.DbUtils;
+import org.andstatus.app.data.MyQuery;
 import org.andstatus.app.list.SyncLoader;
+import org.andstatus.app.net.social.Actor;
 import org.andstatus.app.util.I18n;
 import org.andstatus.app.util.MyLog;
 import org.andstatus.app.util.StopWatch;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
 * @author yvolk@yurivolkov.com
@@ -55,7 +61,7 @@ public class TimelineLoader<T extends ViewItem<T>> extends SyncLoader<T> {
         }
         params.timeline.save(params.getMyContext());
         if (params.whichPage != WhichPage.EMPTY) {
-            filter(loadActors(loadFromCursor(queryDatabase())));
+            filter(loadRebloggers(loadActors(loadFromCursor(ColumnIndexedCursor.of(queryDatabase())))));
         }
         params.isLoaded = true;
         if (MyLog.isDebugEnabled()) {
@@ -133,6 +139,15 @@ public class TimelineLoader<T extends ViewItem<T>> extends SyncLoader<T> {
         return items;
     }
 
+    private List<T> loadRebloggers(List<T> items) {
+        Set<Long> noteIds = new HashSet<>();
+        items.forEach(item -> item.addRebloggersToLoad(noteIds));
+        if (noteIds.isEmpty()) return items;
+        Map<Long, List<Actor>> rebloggers = MyQuery.getRebloggers(params.getMyContext(), noteIds);
+        items.forEach(item -> item.setLoadedRebloggers(rebloggers));
+        return items;
+    }
+
     protected void filter(List<T> items) {
         final String method = "filter";
         final StopWatch stopWatch = StopWatch.createStarted();
@@ -18,16 +18,21 @@ package org.andstatus.app.timeline;
 
 import android.database.Cursor;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
 import org.andstatus.app.actor.ActorListLoader;
 import org.andstatus.app.context.MyContext;
+import org.andstatus.app.net.social.Actor;
 import org.andstatus.app.timeline.meta.Timeline;
 import org.andstatus.app.timeline.meta.TimelineType;
 import org.andstatus.app.util.IsEmpty;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class ViewItem<T extends ViewItem<T>> implements IsEmpty {
     private final List<T> children = new ArrayList<>();
@@ -61,6 +66,16 @@ public class ViewItem<T extends ViewItem<T>> implements IsEmpty {
         return DuplicationLink.NONE;
     }
 
+    /**
+     * Keys for a quick lookup of items, which this item may duplicate (see {@link #duplicates(Timeline, ViewItem)}):
+     * items can duplicate each other only if they have a common key.
+     * @return null if the item may duplicate any other item
+     */
+    @Nullable
+    public Set<Long> getDuplicatesKeys() {
+        return Collections.emptySet();
+    }
+
     public boolean isCollapsed() {
         return getChildrenCount() > 0;
     }
@@ -114,6 +129,19 @@ public class ViewItem<T extends ViewItem<T>> implements IsEmpty {
         // Empty
     }
 
+    public void addRebloggersToLoad(Set<Long> noteIds) {
+        // Empty
+    }
+
+    public void setLoadedRebloggers(Map<Long, List<Actor>> rebloggers) {
+        // Empty
+    }
+
+    /** @return true if the item was changed */
+    public boolean applyDownloads(DownloadsUpdate update) {
+        return false;
+    }
+
     @Override
     public int hashCode() {
         int result = Long.hashCode(getId());
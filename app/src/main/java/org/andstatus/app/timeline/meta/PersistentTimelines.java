@@ -29,10 +29,12 @@ import org.andstatus.app.util.TriState;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
@@ -124,6 +126,8 @@ public class PersistentTimelines {
         return timelines.values();
     }
 
+    /** If any timeline of the account needs to be synced, the timelines, which will need a sync
+     * during the next half of the sync period, are returned also, so they are synced at one wakeup */
     @NonNull
     public List<Timeline> toAutoSyncForAccount(MyAccount ma) {
         List<Timeline> timelines = new ArrayList<>();
@@ -131,13 +135,15 @@ public class PersistentTimelines {
             for (Timeline timeline : values()) {
                 if (timeline.isSyncedAutomatically() &&
                         ((!timeline.getTimelineType().isAtOrigin() && timeline.myAccountToSync.equals(ma)) ||
-                                timeline.getTimelineType().isAtOrigin() && timeline.getOrigin().equals(ma.getOrigin())) &&
-                        timeline.isTimeToAutoSync()) {
+                                timeline.getTimelineType().isAtOrigin() && timeline.getOrigin().equals(ma.getOrigin()))) {
                     timelines.add(timeline);
                 }
             }
         }
-        return timelines;
+        if (timelines.stream().noneMatch(Timeline::isTimeToAutoSync)) return Collections.emptyList();
+
+        long aheadMs = ma.getEffectiveSyncFrequencyMillis() / 2;
+        return timelines.stream().filter(timeline -> timeline.isTimeToAutoSync(aheadMs)).collect(Collectors.toList());
     }
 
     @NonNull
@@ -59,6 +59,10 @@ import java.util.concurrent.TimeUnit;
 public class Timeline implements Comparable<Timeline>, IsEmpty {
     public static final Timeline EMPTY = new Timeline();
     private static final long MIN_RETRY_PERIOD_MS = TimeUnit.SECONDS.toMillis(30);
+    /** Sync interval of a quiet timeline may grow up to this number of sync periods of its account */
+    private static final long MAX_SYNC_INTERVAL_FACTOR = 8;
+    /** Intervals, longer than the sync period, are spread by up to this percent of the difference */
+    private static final long MAX_SYNC_INTERVAL_JITTER_PERCENT = 10;
     private volatile long id;
 
     private final TimelineType timelineType;
@@ -686,22 +690,55 @@ public class Timeline implements Comparable<Timeline>, IsEmpty {
      * @return true if it's time to auto update this timeline
      */
     public boolean isTimeToAutoSync() {
+        return isTimeToAutoSync(0);
+    }
+
+    /**
+     * @param aheadMs the timeline, which will need to be synced during this time, is synced now,
+     *                so syncs of several timelines are done at one wakeup
+     * @return true if it's time to auto update this timeline
+     */
+    public boolean isTimeToAutoSync(long aheadMs) {
         if (System.currentTimeMillis() - getLastSyncedDate() < MIN_RETRY_PERIOD_MS) {
             return false;
         }
-        long syncFrequencyMs = myAccountToSync.getEffectiveSyncFrequencyMillis();
+        long syncIntervalMs = getAutoSyncIntervalMillis();
         // This correction needs to take into account
         // that we stored time when sync ended, and not when Android initiated the sync.
-        long correctionForExecutionTime = syncFrequencyMs / 10;
+        long correctionForExecutionTime = myAccountToSync.getEffectiveSyncFrequencyMillis() / 10;
         long passedMs = System.currentTimeMillis() - getLastSyncedDate();
-        boolean blnOut = passedMs > syncFrequencyMs - correctionForExecutionTime;
-        MyLog.v(this, () -> "It's time to auto update " + this +
+        boolean blnOut = passedMs + aheadMs > syncIntervalMs - correctionForExecutionTime;
+        MyLog.v(this, () -> "It's " + (blnOut ? "" : "not ") + "time to auto update " + this +
                 ". " +
                 java.util.concurrent.TimeUnit.MILLISECONDS.toMinutes(passedMs) +
-                " minutes passed.");
+                " minutes passed of " + java.util.concurrent.TimeUnit.MILLISECONDS.toMinutes(syncIntervalMs));
         return blnOut;
     }
 
+    /**
+     * Adapts the sync period of the account to the rate at which new items appear in this timeline:
+     * a busy timeline is synced every period, a quiet one - less often.
+     * The rate is estimated by the number of new items since {@link #countSince}
+     * and by the time since the {@link #youngestItemDate}, whichever is more frequent
+     * @return interval between automatic syncs of this timeline
+     */
+    public long getAutoSyncIntervalMillis() {
+        long syncFrequencyMs = myAccountToSync.getEffectiveSyncFrequencyMillis();
+        if (syncFrequencyMs <= 0) return syncFrequencyMs;
+
+        long now = System.currentTimeMillis();
+        long meanArrivalMs = newItemsCount > 0 && now > countSince
+                ? (now - countSince) / newItemsCount
+                : Long.MAX_VALUE;
+        long quietMs = youngestItemDate > 0
+                ? (now - youngestItemDate) / 2
+                : (syncedTimesCount > 0 ? (now - countSince) / 2 : 0);
+        long intervalMs = Math.max(syncFrequencyMs,
+                Math.min(Math.min(meanArrivalMs, quietMs), syncFrequencyMs * MAX_SYNC_INTERVAL_FACTOR));
+        return intervalMs + (intervalMs - syncFrequencyMs) * (Math.abs(id) % (MAX_SYNC_INTERVAL_JITTER_PERCENT + 1))
+                / 100;
+    }
+
     public void forgetPositionsAndDates() {
         if (!StringUtils.isEmpty(youngestPosition)) {
             youngestPosition = "";
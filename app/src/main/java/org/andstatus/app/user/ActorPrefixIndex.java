@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2018 yvolk (Yuri Volkov), http://yurivolkov.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.andstatus.app.user;
+
+import android.database.Cursor;
+import android.support.annotation.NonNull;
+
+import net.jcip.annotations.GuardedBy;
+
+import org.andstatus.app.context.MyContext;
+import org.andstatus.app.data.DbUtils;
+import org.andstatus.app.data.MyQuery;
+import org.andstatus.app.database.table.ActorTable;
+import org.andstatus.app.net.social.Actor;
+import org.andstatus.app.origin.Origin;
+import org.andstatus.app.util.MyLog;
+import org.andstatus.app.util.StopWatch;
+import org.andstatus.app.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.LongToIntFunction;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory index of lowercase WebFinger IDs, usernames and real names of actors of one origin,
+ * used to autocomplete actors without a LIKE query to the database on each keystroke.
+ * Keys are kept in sorted arrays, so a lookup is a binary search for the start of a prefix range.
+ * Actors, added after the index was built, are kept in a small list that is merged into the arrays
+ * when it grows.
+ * @author yvolk@yurivolkov.com
+ */
+public class ActorPrefixIndex {
+    public static final ActorPrefixIndex EMPTY = new ActorPrefixIndex(0, Collections.emptyList());
+    static final int MAX_ADDED_BEFORE_MERGE = 500;
+
+    public final long originId;
+    @GuardedBy("this")
+    private String[] keys;
+    @GuardedBy("this")
+    private long[] actorIds;
+    @GuardedBy("this")
+    private final List<Entry> added = new ArrayList<>();
+
+    private static class Entry implements Comparable<Entry> {
+        final String key;
+        final long actorId;
+
+        Entry(String key, long actorId) {
+            this.key = key;
+            this.actorId = actorId;
+        }
+
+        @Override
+        public int compareTo(@NonNull Entry o) {
+            return key.compareTo(o.key);
+        }
+    }
+
+    public static ActorPrefixIndex load(MyContext myContext, Origin origin) {
+        if (origin.isEmpty()) return EMPTY;
+
+        StopWatch stopWatch = StopWatch.createStarted();
+        final String sql = "SELECT " + ActorTable._ID + ", " + ActorTable.WEBFINGER_ID + ", "
+                + ActorTable.USERNAME + ", " + ActorTable.REAL_NAME
+                + " FROM " + ActorTable.TABLE_NAME
+                + " WHERE " + ActorTable.ORIGIN_ID + "=" + origin.getId();
+        List<Entry> entries = MyQuery.foldLeft(myContext, sql, new ArrayList<>(), list -> cursor -> {
+            addEntries(list, DbUtils.getLong(cursor, ActorTable._ID), keysOf(cursor));
+            return list;
+        });
+        ActorPrefixIndex index = new ActorPrefixIndex(origin.getId(), entries);
+        MyLog.v(ActorPrefixIndex.class, () -> "Loaded " + entries.size() + " keys for " + origin.getName()
+                + ", " + stopWatch.getTime() + "ms");
+        return index;
+    }
+
+    private ActorPrefixIndex(long originId, List<Entry> entries) {
+        this.originId = originId;
+        setEntries(entries);
+    }
+
+    private void setEntries(List<Entry> entries) {
+        Collections.sort(entries);
+        keys = new String[entries.size()];
+        actorIds = new long[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            keys[i] = entries.get(i).key;
+            actorIds[i] = entries.get(i).actorId;
+        }
+    }
+
+    private static String[] keysOf(Cursor cursor) {
+        return new String[]{
+                DbUtils.getString(cursor, ActorTable.WEBFINGER_ID),
+                DbUtils.getString(cursor, ActorTable.USERNAME),
+                DbUtils.getString(cursor, ActorTable.REAL_NAME)
+        };
+    }
+
+    /** The username is skipped, if the WebFinger ID starts with it, so it is found by the same prefix anyway */
+    private static void addEntries(List<Entry> list, long actorId, String... names) {
+        if (actorId == 0) return;
+
+        List<String> actorKeys = new ArrayList<>();
+        for (String name : names) {
+            if (StringUtils.isEmpty(name)) continue;
+            String key = name.toLowerCase();
+            if (actorKeys.stream().noneMatch(k -> k.startsWith(key))) {
+                actorKeys.add(key);
+            }
+        }
+        actorKeys.forEach(key -> list.add(new Entry(key, actorId)));
+    }
+
+    /** Called when the actor was inserted or its names were changed.
+     * Keys of old names are not removed: they are only extra candidates for a lookup */
+    public void add(Actor actor) {
+        if (actor.isEmpty() || actor.actorId == 0 || actor.origin.getId() != originId) return;
+
+        List<Entry> entries = new ArrayList<>();
+        addEntries(entries, actor.actorId, actor.getWebFingerId(), actor.getUsername(), actor.getRealName());
+        synchronized (this) {
+            added.addAll(entries);
+            if (added.size() > MAX_ADDED_BEFORE_MERGE) {
+                List<Entry> merged = new ArrayList<>(keys.length + added.size());
+                for (int i = 0; i < keys.length; i++) {
+                    merged.add(new Entry(keys[i], actorIds[i]));
+                }
+                merged.addAll(added);
+                added.clear();
+                setEntries(merged);
+            }
+        }
+    }
+
+    /** @return IDs of actors, having a name, which starts with the prefix, in the order of their keys,
+     *  at most maxSize of them */
+    @NonNull
+    public Set<Long> find(String prefix, int maxSize) {
+        return new LinkedHashSet<>(find(prefix, maxSize, actorId -> 0));
+    }
+
+    /**
+     * All actors, having a name, which starts with the prefix, are ranked before the result is truncated,
+     * so an actor of a better rank is found, even if many other names start with the same prefix.
+     * The lookup ends early, when maxSize actors of the best rank (0) are found
+     * @return IDs of actors with lower ranks first, in the order of their keys within one rank,
+     *  at most maxSize of them
+     */
+    @NonNull
+    public synchronized List<Long> find(String prefix, int maxSize, LongToIntFunction rank) {
+        if (StringUtils.isEmpty(prefix) || maxSize < 1) return Collections.emptyList();
+
+        String lowerCasePrefix = prefix.toLowerCase();
+        Map<Integer, Set<Long>> ranked = new TreeMap<>();
+        int index = Arrays.binarySearch(keys, lowerCasePrefix);
+        for (int i = index < 0 ? -index - 1 : index; i < keys.length && keys[i].startsWith(lowerCasePrefix); i++) {
+            if (addRanked(ranked, actorIds[i], rank, maxSize)) return toList(ranked, maxSize);
+        }
+        for (Entry entry : added) {
+            if (entry.key.startsWith(lowerCasePrefix) && addRanked(ranked, entry.actorId, rank, maxSize)) break;
+        }
+        return toList(ranked, maxSize);
+    }
+
+    /** @return true if enough actors of the best rank are found */
+    private static boolean addRanked(Map<Integer, Set<Long>> ranked, long actorId, LongToIntFunction rank,
+                                     int maxSize) {
+        int actorRank = rank.applyAsInt(actorId);
+        Set<Long> ids = ranked.computeIfAbsent(actorRank, key -> new LinkedHashSet<>());
+        ids.add(actorId);
+        return actorRank <= 0 && ids.size() >= maxSize;
+    }
+
+    private static List<Long> toList(Map<Integer, Set<Long>> ranked, int maxSize) {
+        return ranked.values().stream().flatMap(Set::stream).limit(maxSize).collect(Collectors.toList());
+    }
+
+    public synchronized int size() {
+        return keys.length + added.size();
+    }
+
+    @Override
+    public String toString() {
+        return "ActorPrefixIndex{originId=" + originId + ", size=" + size() + '}';
+    }
+}
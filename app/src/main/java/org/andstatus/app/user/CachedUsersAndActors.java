@@ -14,11 +14,13 @@ import org.andstatus.app.database.table.TimelineTable;
 import org.andstatus.app.database.table.UserTable;
 import org.andstatus.app.net.social.Actor;
 import org.andstatus.app.origin.Origin;
+import org.andstatus.app.os.MyAsyncTask;
 import org.andstatus.app.util.CollectionsUtil;
 import org.andstatus.app.util.MyLog;
 import org.andstatus.app.util.TriState;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -35,6 +37,8 @@ public class CachedUsersAndActors {
     public final Map<Long, Actor> myActors = new ConcurrentHashMap<>();
     /** key - friendId, set of values - IDs of my actors  */
     public final Map<Long, Set<Long>> friendsOfMyActors = new ConcurrentHashMap<>();
+    /** key - originId. Indexes are loaded lazily, on the first lookup */
+    private final Map<Long, ActorPrefixIndex> prefixIndexes = new ConcurrentHashMap<>();
 
     public static CachedUsersAndActors newEmpty(MyContext myContext) {
         return new CachedUsersAndActors(myContext);
@@ -64,6 +68,7 @@ public class CachedUsersAndActors {
         actors.clear();
         myUsers.clear();
         myActors.clear();
+        prefixIndexes.clear();
         final String sql = "SELECT " + ActorSql.select()
                 + " FROM " + ActorSql.tables()
                 + " WHERE " + UserTable.IS_MY + "=" + TriState.TRUE.id;
@@ -121,6 +126,32 @@ public class CachedUsersAndActors {
         MyQuery.get(myContext, sql, function);
     }
 
+    /** @return IDs of actors of the origin, whose names start with the prefix:
+     * my actors and friends of my actors first, then actors, cached during this session, then others */
+    @NonNull
+    public List<Long> findActorIdsByPrefix(@NonNull Origin origin, String prefix, int maxSize) {
+        return getPrefixIndex(origin).find(prefix, maxSize, this::prefixRank);
+    }
+
+    private int prefixRank(long actorId) {
+        return isMe(actorId) || friendsOfMyActors.containsKey(actorId)
+                ? 0
+                : (actors.containsKey(actorId) ? 1 : 2);
+    }
+
+    @NonNull
+    ActorPrefixIndex getPrefixIndex(@NonNull Origin origin) {
+        if (origin.isEmpty() || MyAsyncTask.isUiThread()) return ActorPrefixIndex.EMPTY;
+
+        return prefixIndexes.computeIfAbsent(origin.getId(), id -> ActorPrefixIndex.load(myContext, origin));
+    }
+
+    /** Adds new names of the actor to already loaded index of its origin */
+    public void onActorSaved(@NonNull Actor actor) {
+        ActorPrefixIndex index = prefixIndexes.get(actor.origin.getId());
+        if (index != null) index.add(actor);
+    }
+
     public boolean containsMe(@NonNull Collection<Actor> actors) {
         return actors.stream().anyMatch(this::isMe);
     }
@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2018 yvolk (Yuri Volkov), http://yurivolkov.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.andstatus.app.util;
+
+import net.jcip.annotations.GuardedBy;
+
+import org.andstatus.app.data.DbUtils;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Appends lines of the log to the current log file (see {@link MyLog#getLogFilename()}) in a background thread,
+ * so logging to a file doesn't slow down the UI and other callers.
+ * Callers only add lines to a bounded lock-free buffer. Lines, which don't fit into the buffer, are dropped,
+ * and the number of dropped lines is written to the log instead of them.
+ * The lines are appended in batches to the file, which is kept open,
+ * the next file is started when the current one becomes larger than {@link #MAX_FILE_SIZE}.
+ * The writer is a dedicated daemon thread and not a {@link org.andstatus.app.os.MyAsyncTask},
+ * because the pools log their own events.
+ * @author yvolk@yurivolkov.com
+ */
+class LogFileWriter {
+    static final int MAX_QUEUED_LINES = 5000;
+    static final long MAX_FILE_SIZE = 10 * 1024 * 1024;
+    private static final int MAX_BATCH_LENGTH = 64 * 1024;
+
+    private final Queue<String> lines = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queuedCount = new AtomicInteger();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicReference<Thread> thread = new AtomicReference<>();
+
+    private final Object lock = new Object();
+    @GuardedBy("lock")
+    private String fileName = null;
+    @GuardedBy("lock")
+    private File file = null;
+    @GuardedBy("lock")
+    private FileOutputStream out = null;
+    @GuardedBy("lock")
+    private FileChannel channel = null;
+
+    /** Doesn't block: the line is written later or dropped, if the buffer is full */
+    void add(String line) {
+        if (queuedCount.incrementAndGet() > MAX_QUEUED_LINES) {
+            queuedCount.decrementAndGet();
+            droppedCount.incrementAndGet();
+        } else {
+            lines.offer(line);
+        }
+        Thread writer = thread.get();
+        if (writer == null) {
+            startWriter();
+        } else {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private void startWriter() {
+        Thread writer = new Thread(this::run, "MyLog writer");
+        writer.setDaemon(true);
+        writer.setPriority(Thread.MIN_PRIORITY);
+        if (thread.compareAndSet(null, writer)) {
+            writer.start();
+        } else {
+            LockSupport.unpark(thread.get());
+        }
+    }
+
+    private void run() {
+        while (true) {
+            if (lines.isEmpty() && droppedCount.get() == 0) {
+                LockSupport.park(this);
+            } else {
+                flush();
+            }
+        }
+    }
+
+    long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /** Synchronously writes all buffered lines */
+    void flush() {
+        synchronized (lock) {
+            StringBuilder batch = new StringBuilder();
+            long dropped = droppedCount.getAndSet(0);
+            if (dropped > 0) {
+                batch.append(MyLog.currentDateTimeForLogLine()).append(" ")
+                        .append(MyLog.logLevelToString(MyLog.WARN)).append("/").append(MyLog.objToTag(this))
+                        .append(": ").append(dropped).append(" lines dropped, the buffer was full\n");
+            }
+            String line;
+            while ((line = lines.poll()) != null) {
+                queuedCount.decrementAndGet();
+                batch.append(line);
+                if (batch.length() >= MAX_BATCH_LENGTH) {
+                    write(batch);
+                    batch.setLength(0);
+                }
+            }
+            if (batch.length() > 0) write(batch);
+        }
+    }
+
+    /** Closes the current file. Buffered lines are written to the next file or discarded, if logging is disabled */
+    void close() {
+        synchronized (lock) {
+            closeFile();
+        }
+    }
+
+    @GuardedBy("lock")
+    private void write(StringBuilder batch) {
+        FileChannel fileChannel = getChannel();
+        if (fileChannel == null) return;
+
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(batch.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                fileChannel.write(buffer);
+            }
+            if (fileChannel.size() > MAX_FILE_SIZE) {
+                closeFile();
+                MyLog.setNextLogFileName();
+            }
+        } catch (IOException e) {
+            // Logging of this would cause recursion
+            closeFile();
+        }
+    }
+
+    /** @return null if logging to a file is disabled or the file cannot be opened */
+    @GuardedBy("lock")
+    private FileChannel getChannel() {
+        String name = MyLog.getMostRecentLogFileName();
+        if (StringUtils.isEmpty(name)) {
+            closeFile();
+            return null;
+        }
+        if (channel != null && name.equals(fileName) && file.exists()) return channel;
+
+        closeFile();
+        File fileNew = MyLog.getFileInLogDir(name, false);
+        if (fileNew == null) return null;
+        try {
+            out = new FileOutputStream(fileNew, true);
+            channel = out.getChannel();
+            file = fileNew;
+            fileName = name;
+        } catch (IOException e) {
+            closeFile();
+        }
+        return channel;
+    }
+
+    @GuardedBy("lock")
+    private void closeFile() {
+        DbUtils.closeSilently(channel, fileName);
+        DbUtils.closeSilently(out, fileName);
+        channel = null;
+        out = null;
+        file = null;
+        fileName = null;
+    }
+}
@@ -98,6 +98,7 @@ public class MyLog {
     private final static AtomicBoolean logToFileEnabled = new AtomicBoolean(false);
     @GuardedBy("logToFileEnabled")
     private static String logFileName = null;
+    private static final LogFileWriter logFileWriter = new LogFileWriter();
 
     public static final String COMMA = ",";
 
@@ -494,16 +495,29 @@ public class MyLog {
     }
     
     public static void setLogToFile(boolean logEnabled) {
-        logToFileEnabled.set(logEnabled);
-        if (logToFileEnabled.get()) {
+        if (logEnabled) {
             setNextLogFileName(false);
-        } else { 
+            logToFileEnabled.set(true);
+        } else {
+            logToFileEnabled.set(false);
+            logFileWriter.flush();
             synchronized (logToFileEnabled) {
                 logFileName = null;
             }
+            logFileWriter.close();
         }
     }
 
+    /** Writes to the log file everything, logged so far. Logging to the file is asynchronous */
+    public static void flushLogFile() {
+        logFileWriter.flush();
+    }
+
+    /** @return number of lines, not written to the log file, because they were logged too fast */
+    public static long getLogFileDroppedCount() {
+        return logFileWriter.getDroppedCount();
+    }
+
     private static void setNextLogFileName(boolean changeExisting) {
         String filename = currentDateTimeFormatted() + "_log.txt";
         synchronized (logToFileEnabled) {
@@ -538,20 +552,12 @@ public class MyLog {
             builder.append(getStackTrace(tr));
         }
         builder.append("\n");
-        writeRawStringToLogFile(builder);
+        logFileWriter.add(builder.toString());
     }
 
-    private static final Object logFileWriterLock = new Object();
-
-    private static void writeRawStringToLogFile(StringBuilder builder) {
-        synchronized (logFileWriterLock) {
-            writeStringToFile(builder.toString(), getMostRecentLogFileName(), true, false);
-        }
-    }
-    
-    private static String getMostRecentLogFileName() {
+    static String getMostRecentLogFileName() {
         String filename = getLogFilename();
-        if (!FileUtils.exists(getFileInLogDir(filename, false))) {
+        if (filename != null && !FileUtils.exists(getFileInLogDir(filename, false))) {
             setNextLogFileName(true);
             filename = getLogFilename();
         }